@@ -0,0 +1,78 @@
+/*
+ * Date: October 16, 2026
+ * Name: Matthew Chan
+ *
+ * Program Description:
+ * The ArrayPostingsCursor Java class is a PostingsCursor over a postings list that is already
+ * decoded into [docID, count, docID, count, ...], such as the postings of a phrase. advance
+ * gallops forward so that a long list is crossed in a logarithmic number of steps when the
+ * other terms are rare.
+ *
+ */
+
+public class ArrayPostingsCursor extends PostingsCursor {
+
+    private final int[] postings;       // [docID, count, docID, count, ...]
+    private int index = 0;              // index of the current docID in postings
+
+    public ArrayPostingsCursor(int[] postings, double idf, double upperBound) {
+        super(idf, upperBound);
+        this.postings = postings;
+    }
+
+    @Override
+    public int docID() {
+        return index < postings.length ? postings[index] : NO_MORE_DOCS;
+    }
+
+    @Override
+    public int count() {
+        return postings[index + 1];
+    }
+
+    @Override
+    public int documentFrequency() {
+        return postings.length / 2;
+    }
+
+    // The whole list was decoded before the cursor was made
+    @Override
+    public long postingsDecoded() {
+        return postings.length / 2;
+    }
+
+    @Override
+    public int next() {
+        index = index + 2;
+        return docID();
+    }
+
+    @Override
+    public int advance(int target) {
+        if (docID() >= target) {
+            return docID();
+        }
+
+        // Gallop forward until the target is passed, then binary search the last step
+        int low = index;
+        int step = 2;
+        int high = index + step;
+        while (high < postings.length && postings[high] < target) {
+            low = high;
+            step = step * 2;
+            high = index + step;
+        }
+        high = Math.min(high, postings.length);
+        // postings[low] < target, and postings[high] >= target or high is past the end
+        while (high - low > 2) {
+            int mid = low + ((high - low) / 4) * 2;
+            if (postings[mid] < target) {
+                low = mid;
+            } else {
+                high = mid;
+            }
+        }
+        index = high;
+        return docID();
+    }
+}
@@ -6,9 +6,10 @@
  * The Java program, named BM25, serves as an implementation for the BM25 ranking algorithm, 
  * a popular information retrieval method. The program takes four command-line arguments: 
  * the path to a compressed data file, the path to a queries file, the path to store the results, 
- * and a flag (0 or 1) indicating whether to apply stemming to the index. It utilizes tokenization, 
- * reads serialized objects representing the index and lexicon, and computes BM25 scores for each 
- * document based on the provided queries. The results, containing topic IDs, document ranks, 
+ * and a flag (0 or 1) indicating whether to apply stemming to the index, which must match the
+ * stemming the index was built with, as recorded in its manifest. It utilizes tokenization, 
+ * searches every segment of the index with collection statistics summed over the segments, 
+ * and computes BM25 scores for each document based on the provided queries. The results, containing topic IDs, document ranks, 
  * scores, and other relevant information, are then written to an output file. The code is 
  * structured with error-checking for file paths and arguments, making it a comprehensive tool 
  * for BM25-based ranking evaluation in information retrieval scenarios.
@@ -17,257 +18,448 @@
  * javac BM25.java
  * java BM25.java latimes_index queries.txt bm25-baseline-m227chan.txt 0
  * java BM25.java latimes_index queries.txt bm25-stem-m227chan.txt 1
+ * java BM25.java latimes_index queries.txt bm25-stem-m227chan.txt 1 --warmup 1000
+ * java BM25.java latimes_index queries.txt bm25-stem-m227chan.txt 1 --k1 0.9 --b 0.4
+ * java BM25.java latimes_index queries.txt bm25-stem-m227chan.txt 1 --algorithm wand
+ * java BM25.java latimes_index queries.txt bm25-stem-m227chan.txt 1 --algorithm bmw --compare
+ * java BM25.java latimes_index queries.txt bm25-stem-m227chan.txt 1 --threads 8
+ * java BM25.java latimes_index queries.txt bm25-stem-m227chan.txt 1 --postings-cache-mb 256
+ * java BM25.java latimes_index queries.txt bm25-stem-m227chan.txt 1 --algorithm saat
+ * java BM25.java latimes_index queries.txt bm25-stem-m227chan.txt 1 --algorithm saat --impact-budget 100000
+ * java BM25.java latimes_index boolean-queries.txt bm25-stem-m227chan.txt 1 --boolean
+ * java BM25.java latimes_index queries.txt bm25-stem-m227chan.txt 1 --metrics-out metrics.json
+ * 
+ * By default every posting of every query term is scored term-at-a-time into a dense score 
+ * accumulator, and a heap of size 1000 picks the top documents. With --algorithm maxscore, 
+ * wand or bmw, documents are scored document-at-a-time and only the top 1000 are kept, 
+ * skipping documents that cannot reach them (see DaatSearcher). The ranked documents and 
+ * scores are the same; documents with equal scores are ordered by docno. --compare also ranks 
+ * every topic without pruning, checks that the top 1000 are the same, and reports the postings 
+ * decoded and the time taken by each.
+ * 
+ * With --algorithm saat, topics are ranked score-at-a-time over the quantized impacts built by 
+ * IndexEngine --impacts (see ImpactSearcher), which approximates the BM25 ranking.
+ * 
+ * With --boolean, each query may use AND, OR, NOT, +term, -term, parentheses and phrases (see 
+ * BooleanQuery). Only the documents that match it are ranked with BM25, intersecting the 
+ * postings of required terms shortest first (see BooleanSearcher). A query without operators 
+ * ranks the same as by default.
+ * 
+ * With --threads, topics are ranked concurrently by a pool of threads over the shared index. 
+ * Each topic's lines are written as soon as it and the topics before it are ranked, so the 
+ * run is the same, byte for byte, as with one thread.
+ * 
+ * The decoded postings of the terms that are asked for most often are kept in a cache of 64 MB 
+ * (--postings-cache-mb, 0 turns it off), and how many decodes it saved is printed at the end.
+ * 
+ * The time each topic spends tokenizing, looking terms up, fetching postings, scoring and 
+ * selecting the top 1000 is recorded in latency histograms (see QueryMetrics), and their 
+ * percentiles are printed at the end; --metrics-out also writes them to a JSON file.
  * 
  */
 
 import java.io.BufferedReader;
+import java.io.BufferedWriter;
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.FileReader;
 import java.io.FileWriter;
 import java.io.IOException;
-import java.io.ObjectInputStream;
 import java.nio.file.FileAlreadyExistsException;
 import java.util.ArrayList;
 import java.util.Collections;
-import java.util.Comparator;
-import java.util.HashMap;
-import java.util.Hashtable;
 import java.util.List;
-import java.util.Map;
-import java.util.Scanner;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
-@SuppressWarnings("unchecked")
 public class BM25 {
 
-    // Check if a character is alphanumeric
-    private static boolean isAlphanumeric(char c) {
-        return (c >= 'a' && c <= 'z') || (c >= '0' && c <= '9');
-    }
+    // Ranks topics into TREC lines. It has its own accumulator, heaps and searchers, so each
+    // thread uses a ranker of its own over the shared read-only index.
+    private static class TopicRanker {
+        private static final String runTag = "BM25";
+        private static final String Q = "Q0";
+
+        final SegmentedIndex index;
+        final String stem;
+        final double N;
+        final double[] lengthNorms;
+        final DaatSearcher.Algorithm algorithm;     // null for exhaustive term-at-a-time
+        final ImpactSearcher impactSearcher;        // null unless ranking score-at-a-time
+        final BooleanSearcher booleanSearcher;      // null unless the queries are Boolean
+        final boolean compare;
+        final DaatSearcher searcher;
+        final DaatSearcher baseline;
+        final TopDocs top;
+        final TopDocs baselineTop;
+        final ScoreAccumulator accumulator;
+        final QueryMetrics metrics;                 // shared by the rankers of every thread
+
+        // Work counters, summed over the topics this ranker ranked
+        long exhaustivePostingsScored = 0;
+        long exhaustiveDocsTouched = 0;
+        long baselineTime = 0;
+        long algorithmTime = 0;
+        final List<Integer> mismatches = new ArrayList<Integer>();
+
+        TopicRanker(SegmentedIndex index, String stem, double k1, double b, double[] lengthNorms,
+                    DaatSearcher.Algorithm algorithm, boolean compare, ImpactIndex impacts, int impactBudget,
+                    boolean booleanQueries, QueryMetrics metrics) {
+            this.index = index;
+            this.stem = stem;
+            this.N = index.numDocs();
+            this.lengthNorms = lengthNorms;
+            this.algorithm = algorithm;
+            this.compare = compare;
+            this.impactSearcher = impacts != null ? new ImpactSearcher(impacts, index, k1, b, impactBudget) : null;
+            this.booleanSearcher = booleanQueries ? new BooleanSearcher(index, k1, b, lengthNorms) : null;
+            this.searcher = new DaatSearcher(index, k1, b, lengthNorms);
+            this.baseline = new DaatSearcher(index, k1, b, lengthNorms);
+            this.top = new TopDocs(1000, index);
+            this.baselineTop = new TopDocs(1000, index);
+            this.accumulator = algorithm == null && impacts == null && !booleanQueries ? new ScoreAccumulator(index.numDocs()) : null;
+            this.metrics = metrics;
+        }
 
-    // Tokenize a given text based on Strohman's pseudocode
-    private static List<String> tokenize(String text, String stem) {
-        List<String> tokens = new ArrayList<String>();
-        text = text.toLowerCase();
-        int start = 0;
-        int i = 0;
-
-        while (i < text.length()) {
-            char c = text.charAt(i);
-
-            if (!isAlphanumeric(c)) {
-                if (start != i) {
-                    String token = text.substring(start, i);
-                    if (stem.equals("1")) {
-                        token = PorterStemmer.stem(token);
+        // Returns the number of postings scored by this ranker
+        long postingsScored() {
+            if (impactSearcher != null) {
+                return impactSearcher.postingsRead();
+            }
+            if (booleanSearcher != null) {
+                return booleanSearcher.postingsDecoded();
+            }
+            return algorithm != null ? searcher.postingsScored() : exhaustivePostingsScored;
+        }
+
+        // Returns the number of documents given a score by this ranker
+        long docsTouched() {
+            if (impactSearcher != null) {
+                return impactSearcher.docsTouched();
+            }
+            if (booleanSearcher != null) {
+                return booleanSearcher.docsMatched();
+            }
+            return algorithm != null ? searcher.docsScored() : exhaustiveDocsTouched;
+        }
+
+        // Ranks one topic and returns its TREC lines, each ending with a newline
+        String rank(int topicID, String query) {
+            long queryStart = System.nanoTime();
+            long postingsBefore = postingsScored();
+            long docsBefore = docsTouched();
+
+            // Tokenize the query, or parse its operators
+            List<String> tokens = null;
+            BooleanQuery booleanQuery = null;
+            if (booleanSearcher != null) {
+                booleanQuery = BooleanQuery.parse(query, stem, index.hasPositions());
+            } else {
+                tokens = Tokenizer.tokens(query, stem.equals("1"));
+            }
+            long start = metrics.lap(QueryMetrics.Stage.TOKENIZE, queryStart);
+
+            if (booleanSearcher != null) {
+                // Rank only the documents that match the query's operators
+                booleanSearcher.search(booleanQuery, top);
+                metrics.lap(QueryMetrics.Stage.SCORING, start);
+            } else if (impactSearcher != null) {
+                // Add up the quantized impacts of the query terms, highest first
+                impactSearcher.search(tokens, top);
+                metrics.lap(QueryMetrics.Stage.SCORING, start);
+            } else if (algorithm != null) {
+                if (compare) {
+                    long baselineStart = System.nanoTime();
+                    baseline.search(baseline.cursors(tokens), baselineTop, DaatSearcher.Algorithm.UNPRUNED);
+                    baselineTime += System.nanoTime() - baselineStart;
+                    start = System.nanoTime();
+                }
+
+                // Keep the top 1000 documents, skipping the ones that cannot reach them
+                long algorithmStart = start;
+                List<PostingsCursor> cursors = searcher.cursors(tokens);
+                start = metrics.lap(QueryMetrics.Stage.LEXICON, start);
+                searcher.search(cursors, top, algorithm);
+                start = metrics.lap(QueryMetrics.Stage.SCORING, start);
+                algorithmTime += start - algorithmStart;
+
+                if (compare && !sameTopDocs(top, baselineTop)) {
+                    mismatches.add(topicID);
+                }
+            } else {
+                // Iterate through each term in the query, adding up the time of each stage
+                long lexiconTime = 0;
+                long postingsTime = 0;
+                long scoringTime = 0;
+                for (int i = 0; i < tokens.size(); i++) {
+                    // Get postings list for the term from every segment
+                    long termStart = System.nanoTime();
+                    int[] termIDs = index.termIDs(tokens.get(i));
+                    long lookedUp = System.nanoTime();
+                    int[] postings = index.getPostings(termIDs);
+                    long fetched = System.nanoTime();
+                    lexiconTime += lookedUp - termStart;
+                    postingsTime += fetched - lookedUp;
+                    if (postings == null) {
+                        continue;
                     }
-                    tokens.add(token);
+                    exhaustivePostingsScored += postings.length / 2;
+
+                    // Calculate idf and add the BM25 score of each posting to its document
+                    double n = postings.length / 2;
+                    double idf = Math.log((N - n + 0.5) / (n + 0.5));
+                    accumulator.add(postings, idf, lengthNorms);
+                    scoringTime += System.nanoTime() - fetched;
                 }
-                start = i + 1;
+                metrics.record(QueryMetrics.Stage.LEXICON, lexiconTime);
+                metrics.record(QueryMetrics.Stage.POSTINGS, postingsTime);
+                metrics.record(QueryMetrics.Stage.SCORING, scoringTime);
+                exhaustiveDocsTouched += accumulator.size();
+
+                // Keep the top 1000 documents, ordered by score and then by docno
+                start = System.nanoTime();
+                accumulator.collect(top);
+                metrics.lap(QueryMetrics.Stage.TOP_K, start);
+            }
+
+            // Write the top-ranked results
+            StringBuilder sbResult = new StringBuilder();
+            for (int i = 0; i < top.size(); i++) {
+                double score = top.score(i);
+                String docno = index.docno(top.docID(i));
+                int rank = i + 1;
+                sbResult.append(topicID + " " + Q + " " + docno + " " + rank + " " + score + " " + runTag + "\n");
             }
-            i++;
+            metrics.addPostingsScored(postingsScored() - postingsBefore);
+            metrics.addDocsTouched(docsTouched() - docsBefore);
+            metrics.lap(QueryMetrics.Stage.QUERY, queryStart);
+            return sbResult.toString();
         }
+    }
 
-        if (start != i) {
-            String token = text.substring(start, i);
-            if (stem.equals("1")) {
-                token = PorterStemmer.stem(token);
+    // Returns whether two sorted top documents hold the same documents with the same scores
+    private static boolean sameTopDocs(TopDocs a, TopDocs b) {
+        if (a.size() != b.size()) {
+            return false;
+        }
+        for (int i = 0; i < a.size(); i++) {
+            if (a.docID(i) != b.docID(i) || a.score(i) != b.score(i)) {
+                return false;
             }
-            tokens.add(token);
         }
-        return tokens;
+        return true;
     }
 
-    public static void main(String[] args) throws FileNotFoundException, IOException, ClassNotFoundException {
+    public static void main(String[] args) throws FileNotFoundException, IOException {
         // Check if the correct number of command line arguments is provided
-        if (args.length != 4) {
+        Options options = new Options(args);
+        if (options.numPositional() != 4) {
             throw new IllegalArgumentException("Please include a valid path to gzip'd data file, a path to a query txt file, a path to store the results, and specify the third argument as 0 for no stem or 1 for stem.");
         }
 
         // Check if the data file path exists
-        String dataPath = args[0];
+        String dataPath = options.positional(0);
         File dataFile = new File(dataPath);
         if (!dataFile.exists()) {
             throw new FileNotFoundException(dataPath + " path does not exist");
         }
 
         // Check if the queries file path exists
-        String queryPath = args[1];
+        String queryPath = options.positional(1);
         File queryFile = new File(queryPath);
         if (!queryFile.exists()) {
             throw new FileNotFoundException(queryPath + " path does not exist");
         }
 
         // Check if the results file path already exists
-        File resultFile = new File(args[2]);
+        File resultFile = new File(options.positional(2));
         if (!resultFile.createNewFile()) {
             throw new FileAlreadyExistsException("Result file path already exists");
         }
 
         // Validate the stem argument
-        String stem = args[3];
+        String stem = options.positional(3);
         if ((!stem.equals("0") && !stem.equals("1"))) {
             throw new IllegalArgumentException("The third argument must be either: 0 (no index stemming) or 1 (with index stemming)");
         }
 
-        // Check if the indexMap file path exists
-        File IMFile = new File(dataPath + "\\indexMap.txt");
-        if (!IMFile.exists()) {
-            throw new FileNotFoundException("indexMap.txt path does not exist");
-        }
+        // Open every segment of the index, statistics are summed over the segments
+        SegmentedIndex index = SegmentedIndex.open(dataPath);
 
-        // Read indexMap file into a list
-        ArrayList<String> IMList = new ArrayList<>();
-        String currLineIM = "";
-        Scanner myReaderIM = new Scanner(IMFile);
-        while (myReaderIM.hasNextLine()) {
-            currLineIM = myReaderIM.nextLine();
-            IMList.add(currLineIM);
+        // The queries must be stemmed the way the index was built, as recorded in its manifest
+        if (!stem.equals(index.stem())) {
+            index.close();
+            resultFile.delete();
+            throw new IllegalArgumentException("The stem argument is " + stem + " but the index was built with stem " +
+                                               index.stem() + ", queries must be stemmed the same way as the index");
         }
-        myReaderIM.close();
 
-        // Check if the doc-length file path exists in dataPath
-        File docLengthsFile = new File(dataPath + "\\doc-lengths.txt");
-        if (!docLengthsFile.exists()) {
-            throw new FileNotFoundException("doc-lengths.txt path does not exist");
-        }
+        // Optionally pre-touch the pages of each segment's hottest terms
+        index.warmUp(options.getInt("warmup", 0));
 
-        // Read doc-length file into a list and calculate average document length
-        ArrayList<Integer> docLengthsList = new ArrayList<>();
-        int currLength = 0;
-        Double sum = 0.0;
-        Double N = 0.0;
-        Double avgDocLength = -1.0;
-        Scanner myReader = new Scanner(docLengthsFile);
-        while (myReader.hasNextLine()) {
-            currLength = Integer.parseInt(myReader.nextLine());
-            docLengthsList.add(currLength);
-            sum = sum + currLength;
-            N++;
-        }
-        myReader.close();
-        if (N > 0) {
-            avgDocLength = sum / N;
-        }
+        // Keep the decoded postings of hot terms in memory, shared by the threads
+        index.setPostingsCache(options.getInt("postings-cache-mb", 64) * 1048576L);
 
-        // Read queries from the query file
+        // Read the topics from the query file, each is a topic ID line followed by a query line
         BufferedReader brQueries = new BufferedReader(new FileReader(queryFile));
-        StringBuilder sbResult = new StringBuilder();
-
-        // Read lexiconTermToID and invIndex objects from serialized files
-        FileInputStream fisLexiconTermToID = new FileInputStream(dataPath + "\\lexiconTermToID.txt");
-        ObjectInputStream oisLexiconTermToID = new ObjectInputStream(fisLexiconTermToID);
-        HashMap<String, Integer> lexiconTermToID = (HashMap<String, Integer>) oisLexiconTermToID.readObject();
-
-        FileInputStream fisInvIndex = new FileInputStream(dataPath + "\\invIndex.txt");
-        ObjectInputStream oisInvIndex = new ObjectInputStream(fisInvIndex);
-        HashMap<Integer, List<Integer>> invIndex = (HashMap<Integer, List<Integer>>) oisInvIndex.readObject();
-
+        List<Integer> topicIDs = new ArrayList<Integer>();
+        List<String> queries = new ArrayList<String>();
         String currLine = "";
-        String query = "";
-        int termID = -1;
-        int topicID = 0;
-        String docno = "NA";
-        Double score = 0.0;
-        int rank = 0;
-        String runTag = "BM25";
-        String Q = "Q0";
-        Double b = 0.75;
-        Double k1 = 1.2;
-
-        // Iterate through each query in the file
         while ((currLine = brQueries.readLine()) != null) {
-            topicID = Integer.valueOf(currLine);
-
-            if ((currLine = brQueries.readLine()) != null) {
-                query = currLine;
-            }
-
-            // Tokenize the query
-            List<String> tokens = new ArrayList<>();
-            tokens = tokenize(query, stem);
-
-            // Hashtable to store document scores
-            Hashtable<Integer, Double> accumulator = new Hashtable<>(); // doc id -> score
-
-            if (!tokens.isEmpty()) {
-                // Iterate through each term in the query
-                for (int i = 0; i < tokens.size(); i++) {
-                    if (lexiconTermToID.containsKey(tokens.get(i))) {
-                        termID = lexiconTermToID.get(tokens.get(i));
-                    } else {
-                        continue;
-                    }
-                    // Get postings list for the term
-                    List<Integer> postings = invIndex.get(termID);
+            topicIDs.add(Integer.valueOf(currLine));
+            currLine = brQueries.readLine();
+            queries.add(currLine != null ? currLine : "");
+        }
+        brQueries.close();
 
-                    Double scoreBM25 = 0.0;
-                    Double n = (double) postings.size() / 2;
+        // BM25 parameters, see BM25Sweep for tuning them
+        double k1 = options.getDouble("k1", 1.2);
+        double b = options.getDouble("b", 0.75);
 
-                    // Calculate idf
-                    Double idf = Math.log((N - n + 0.5) / (n + 0.5));
+        // Length normalization (K) of every document for this k1 and b
+        double[] lengthNorms = index.lengthNorms(k1, b);
 
-                    // Compute BM25 for each document
-                    for (int j = 0; j < postings.size(); j = j + 2) {
-                        int docid = postings.get(j);
-                        Double termFreq = (double) postings.get(j + 1);
-                        Double docLength = (double) docLengthsList.get(docid);
+        // Document-at-a-time evaluation with dynamic pruning, null for exhaustive term-at-a-time
+        String algorithmName = options.get("algorithm", "exhaustive");
+        boolean scoreAtATime = algorithmName.equals("saat");
+        DaatSearcher.Algorithm algorithm = algorithmName.equals("exhaustive") || scoreAtATime ? null : DaatSearcher.Algorithm.parse(algorithmName);
 
-                        // Calculate length normalization (K)
-                        Double k = k1 * ((1 - b) + b * docLength / avgDocLength);
+        // Score-at-a-time evaluation over the quantized impacts, optionally reading at most
+        // --impact-budget postings per topic
+        ImpactIndex impacts = scoreAtATime ? ImpactIndex.open(dataPath, index) : null;
+        int impactBudget = options.getInt("impact-budget", 0);
 
-                        // Calculate tf weight
-                        Double tf = termFreq / (k + termFreq);
+        // Unpruned document-at-a-time ranking to compare the algorithm against
+        boolean compare = options.has("compare");
+        if (compare && algorithm == null) {
+            throw new IllegalArgumentException("--compare needs a document-at-a-time --algorithm");
+        }
 
-                        scoreBM25 = tf * idf;
+        // Queries with Boolean operators, whose matching documents are ranked exhaustively
+        boolean booleanQueries = options.has("boolean");
+        if (booleanQueries && !algorithmName.equals("exhaustive")) {
+            throw new IllegalArgumentException("--boolean ranks every matching document and cannot be used with --algorithm " + algorithmName);
+        }
 
-                        // Update accumulator
-                        if (!accumulator.containsKey(docid)) {
-                            accumulator.put(docid, scoreBM25);
-                        } else {
-                            accumulator.put(docid, accumulator.get(docid) + scoreBM25);
-                        }
-                    }
-                }
-            }
+        // Topics are ranked concurrently by a pool of threads, each with a ranker of its own
+        int numThreads = options.getInt("threads", 1);
+        if (numThreads < 1) {
+            throw new IllegalArgumentException("--threads must be at least 1");
+        }
+        List<TopicRanker> rankers = Collections.synchronizedList(new ArrayList<TopicRanker>());
+        QueryMetrics metrics = new QueryMetrics();
+        ThreadLocal<TopicRanker> threadRankers = ThreadLocal.withInitial(() -> {
+            TopicRanker ranker = new TopicRanker(index, stem, k1, b, lengthNorms, algorithm, compare, impacts, impactBudget,
+                                                 booleanQueries, metrics);
+            rankers.add(ranker);
+            return ranker;
+        });
+        ExecutorService workers = Executors.newFixedThreadPool(numThreads);
+        long startTime = System.nanoTime();
+
+        List<Future<String>> rankedTopics = new ArrayList<Future<String>>();
+        for (int i = 0; i < topicIDs.size(); i++) {
+            int topicID = topicIDs.get(i);
+            String query = queries.get(i);
+            rankedTopics.add(workers.submit(() -> threadRankers.get().rank(topicID, query)));
+        }
 
-            // Sort accumulator in descending order
-            ArrayList<Map.Entry<Integer, Double>> accumulatorEntries = new ArrayList<>(accumulator.entrySet());
-            Collections.sort(accumulatorEntries, new Comparator<Map.Entry<Integer, Double>>() {
-                public int compare(Map.Entry<Integer, Double> a, Map.Entry<Integer, Double> b) {
-                    return Double.compare(b.getValue(), a.getValue());
+        // Write each topic's lines as soon as it and every topic before it are ranked, so the
+        // run is in topic order; the last line has no newline
+        BufferedWriter writerResult = new BufferedWriter(new FileWriter(resultFile), 1 << 16);
+        try {
+            boolean written = false;
+            for (Future<String> rankedTopic : rankedTopics) {
+                String lines = rankedTopic.get();
+                if (lines.isEmpty()) {
+                    continue;
                 }
-            });
-
-            // Write the top-ranked results to the StringBuilder
-            for (int i = 0; i < accumulatorEntries.size(); i++) {
-                if (i >= 1000) {
-                    break;
+                if (written) {
+                    writerResult.write('\n');
                 }
-                Map.Entry<Integer, Double> entry = accumulatorEntries.get(i);
-                score = entry.getValue();
-                docno = IMList.get(entry.getKey());
-                rank = i + 1;
-                sbResult.append(topicID + " " + Q + " " + docno + " " + rank + " " + score + " " + runTag + "\n");
+                writerResult.write(lines, 0, lines.length() - 1);
+                written = true;
             }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Ranking was interrupted", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IOException("Ranking failed", e.getCause());
+        } finally {
+            workers.shutdownNow();
+            writerResult.close();
         }
 
-        // Remove the last empty line
-        if (sbResult.length() != 0) {
-            sbResult.setLength(sbResult.length() - 1);
+        // Report the ranking time and the work it took, summed over the rankers
+        int numTopics = topicIDs.size();
+        long postingsScored = 0;
+        long baselineTime = 0;
+        long algorithmTime = 0;
+        long baselineDecoded = 0;
+        long baselineScored = 0;
+        long algorithmDecoded = 0;
+        long impactsSkipped = 0;
+        int earlyStops = 0;
+        int budgetStops = 0;
+        long docsMatched = 0;
+        List<Integer> mismatches = new ArrayList<Integer>();
+        for (TopicRanker ranker : rankers) {
+            postingsScored += ranker.postingsScored();
+            baselineTime += ranker.baselineTime;
+            algorithmTime += ranker.algorithmTime;
+            baselineDecoded += ranker.baseline.postingsDecoded();
+            baselineScored += ranker.baseline.postingsScored();
+            algorithmDecoded += ranker.searcher.postingsDecoded();
+            mismatches.addAll(ranker.mismatches);
+            if (ranker.impactSearcher != null) {
+                impactsSkipped += ranker.impactSearcher.postingsSkipped();
+                earlyStops += ranker.impactSearcher.earlyStops();
+                budgetStops += ranker.impactSearcher.budgetStops();
+            }
+            if (ranker.booleanSearcher != null) {
+                docsMatched += ranker.booleanSearcher.docsMatched();
+            }
+        }
+        Collections.sort(mismatches);
+        float totalTime = (System.nanoTime() - startTime) / 1e6f;
+        System.out.printf("Ranked %d topics with %s on %d threads in %.1f ms (%.2f ms per topic), %d postings scored%n",
+                numTopics, algorithmName, numThreads, totalTime, totalTime / Math.max(numTopics, 1), postingsScored);
+        if (scoreAtATime) {
+            System.out.printf("%d impact postings were not read, %d topics stopped with the top 1000 decided, %d at the budget%n",
+                    impactsSkipped, earlyStops, budgetStops);
+        }
+        if (booleanQueries) {
+            System.out.printf("%d documents matched the Boolean queries and were ranked%n", docsMatched);
+        }
+        if (compare) {
+            System.out.printf("%-10s %12s %12s %18s %18s%n", "algorithm", "total ms", "ms/topic", "postings decoded", "postings scored");
+            System.out.printf("%-10s %12.1f %12.3f %18d %18d%n", "unpruned", baselineTime / 1e6,
+                    baselineTime / 1e6 / Math.max(numTopics, 1), baselineDecoded, baselineScored);
+            System.out.printf("%-10s %12.1f %12.3f %18d %18d%n", algorithmName, algorithmTime / 1e6,
+                    algorithmTime / 1e6 / Math.max(numTopics, 1), algorithmDecoded, postingsScored);
+            if (mismatches.isEmpty()) {
+                System.out.println("The top 1000 of every topic are the same");
+            } else {
+                System.out.println("The top 1000 differ for topics " + mismatches);
+            }
         }
 
-        // Write the results to the output file
-        FileWriter writerResult = new FileWriter(resultFile);
-        writerResult.write(sbResult.toString());
-        writerResult.close();
+        if (index.postingsCache() != null) {
+            System.out.println("Postings cache: " + index.postingsCache().stats());
+        }
 
-        // Close object input streams
-        oisLexiconTermToID.close();
-        oisInvIndex.close();
+        // Latency of each stage per topic, and optionally the same as JSON
+        System.out.println(metrics.summary());
+        if (options.has("metrics-out")) {
+            metrics.write(options.get("metrics-out", "metrics.json"));
+        }
 
-        // Close buffered reader for queries
-        brQueries.close();
+        // Close the segments' docstores
+        index.close();
     }
 }
@@ -0,0 +1,181 @@
+/*
+ * Date: October 16, 2026
+ * Name: Matthew Chan
+ *
+ * Program Description:
+ * The BM25Sweep Java program tunes the BM25 parameters k1 and b. It opens the index and reads
+ * the queries and the relevance judgments once, then ranks every topic for each setting of a
+ * grid of k1 and b values, with the settings spread over a pool of threads. Each setting's
+ * top 1000 are kept in memory as Results and scored against the qrels with the same metric code
+ * as ReportPerTopicEvalScore, so no run files are written, and the program prints a table of
+ * the mean average precision, nDCG at rank 10 and precision at rank 10 of every setting, with
+ * the best MAP marked. Queries are parsed as in BM25, and --algorithm selects the ranking
+ * strategy as in BM25. The decoded postings of the query terms are shared by every setting
+ * through the postings cache (--postings-cache-mb).
+ *
+ * Command Line Argument Inputs:
+ * javac BM25Sweep.java
+ * java BM25Sweep.java latimes_index queries.txt qrels\LA-only.trec8-401.450.minus416-423-437-444-447.txt
+ * java BM25Sweep.java latimes_index queries.txt qrels.txt --k1 0.6,0.9,1.2,1.5,1.8 --b 0.3,0.5,0.75,0.9
+ * java BM25Sweep.java latimes_index queries.txt qrels.txt --threads 8 --algorithm wand
+ *
+ */
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+public class BM25Sweep {
+
+    // Mean effectiveness of one (k1, b) setting over the judged topics
+    private static class SettingScore {
+        final double k1;
+        final double b;
+        final double map;
+        final double ndcg10;
+        final double p10;
+        final double seconds;
+
+        SettingScore(double k1, double b, double map, double ndcg10, double p10, double seconds) {
+            this.k1 = k1;
+            this.b = b;
+            this.map = map;
+            this.ndcg10 = ndcg10;
+            this.p10 = p10;
+            this.seconds = seconds;
+        }
+    }
+
+    // Parses a comma separated list of numbers, such as "0.6,0.9,1.2"
+    private static double[] parseGrid(String name, String values) {
+        try {
+            return Arrays.stream(values.split(",")).mapToDouble(value -> Double.parseDouble(value.trim())).toArray();
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("--" + name + " must be a comma separated list of numbers but was '" + values + "'");
+        }
+    }
+
+    // Ranks every topic with k1 and b and scores the top 1000 against the judgments
+    private static SettingScore evaluate(SegmentedIndex index, List<String> topicIDs, List<ParsedQuery> queries,
+                                         RelevanceJudgements judgments, double k1, double b,
+                                         DaatSearcher.Algorithm algorithm) throws Exception {
+        long startTime = System.nanoTime();
+        QueryRanker ranker = new QueryRanker(index, k1, b, index.lengthNorms(k1, b), algorithm);
+        TopDocs top = new TopDocs(1000, index);
+        Results results = new Results();
+        for (int i = 0; i < queries.size(); i++) {
+            ranker.rank(queries.get(i), top);
+            for (int rank = 0; rank < top.size(); rank++) {
+                results.AddResult(topicIDs.get(i), index.docno(top.docID(rank)), top.score(rank), rank + 1);
+            }
+        }
+
+        // Average each metric over the judged topics, as ReportPerTopicEvalScore reports them
+        double map = 0;
+        double ndcg10 = 0;
+        double p10 = 0;
+        List<String> judgedIDs = judgments.QueryIDs();
+        for (String queryID : judgedIDs) {
+            map += ReportPerTopicEvalScore.calculateAveragePrecision(queryID, results, judgments);
+            ndcg10 += ReportPerTopicEvalScore.calculateNDCG(queryID, results, judgments, 10);
+            p10 += ReportPerTopicEvalScore.calculatePrecision(queryID, results, judgments);
+        }
+        int numJudged = Math.max(judgedIDs.size(), 1);
+        return new SettingScore(k1, b, map / numJudged, ndcg10 / numJudged, p10 / numJudged,
+                                (System.nanoTime() - startTime) / 1e9);
+    }
+
+    public static void main(String[] args) throws Exception {
+        // Check if the correct number of command line arguments is provided
+        Options options = new Options(args);
+        if (options.numPositional() != 3) {
+            throw new IllegalArgumentException("Please include a valid path to an index, a path to a query txt file and a path to a qrels file. " +
+                                               "For example, 'java BM25Sweep.java latimes_index queries.txt qrels.txt'");
+        }
+        String dataPath = options.positional(0);
+        if (!new File(dataPath).exists()) {
+            throw new FileNotFoundException(dataPath + " path does not exist");
+        }
+        File queryFile = new File(options.positional(1));
+        if (!queryFile.exists()) {
+            throw new FileNotFoundException(queryFile + " path does not exist");
+        }
+        String qrelsPath = options.positional(2);
+        if (!new File(qrelsPath).exists()) {
+            throw new FileNotFoundException(qrelsPath + " path does not exist");
+        }
+
+        double[] k1Values = parseGrid("k1", options.get("k1", "0.6,0.9,1.2,1.5,1.8"));
+        double[] bValues = parseGrid("b", options.get("b", "0.3,0.45,0.6,0.75,0.9"));
+        int numThreads = options.getInt("threads", Runtime.getRuntime().availableProcessors());
+        if (numThreads < 1) {
+            throw new IllegalArgumentException("--threads must be at least 1");
+        }
+        String algorithmName = options.get("algorithm", "exhaustive");
+        DaatSearcher.Algorithm algorithm = algorithmName.equals("exhaustive") ? null : DaatSearcher.Algorithm.parse(algorithmName);
+
+        // Open the index, and read the topics and judgments, once for every setting
+        long startTime = System.nanoTime();
+        SegmentedIndex index = SegmentedIndex.open(dataPath);
+        index.setPostingsCache(options.getInt("postings-cache-mb", 64) * 1048576L);
+        List<String> topicIDs = new ArrayList<String>();
+        List<ParsedQuery> queries = new ArrayList<ParsedQuery>();
+        BufferedReader brQueries = new BufferedReader(new FileReader(queryFile));
+        String currLine;
+        while ((currLine = brQueries.readLine()) != null) {
+            topicIDs.add(currLine.trim());
+            currLine = brQueries.readLine();
+            queries.add(ParsedQuery.parse(currLine != null ? currLine : "", index.stem(), false));
+        }
+        brQueries.close();
+        RelevanceJudgements judgments = new QRels(qrelsPath).judgments;
+        double loadTime = (System.nanoTime() - startTime) / 1e9;
+
+        // Evaluate the settings concurrently, each with a ranker of its own
+        ExecutorService workers = Executors.newFixedThreadPool(numThreads);
+        List<Future<SettingScore>> settings = new ArrayList<Future<SettingScore>>();
+        for (double k1 : k1Values) {
+            for (double b : bValues) {
+                settings.add(workers.submit(() -> evaluate(index, topicIDs, queries, judgments, k1, b, algorithm)));
+            }
+        }
+        List<SettingScore> scores = new ArrayList<SettingScore>();
+        try {
+            for (Future<SettingScore> setting : settings) {
+                scores.add(setting.get());
+            }
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IOException("Evaluating a setting failed", e.getCause());
+        } finally {
+            workers.shutdownNow();
+        }
+        double totalTime = (System.nanoTime() - startTime) / 1e9;
+
+        SettingScore best = scores.get(0);
+        for (SettingScore score : scores) {
+            if (score.map > best.map) {
+                best = score;
+            }
+        }
+        System.out.printf("%6s %6s %8s %8s %8s %8s%n", "k1", "b", "MAP", "nDCG@10", "P@10", "seconds");
+        for (SettingScore score : scores) {
+            System.out.printf("%6.2f %6.2f %8.4f %8.4f %8.4f %8.2f%s%n", score.k1, score.b, score.map, score.ndcg10,
+                              score.p10, score.seconds, score == best ? "  best MAP" : "");
+        }
+        System.out.printf("Evaluated %d settings of %d topics with %s on %d threads in %.2f seconds (%.2f seconds loading)%n",
+                scores.size(), queries.size(), algorithmName, numThreads, totalTime, loadTime);
+        index.close();
+    }
+}
@@ -0,0 +1,180 @@
+/*
+ * Date: October 16, 2026
+ * Name: Matthew Chan
+ *
+ * Program Description:
+ * The BlockPostingsCursor Java class is a PostingsCursor over a lexicon term's postings in
+ * every segment, decoded straight from the memory mapped postings files one block of
+ * PostingsWriter.BLOCK_SIZE postings at a time. Each block's last docID, byte offset and
+ * score upper bound come from the block max file, so advance finds the block that holds its
+ * target by searching the last docIDs and decodes that block only; the blocks in between are
+ * never decoded. The shallow position used by Block-Max WAND moves over the same block
+ * records without decoding anything. The number of decoded postings is counted so the work
+ * saved by skipping can be reported.
+ *
+ */
+
+import java.nio.ByteBuffer;
+
+public class BlockPostingsCursor extends PostingsCursor {
+
+    private final ByteBuffer[] buffers;     // postings file of each segment the term is in
+    private final int documentFrequency;
+    private final int numBlocks;
+
+    // Block number -> where it is and what it holds, in global docID order
+    private final int[] blockBuffer;        // index into buffers
+    private final int[] blockStart;         // byte offset of its first posting
+    private final int[] blockBase;          // docID its first gap is relative to
+    private final int[] blockLast;          // last docID
+    private final int[] blockSize;          // number of postings
+    private final double[] blockBound;      // upper bound of score() over its postings
+
+    private final int[] docIDs = new int[PostingsWriter.BLOCK_SIZE];
+    private final int[] counts = new int[PostingsWriter.BLOCK_SIZE];
+    private int block = -1;                 // decoded block
+    private int index = 0;                  // current posting in the decoded block
+    private int docID;
+    private int shallow = 0;                // block at the shallow position
+    private long decoded = 0;
+
+    public BlockPostingsCursor(ByteBuffer[] buffers, int documentFrequency, int[] blockBuffer, int[] blockStart,
+                               int[] blockBase, int[] blockLast, int[] blockSize, double[] blockBound,
+                               double idf, double upperBound) {
+        super(idf, upperBound);
+        this.buffers = buffers;
+        this.documentFrequency = documentFrequency;
+        this.numBlocks = blockLast.length;
+        this.blockBuffer = blockBuffer;
+        this.blockStart = blockStart;
+        this.blockBase = blockBase;
+        this.blockLast = blockLast;
+        this.blockSize = blockSize;
+        this.blockBound = blockBound;
+        if (numBlocks > 0) {
+            decode(0);
+        } else {
+            docID = NO_MORE_DOCS;
+        }
+    }
+
+    // Decodes a block and moves to its first posting
+    private void decode(int b) {
+        ByteBuffer buf = buffers[blockBuffer[b]];
+        buf.position(blockStart[b]);
+        int size = blockSize[b];
+        int d = blockBase[b];
+        for (int i = 0; i < size; i++) {
+            d = d + VByte.read(buf) + 1;
+            docIDs[i] = d;
+            counts[i] = VByte.read(buf);
+        }
+        decoded += size;
+        block = b;
+        index = 0;
+        docID = docIDs[0];
+        shallow = Math.max(shallow, b);
+    }
+
+    // Returns the first block from b on whose last docID is at least target, or numBlocks
+    private int findBlock(int b, int target) {
+        // Gallop forward until the target is passed, then binary search the last step
+        int low = b - 1;
+        int step = 1;
+        int high = b;
+        while (high < numBlocks && blockLast[high] < target) {
+            low = high;
+            step = step * 2;
+            high = b - 1 + step;
+        }
+        high = Math.min(high, numBlocks);
+        // blockLast[low] < target or low is before b, and blockLast[high] >= target or high is numBlocks
+        while (high - low > 1) {
+            int mid = (low + high) >>> 1;
+            if (blockLast[mid] < target) {
+                low = mid;
+            } else {
+                high = mid;
+            }
+        }
+        return high;
+    }
+
+    @Override
+    public int docID() {
+        return docID;
+    }
+
+    @Override
+    public int count() {
+        return counts[index];
+    }
+
+    @Override
+    public int documentFrequency() {
+        return documentFrequency;
+    }
+
+    @Override
+    public long postingsDecoded() {
+        return decoded;
+    }
+
+    @Override
+    public int next() {
+        if (docID == NO_MORE_DOCS) {
+            return docID;
+        }
+        index++;
+        if (index < blockSize[block]) {
+            docID = docIDs[index];
+        } else if (block + 1 < numBlocks) {
+            decode(block + 1);
+        } else {
+            docID = NO_MORE_DOCS;
+            shallow = numBlocks;
+        }
+        return docID;
+    }
+
+    @Override
+    public int advance(int target) {
+        if (docID >= target) {
+            return docID;
+        }
+        if (target > blockLast[block]) {
+            int b = findBlock(block + 1, target);
+            if (b == numBlocks) {
+                docID = NO_MORE_DOCS;
+                shallow = numBlocks;
+                return docID;
+            }
+            decode(b);
+        }
+        // The block's last docID is at least target, so the scan stops inside the block
+        while (docIDs[index] < target) {
+            index++;
+        }
+        docID = docIDs[index];
+        return docID;
+    }
+
+    @Override
+    public void advanceShallow(int target) {
+        int b = Math.max(shallow, block);
+        if (b < numBlocks && blockLast[b] < target) {
+            b = findBlock(b + 1, target);
+        }
+        shallow = b;
+    }
+
+    @Override
+    public int blockLastDocID() {
+        return shallow < numBlocks ? blockLast[shallow] : NO_MORE_DOCS;
+    }
+
+    @Override
+    public double blockUpperBound() {
+        return shallow < numBlocks ? blockBound[shallow] : 0;
+    }
+}
@@ -0,0 +1,374 @@
+/*
+ * Date: October 16, 2026
+ * Name: Matthew Chan
+ *
+ * Program Description:
+ * The BooleanQuery Java class parses a query with Boolean operators into a tree, for the
+ * programs' --boolean mode. A query is a list of clauses. A clause written +clause is required,
+ * -clause or NOT clause is excluded, and a plain clause is optional: a document must match
+ * every required clause and no excluded one, and when there are no required clauses, at least
+ * one optional clause. Inside a clause, AND and OR (in capitals) join terms, AND binding more
+ * tightly than OR, and "a AND NOT b" excludes b. Parentheses group a list of clauses, and a
+ * phrase in double quotes, optionally with ~N, matches like a term when the index stores
+ * positions. A query without operators is therefore a disjunction of its terms, the same
+ * documents as the default ranked retrieval.
+ *
+ *   +tax +cuts -reagan            tax and cuts, without reagan
+ *   (budget OR deficit) AND congress
+ *   "los angeles" AND NOT police
+ *
+ * Words are tokenized and stemmed like the indexed text. A word that splits into several
+ * tokens, such as e-mail, requires all of them when it has a + or - or is joined by AND or OR,
+ * and otherwise its tokens are optional like any other plain word, so that a query without
+ * operators ranks exactly as the default ranked retrieval. Every node is either a Term, a Phrase or a
+ * Group of required, optional and excluded nodes; AND is a group of required nodes and OR a
+ * group of optional ones. BooleanSearcher finds and ranks the matching documents.
+ *
+ */
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+public class BooleanQuery {
+
+    // A node of the query tree
+    public abstract static class Node {
+    }
+
+    // A single term, stemmed like the index
+    public static final class Term extends Node {
+        public final String term;
+
+        Term(String term) {
+            this.term = term;
+        }
+
+        @Override
+        public String toString() {
+            return term;
+        }
+    }
+
+    // A phrase of two or more terms, with a slop of 0 for an exact phrase
+    public static final class Phrase extends Node {
+        public final String[] terms;
+        public final int slop;
+
+        Phrase(String[] terms, int slop) {
+            this.terms = terms;
+            this.slop = slop;
+        }
+
+        @Override
+        public String toString() {
+            return "\"" + String.join(" ", terms) + "\"~" + slop;
+        }
+    }
+
+    // Matches the documents that match every required node and no excluded node, and at least
+    // one optional node when there is no required node
+    public static final class Group extends Node {
+        public final List<Node> required;
+        public final List<Node> optional;
+        public final List<Node> excluded;
+
+        Group(List<Node> required, List<Node> optional, List<Node> excluded) {
+            this.required = Collections.unmodifiableList(required);
+            this.optional = Collections.unmodifiableList(optional);
+            this.excluded = Collections.unmodifiableList(excluded);
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder sb = new StringBuilder("(");
+            for (Node node : required) {
+                sb.append(sb.length() > 1 ? " +" : "+").append(node);
+            }
+            for (Node node : optional) {
+                sb.append(sb.length() > 1 ? " " : "").append(node);
+            }
+            for (Node node : excluded) {
+                sb.append(sb.length() > 1 ? " -" : "-").append(node);
+            }
+            return sb.append(")").toString();
+        }
+    }
+
+    // A node after NOT, which only its enclosing group or clause list can exclude
+    private static final class Not extends Node {
+        final Node node;
+
+        Not(Node node) {
+            this.node = node;
+        }
+    }
+
+    // One piece of the query: an operator, a parenthesis, a modifier, a word or a phrase
+    private static final class Lexeme {
+        final String kind;      // "(", ")", "+", "-", "AND", "OR", "NOT", "word" or "phrase"
+        final String text;
+        final int slop;
+
+        Lexeme(String kind, String text, int slop) {
+            this.kind = kind;
+            this.text = text;
+            this.slop = slop;
+        }
+    }
+
+    private final Node root;                        // null when the query has no terms
+    private final List<String> snippetTokens;       // every word of the query, unstemmed
+
+    private BooleanQuery(Node root, List<String> snippetTokens) {
+        this.root = root;
+        this.snippetTokens = snippetTokens;
+    }
+
+    // Splits a query into lexemes. + and - are modifiers only at the start of a clause, and
+    // AND, OR and NOT are operators only in capitals.
+    private static List<Lexeme> lex(String query) {
+        List<Lexeme> lexemes = new ArrayList<Lexeme>();
+        int pos = 0;
+        int length = query.length();
+        while (pos < length) {
+            char c = query.charAt(pos);
+            if (Character.isWhitespace(c)) {
+                pos++;
+            } else if (c == '(' || c == ')') {
+                lexemes.add(new Lexeme(String.valueOf(c), String.valueOf(c), 0));
+                pos++;
+            } else if ((c == '+' || c == '-') && pos + 1 < length && !Character.isWhitespace(query.charAt(pos + 1))) {
+                lexemes.add(new Lexeme(String.valueOf(c), String.valueOf(c), 0));
+                pos++;
+            } else if (c == '"') {
+                int end = query.indexOf('"', pos + 1);
+                if (end < 0) {
+                    end = length;
+                }
+                String text = query.substring(pos + 1, end);
+                pos = Math.min(end + 1, length);
+
+                // An optional ~N after the closing quote
+                int slop = 0;
+                if (pos < length && query.charAt(pos) == '~') {
+                    int digits = pos + 1;
+                    while (digits < length && Character.isDigit(query.charAt(digits))) {
+                        digits++;
+                    }
+                    if (digits > pos + 1) {
+                        slop = Integer.parseInt(query.substring(pos + 1, digits));
+                        pos = digits;
+                    }
+                }
+                lexemes.add(new Lexeme("phrase", text, slop));
+            } else {
+                int end = pos;
+                while (end < length && !Character.isWhitespace(query.charAt(end)) &&
+                       "()\"".indexOf(query.charAt(end)) < 0) {
+                    end++;
+                }
+                String word = query.substring(pos, end);
+                boolean operator = word.equals("AND") || word.equals("OR") || word.equals("NOT");
+                lexemes.add(new Lexeme(operator ? word : "word", word, 0));
+                pos = end;
+            }
+        }
+        return lexemes;
+    }
+
+    // Recursive descent over the lexemes of one query
+    private static final class Parser {
+        final String query;
+        final String stem;
+        final boolean hasPositions;
+        final List<Lexeme> lexemes;
+        final List<String> snippetTokens = new ArrayList<String>();
+        int pos = 0;
+
+        Parser(String query, String stem, boolean hasPositions) {
+            this.query = query;
+            this.stem = stem;
+            this.hasPositions = hasPositions;
+            this.lexemes = lex(query);
+        }
+
+        boolean peek(String kind) {
+            return pos < lexemes.size() && lexemes.get(pos).kind.equals(kind);
+        }
+
+        // Returns a group of the nodes, the node itself if it is the only one, or null if
+        // there is none
+        Node group(List<Node> required, List<Node> optional, List<Node> excluded) {
+            if (required.isEmpty() && optional.isEmpty()) {
+                if (!excluded.isEmpty()) {
+                    throw new IllegalArgumentException("'" + query + "' only excludes terms, it needs a term to search for");
+                }
+                return null;
+            }
+            if (excluded.isEmpty() && required.size() + optional.size() == 1) {
+                return required.isEmpty() ? optional.get(0) : required.get(0);
+            }
+            return new Group(required, optional, excluded);
+        }
+
+        // clauses := (["+" | "-" | "NOT"] or)*, up to a ) or the end of the query
+        Node parseClauses() {
+            List<Node> required = new ArrayList<Node>();
+            List<Node> optional = new ArrayList<Node>();
+            List<Node> excluded = new ArrayList<Node>();
+            while (pos < lexemes.size() && !peek(")")) {
+                String modifier = peek("+") || peek("-") ? lexemes.get(pos++).kind : "";
+                boolean plain = modifier.isEmpty() && isPlainTerm();
+                Node clause = parseOr();
+                if (clause instanceof Not) {
+                    excluded.add(((Not) clause).node);
+                } else if (clause != null) {
+                    if (modifier.equals("+")) {
+                        required.add(clause);
+                    } else if (modifier.equals("-")) {
+                        excluded.add(clause);
+                    } else if (plain && clause instanceof Group) {
+                        // The tokens of a plain word that splits, such as e-mail, are optional
+                        // like the other words, as in the default ranked retrieval
+                        optional.addAll(((Group) clause).required);
+                    } else {
+                        optional.add(clause);
+                    }
+                }
+            }
+            return group(required, optional, excluded);
+        }
+
+        // Returns whether the next clause is a single word or phrase, not joined to the next by
+        // AND or OR
+        boolean isPlainTerm() {
+            if (!peek("word") && !peek("phrase")) {
+                return false;
+            }
+            if (pos + 1 >= lexemes.size()) {
+                return true;
+            }
+            String next = lexemes.get(pos + 1).kind;
+            return !next.equals("AND") && !next.equals("OR");
+        }
+
+        // or := and ("OR" and)*
+        Node parseOr() {
+            List<Node> children = new ArrayList<Node>();
+            children.add(parseAnd());
+            while (peek("OR")) {
+                pos++;
+                children.add(parseAnd());
+            }
+            if (children.size() == 1) {
+                return children.get(0);
+            }
+            List<Node> optional = new ArrayList<Node>();
+            for (Node child : children) {
+                if (child instanceof Not) {
+                    throw new IllegalArgumentException("'" + query + "' has NOT after OR, use AND NOT or -term to exclude a term");
+                }
+                if (child != null) {
+                    optional.add(child);
+                }
+            }
+            return group(new ArrayList<Node>(), optional, new ArrayList<Node>());
+        }
+
+        // and := not ("AND" not)*
+        Node parseAnd() {
+            List<Node> children = new ArrayList<Node>();
+            children.add(parseNot());
+            while (peek("AND")) {
+                pos++;
+                children.add(parseNot());
+            }
+            if (children.size() == 1) {
+                return children.get(0);
+            }
+            List<Node> required = new ArrayList<Node>();
+            List<Node> excluded = new ArrayList<Node>();
+            for (Node child : children) {
+                if (child instanceof Not) {
+                    excluded.add(((Not) child).node);
+                } else if (child != null) {
+                    required.add(child);
+                }
+            }
+            return group(required, new ArrayList<Node>(), excluded);
+        }
+
+        // not := ["NOT"] primary
+        Node parseNot() {
+            if (peek("NOT")) {
+                pos++;
+                Node node = parsePrimary();
+                return node != null ? new Not(node) : null;
+            }
+            return parsePrimary();
+        }
+
+        // primary := word | phrase | "(" clauses ")"
+        Node parsePrimary() {
+            if (pos >= lexemes.size()) {
+                throw new IllegalArgumentException("'" + query + "' ends after an operator");
+            }
+            Lexeme lexeme = lexemes.get(pos++);
+            if (lexeme.kind.equals("(")) {
+                Node inner = parseClauses();
+                if (!peek(")")) {
+                    throw new IllegalArgumentException("'" + query + "' is missing a )");
+                }
+                pos++;
+                return inner;
+            }
+            if (!lexeme.kind.equals("word") && !lexeme.kind.equals("phrase")) {
+                throw new IllegalArgumentException("'" + query + "' has " + lexeme.text + " where a term is expected");
+            }
+
+            List<String> terms = Tokenizer.tokens(lexeme.text, stem.equals("1"));
+            snippetTokens.addAll(Tokenizer.tokens(lexeme.text, false));
+            if (lexeme.kind.equals("phrase") && terms.size() >= 2 && hasPositions) {
+                return new Phrase(terms.toArray(new String[0]), lexeme.slop);
+            }
+
+            // A word that splits into several tokens, or a phrase without positions, needs all of them
+            List<Node> required = new ArrayList<Node>();
+            for (String term : terms) {
+                required.add(new Term(term));
+            }
+            return group(required, new ArrayList<Node>(), new ArrayList<Node>());
+        }
+    }
+
+    // Parses a query for an index built with or without stemming ("0" or "1") and positions
+    public static BooleanQuery parse(String query, String stem, boolean hasPositions) {
+        Parser parser = new Parser(query, stem, hasPositions);
+        Node root = parser.parseClauses();
+        if (parser.pos < parser.lexemes.size()) {
+            throw new IllegalArgumentException("'" + query + "' has a ) without a matching (");
+        }
+        return new BooleanQuery(root, parser.snippetTokens);
+    }
+
+    // Returns the root of the query tree, or null if the query has no terms
+    public Node root() {
+        return root;
+    }
+
+    // Returns whether the query has nothing to search for
+    public boolean isEmpty() {
+        return root == null;
+    }
+
+    // Returns the query tree as one string, the same for every query that is parsed the same way
+    public String normalized() {
+        return root == null ? "" : root.toString();
+    }
+
+    // Returns every word of the query as typed, to pick snippets with
+    public List<String> snippetTokens() {
+        return Collections.unmodifiableList(snippetTokens);
+    }
+}
@@ -0,0 +1,241 @@
+/*
+ * Date: October 16, 2026
+ * Name: Matthew Chan
+ *
+ * Program Description:
+ * The BooleanSearcher Java class finds the documents that match a BooleanQuery and ranks only
+ * those with BM25. Each node of the query tree becomes a matcher that moves forward to the
+ * first matching docID at or after a target. A term or phrase moves its postings cursor, which
+ * skips whole blocks by their last docIDs and gallops within a block, so a long list is only
+ * decoded near the docIDs it is asked for. A group with required nodes intersects them
+ * leapfrog style, shortest list first: the shortest proposes a docID, each longer list
+ * advances to it, and a list that overshoots proposes the next candidate to the shortest. A
+ * group of optional nodes matches the smallest docID of any of them, and a candidate that an
+ * excluded node matches is dropped.
+ *
+ * A matching document is scored like the default ranked retrieval, adding the BM25 score of
+ * every term and phrase of the query that is not excluded and occurs in the document, in query
+ * order, so a query without operators ranks exactly as the exhaustive term-at-a-time loop. A
+ * searcher is not thread safe, so each thread uses a searcher of its own.
+ *
+ */
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+public class BooleanSearcher {
+
+    private static final int NO_MORE_DOCS = PostingsCursor.NO_MORE_DOCS;
+
+    private final SegmentedIndex index;
+    private final double[] lengthNorms;         // docID -> K
+    private final DaatSearcher searcher;        // creates the postings cursors
+
+    // Cursors of the current query: every one of them, and the ones that add to the score
+    private final List<PostingsCursor> cursors = new ArrayList<PostingsCursor>();
+    private final List<PostingsCursor> scorers = new ArrayList<PostingsCursor>();
+
+    // Work counters, summed over all queries
+    private long docsMatched = 0;
+    private long postingsDecoded = 0;
+
+    // Moves forward through the documents that match one node of the query tree
+    private abstract static class Matcher {
+        // Returns the first matching docID at or after target, or NO_MORE_DOCS. Targets never
+        // decrease, and a matcher already at or past target stays where it is.
+        abstract int advance(int target);
+
+        // Returns an estimate of the number of matching documents
+        abstract long cost();
+    }
+
+    // Matches the documents of one postings cursor, none if the cursor is null
+    private static final class CursorMatcher extends Matcher {
+        private final PostingsCursor cursor;
+
+        CursorMatcher(PostingsCursor cursor) {
+            this.cursor = cursor;
+        }
+
+        @Override
+        int advance(int target) {
+            if (cursor == null) {
+                return NO_MORE_DOCS;
+            }
+            return cursor.docID() >= target ? cursor.docID() : cursor.advance(target);
+        }
+
+        @Override
+        long cost() {
+            return cursor == null ? 0 : cursor.documentFrequency();
+        }
+    }
+
+    // Matches the documents that match every required matcher, or any optional matcher when
+    // there are none, and no excluded matcher
+    private static final class GroupMatcher extends Matcher {
+        private final Matcher[] required;       // shortest first
+        private final Matcher[] optional;
+        private final Matcher[] excluded;
+        private int doc = -1;
+
+        GroupMatcher(Matcher[] required, Matcher[] optional, Matcher[] excluded) {
+            Arrays.sort(required, Comparator.comparingLong(Matcher::cost));
+            this.required = required;
+            this.optional = optional;
+            this.excluded = excluded;
+        }
+
+        // Returns the first docID at or after target that every required matcher matches
+        private int intersect(int target) {
+            int candidate = required[0].advance(target);
+            int i = 1;
+            while (candidate != NO_MORE_DOCS && i < required.length) {
+                int docID = required[i].advance(candidate);
+                if (docID == candidate) {
+                    i++;
+                } else {
+                    // A longer list overshot, the shortest list proposes the next candidate
+                    candidate = required[0].advance(docID);
+                    i = 1;
+                }
+            }
+            return candidate;
+        }
+
+        // Returns the first docID at or after target that any optional matcher matches
+        private int union(int target) {
+            int candidate = NO_MORE_DOCS;
+            for (Matcher matcher : optional) {
+                candidate = Math.min(candidate, matcher.advance(target));
+            }
+            return candidate;
+        }
+
+        @Override
+        int advance(int target) {
+            if (doc >= target) {
+                return doc;
+            }
+            int candidate = target;
+            while (true) {
+                candidate = required.length > 0 ? intersect(candidate) : union(candidate);
+                if (candidate == NO_MORE_DOCS) {
+                    return doc = NO_MORE_DOCS;
+                }
+                boolean isExcluded = false;
+                for (Matcher matcher : excluded) {
+                    if (matcher.advance(candidate) == candidate) {
+                        isExcluded = true;
+                        break;
+                    }
+                }
+                if (!isExcluded) {
+                    return doc = candidate;
+                }
+                candidate++;
+            }
+        }
+
+        @Override
+        long cost() {
+            if (required.length > 0) {
+                return required[0].cost();
+            }
+            long cost = 0;
+            for (Matcher matcher : optional) {
+                cost += matcher.cost();
+            }
+            return cost;
+        }
+    }
+
+    public BooleanSearcher(SegmentedIndex index, double k1, double b, double[] lengthNorms) {
+        this.index = index;
+        this.lengthNorms = lengthNorms;
+        this.searcher = new DaatSearcher(index, k1, b, lengthNorms);
+    }
+
+    // Builds the matcher of a node, opening a cursor for each term and phrase. The cursors of
+    // nodes that are not excluded also score the matching documents.
+    private Matcher matcher(BooleanQuery.Node node, boolean scores) {
+        if (node instanceof BooleanQuery.Group) {
+            BooleanQuery.Group group = (BooleanQuery.Group) node;
+            Matcher[] required = new Matcher[group.required.size()];
+            for (int i = 0; i < required.length; i++) {
+                required[i] = matcher(group.required.get(i), scores);
+            }
+            Matcher[] optional = new Matcher[group.optional.size()];
+            for (int i = 0; i < optional.length; i++) {
+                optional[i] = matcher(group.optional.get(i), scores);
+            }
+            Matcher[] excluded = new Matcher[group.excluded.size()];
+            for (int i = 0; i < excluded.length; i++) {
+                excluded[i] = matcher(group.excluded.get(i), false);
+            }
+            return new GroupMatcher(required, optional, excluded);
+        }
+
+        PostingsCursor cursor;
+        if (node instanceof BooleanQuery.Phrase) {
+            BooleanQuery.Phrase phrase = (BooleanQuery.Phrase) node;
+            int[] postings = index.getPhrasePostings(phrase.terms, phrase.slop);
+            cursor = postings != null ? searcher.cursor(postings) : null;
+        } else {
+            cursor = searcher.cursor(((BooleanQuery.Term) node).term);
+        }
+        if (cursor != null) {
+            cursors.add(cursor);
+            if (scores) {
+                scorers.add(cursor);
+            }
+        }
+        return new CursorMatcher(cursor);
+    }
+
+    // Ranks the documents that match the query into top, which is cleared first and sorted at
+    // the end
+    public void search(BooleanQuery query, TopDocs top) {
+        top.clear();
+        if (query.isEmpty()) {
+            top.sort();
+            return;
+        }
+        cursors.clear();
+        scorers.clear();
+        Matcher root = matcher(query.root(), true);
+
+        int doc = root.advance(0);
+        while (doc != NO_MORE_DOCS) {
+            // Score the document with every term and phrase of the query that occurs in it
+            double score = 0;
+            for (PostingsCursor cursor : scorers) {
+                if (cursor.docID() < doc) {
+                    cursor.advance(doc);
+                }
+                if (cursor.docID() == doc) {
+                    score += cursor.score(lengthNorms[doc]);
+                }
+            }
+            top.add(doc, score);
+            docsMatched++;
+            doc = root.advance(doc + 1);
+        }
+        for (PostingsCursor cursor : cursors) {
+            postingsDecoded += cursor.postingsDecoded();
+        }
+        top.sort();
+    }
+
+    // Returns the number of documents that matched, summed over all queries
+    public long docsMatched() {
+        return docsMatched;
+    }
+
+    // Returns the number of postings decoded, summed over all queries
+    public long postingsDecoded() {
+        return postingsDecoded;
+    }
+}
@@ -0,0 +1,118 @@
+/*
+ * Date: October 16, 2026
+ * Name: Matthew Chan
+ *
+ * Program Description:
+ * The CollectionStats Java class writes and reads the binary collection statistics of a
+ * segment, so that BM25 and InteractiveBM25 can start without parsing doc-lengths.txt line
+ * by line. The manifest holds the format version, the number of documents, the total number
+ * of tokens and the stemming flag, which is all BM25 needs to compute N and the average
+ * document length. The doc lengths are a dense array of ints in docID order that is memory
+ * mapped, so it is not copied onto the heap. Both files are written by IndexEngine and
+ * SegmentMerger next to doc-lengths.txt, which is kept for people reading the index.
+ *
+ * Manifest file:     [magic (int), version (int), number of documents (int),
+ *                     total tokens (long), stem (byte)]
+ * Doc lengths file:  [length (int)] for docID 0, then docID 1, ...
+ *
+ */
+
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.IntBuffer;
+
+public class CollectionStats {
+
+    // Marks a manifest file, "LATM"
+    private static final int MAGIC = 0x4C41544D;
+
+    // Version of the segment format, bumped when a segment file changes or is added. Version 2
+    // added the term score bounds, version 3 the block max bounds, version 4 replaced the
+    // serialized lexicon maps with the front-coded lexicon.
+    public static final int FORMAT_VERSION = 4;
+
+    private final int numDocs;
+    private final long totalTokens;
+    private final String stem;
+    private final IntBuffer docLengths;
+
+    private CollectionStats(int numDocs, long totalTokens, String stem, IntBuffer docLengths) {
+        this.numDocs = numDocs;
+        this.totalTokens = totalTokens;
+        this.stem = stem;
+        this.docLengths = docLengths;
+    }
+
+    // Writes the manifest of a segment
+    public static void writeManifest(String indexRoot, String segmentName, int numDocs, long totalTokens, String stem)
+            throws IOException {
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                new FileOutputStream(SegmentList.path(indexRoot, segmentName, "manifest.bin"))));
+        out.writeInt(MAGIC);
+        out.writeInt(FORMAT_VERSION);
+        out.writeInt(numDocs);
+        out.writeLong(totalTokens);
+        out.writeByte(stem.equals("1") ? 1 : 0);
+        out.close();
+    }
+
+    // Opens the doc lengths file of a segment for writing, lengths are then written with writeInt
+    public static DataOutputStream openDocLengths(String indexRoot, String segmentName) throws IOException {
+        return new DataOutputStream(new BufferedOutputStream(
+                new FileOutputStream(SegmentList.path(indexRoot, segmentName, "doc-lengths.bin")), 1 << 16));
+    }
+
+    // Reads the manifest of a segment and maps its doc lengths
+    public static CollectionStats read(String indexRoot, String segmentName) throws IOException {
+        String manifestPath = SegmentList.path(indexRoot, segmentName, "manifest.bin");
+        if (!new File(manifestPath).exists()) {
+            throw new FileNotFoundException(manifestPath + " path does not exist, rebuild the index");
+        }
+        DataInputStream in = new DataInputStream(new FileInputStream(manifestPath));
+        try {
+            if (in.readInt() != MAGIC) {
+                throw new IOException(manifestPath + " is not a collection statistics manifest");
+            }
+            int version = in.readInt();
+            if (version != FORMAT_VERSION) {
+                throw new IOException(manifestPath + " has format version " + version +
+                                      " but version " + FORMAT_VERSION + " is expected, rebuild the index");
+            }
+            int numDocs = in.readInt();
+            long totalTokens = in.readLong();
+            String stem = in.readByte() == 1 ? "1" : "0";
+
+            IntBuffer docLengths = PostingsReader.map(SegmentList.path(indexRoot, segmentName, "doc-lengths.bin")).asIntBuffer();
+            if (docLengths.capacity() != numDocs) {
+                throw new IOException("Segment " + segmentName + " has " + docLengths.capacity() +
+                                      " doc lengths but its manifest lists " + numDocs + " documents");
+            }
+            return new CollectionStats(numDocs, totalTokens, stem, docLengths);
+        } finally {
+            in.close();
+        }
+    }
+
+    public int numDocs() {
+        return numDocs;
+    }
+
+    public long totalTokens() {
+        return totalTokens;
+    }
+
+    public String stem() {
+        return stem;
+    }
+
+    // Returns the length in tokens of a document of the segment
+    public int docLength(int docID) {
+        return docLengths.get(docID);
+    }
+}
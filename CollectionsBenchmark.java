@@ -0,0 +1,167 @@
+/*
+ * Date: October 16, 2026
+ * Name: Matthew Chan
+ *
+ * Program Description:
+ * The CollectionsBenchmark Java program compares the heap allocation and run time of
+ * building a lexicon and postings lists with the boxed java.util collections the indexer
+ * used before (HashMap<String, Integer> lexicon with containsKey / get, a new
+ * HashMap<Integer, Integer> per document for counting, and ArrayList<Integer> postings)
+ * against the primitive StringIntMap, IntIntCounter and IntArrayList collections. The
+ * documents of a gzip'd collection are tokenized once up front so that only the collection
+ * work is measured. Allocation is read from the JVM's per-thread allocation counter.
+ *
+ * Command Line Argument Inputs:
+ * javac CollectionsBenchmark.java
+ * java CollectionsBenchmark.java data\latimes.gz
+ * java CollectionsBenchmark.java data\latimes.gz 5
+ *
+ */
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+public class CollectionsBenchmark {
+
+    // Receives a value from every round so the JIT cannot remove the work
+    private static volatile long sink;
+
+    // Reads the collection and returns the tokens of each document's headline, text and graphic
+    private static List<String[]> readTokens(String dataPath) throws IOException {
+        List<String[]> docs = new ArrayList<String[]>();
+        BufferedReader buffered = new BufferedReader(new InputStreamReader(new GZIPInputStream(new FileInputStream(dataPath))));
+        DocumentParser parser = new DocumentParser();
+        StringBuilder currDoc = new StringBuilder();
+        String currLine;
+        while ((currLine = buffered.readLine()) != null) {
+            currDoc.append(currLine);
+            if (currLine.contains("</DOC>")) {
+                parser.parse(currDoc);
+                String text = (parser.headline() + " " + parser.text() + " " + parser.graphic()).toLowerCase();
+                docs.add(Arrays.stream(text.split("[^a-z0-9]+")).filter(t -> !t.isEmpty()).toArray(String[]::new));
+                currDoc.setLength(0);
+            } else {
+                currDoc.append("\n");
+            }
+        }
+        buffered.close();
+        return docs;
+    }
+
+    // Previous approach: boxed lexicon, a fresh count map per document and boxed postings
+    private static long boxedRound(List<String[]> docs) {
+        HashMap<String, Integer> lexiconTermToID = new HashMap<String, Integer>();
+        HashMap<Integer, List<Integer>> invIndex = new HashMap<Integer, List<Integer>>();
+        for (int docID = 0; docID < docs.size(); docID++) {
+            List<Integer> tokenIDs = new ArrayList<Integer>();
+            for (String token : docs.get(docID)) {
+                if (lexiconTermToID.containsKey(token)) {
+                    tokenIDs.add(lexiconTermToID.get(token));
+                } else {
+                    int termID = lexiconTermToID.size();
+                    lexiconTermToID.put(token, termID);
+                    tokenIDs.add(termID);
+                }
+            }
+            HashMap<Integer, Integer> wordCounts = new HashMap<Integer, Integer>();
+            for (int i = 0; i < tokenIDs.size(); i++) {
+                int termID = tokenIDs.get(i);
+                if (wordCounts.containsKey(termID)) {
+                    wordCounts.put(termID, wordCounts.get(termID) + 1);
+                } else {
+                    wordCounts.put(termID, 1);
+                }
+            }
+            for (Integer termID : wordCounts.keySet()) {
+                int count = wordCounts.get(termID);
+                List<Integer> postings = invIndex.getOrDefault(termID, new ArrayList<Integer>());
+                postings.add(docID);
+                postings.add(count);
+                invIndex.put(termID, postings);
+            }
+        }
+        return invIndex.size();
+    }
+
+    // Primitive approach: single-probe lexicon, a reused counter and int postings arrays
+    private static long primitiveRound(List<String[]> docs) {
+        StringIntMap lexicon = new StringIntMap();
+        IntIntCounter counter = new IntIntCounter();
+        IntArrayList[] postingsByID = new IntArrayList[1024];
+        for (int docID = 0; docID < docs.size(); docID++) {
+            counter.clear();
+            for (String token : docs.get(docID)) {
+                counter.increment(lexicon.getOrAdd(token));
+            }
+            for (int i = 0; i < counter.size(); i++) {
+                int termID = counter.keyAt(i);
+                if (termID >= postingsByID.length) {
+                    postingsByID = Arrays.copyOf(postingsByID, postingsByID.length * 2);
+                }
+                if (postingsByID[termID] == null) {
+                    postingsByID[termID] = new IntArrayList(2);
+                }
+                postingsByID[termID].add(docID);
+                postingsByID[termID].add(counter.countAt(i));
+            }
+        }
+        return lexicon.size();
+    }
+
+    // Returns the bytes allocated so far by the current thread
+    private static long allocatedBytes() {
+        return ((com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean()).getCurrentThreadAllocatedBytes();
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1 || args.length > 2) {
+            throw new IllegalArgumentException(
+                    "Please include a valid path to the gzip'd data file and optionally the number of rounds. " +
+                    "For example: 'java CollectionsBenchmark.java data\\latimes.gz 5'");
+        }
+        if (!new File(args[0]).exists()) {
+            throw new FileNotFoundException(args[0] + " path does not exist");
+        }
+        int rounds = args.length == 2 ? Integer.parseInt(args[1]) : 5;
+
+        List<String[]> docs = readTokens(args[0]);
+        long numTokens = 0;
+        for (String[] tokens : docs) {
+            numTokens += tokens.length;
+        }
+        System.out.printf("Loaded %d documents with %d tokens%n", docs.size(), numTokens);
+
+        // Warm up both paths before measuring
+        sink = boxedRound(docs) + primitiveRound(docs);
+
+        long boxedBytes = 0, boxedNanos = 0, primitiveBytes = 0, primitiveNanos = 0;
+        for (int r = 0; r < rounds; r++) {
+            long bytes = allocatedBytes();
+            long start = System.nanoTime();
+            sink += boxedRound(docs);
+            boxedNanos += System.nanoTime() - start;
+            boxedBytes += allocatedBytes() - bytes;
+
+            bytes = allocatedBytes();
+            start = System.nanoTime();
+            sink += primitiveRound(docs);
+            primitiveNanos += System.nanoTime() - start;
+            primitiveBytes += allocatedBytes() - bytes;
+        }
+
+        System.out.printf("boxed collections:     %8.1f MB allocated, %8.1f bytes/token, %8.1f ms%n",
+                boxedBytes / (double) rounds / (1 << 20), boxedBytes / (double) rounds / numTokens, boxedNanos / rounds / 1e6);
+        System.out.printf("primitive collections: %8.1f MB allocated, %8.1f bytes/token, %8.1f ms%n",
+                primitiveBytes / (double) rounds / (1 << 20), primitiveBytes / (double) rounds / numTokens, primitiveNanos / rounds / 1e6);
+    }
+}
@@ -0,0 +1,391 @@
+/*
+ * Date: October 16, 2026
+ * Name: Matthew Chan
+ *
+ * Program Description:
+ * The DaatSearcher Java class ranks documents for a query document-at-a-time: the postings
+ * cursors of the query terms are moved forward together, each document is scored completely
+ * once and is then offered to a TopDocs heap of size k. Because only the k best documents are
+ * kept, the score of the k-th document is a threshold that a document must reach, and with
+ * the per-term score upper bounds stored by the indexer whole stretches of documents can be
+ * skipped without being scored:
+ *
+ * MaxScore sorts the terms by upper bound. The terms whose bounds add up to less than the
+ * threshold are non-essential, since a document that contains only those cannot enter the
+ * top k. Candidates are taken from the essential terms only, and the non-essential terms are
+ * looked up for a candidate only while its partial score can still reach the threshold.
+ *
+ * WAND keeps the cursors sorted by docID and adds up their bounds in that order. The first
+ * docID at which the bounds can reach the threshold is the pivot, and every cursor before it
+ * jumps straight to the pivot, skipping the documents in between.
+ *
+ * Block-Max WAND finds the pivot the same way, then checks the pivot against the bounds of
+ * the blocks that hold it, which are much tighter than the bounds of whole lists. If those
+ * cannot reach the threshold either, no document up to the end of the nearest of the blocks
+ * can, and a cursor jumps past it without the blocks being decoded.
+ *
+ * Unpruned evaluation scores every document of every cursor, as a baseline for the work the
+ * strategies save.
+ *
+ * A document that survives pruning is scored by adding its terms' scores in query order, the
+ * same order the term-at-a-time loop of BM25 uses, so the scores are identical to exhaustive
+ * evaluation and the top k are the same documents.
+ *
+ */
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class DaatSearcher {
+
+    // Dynamic pruning strategies
+    public enum Algorithm {
+        UNPRUNED, MAXSCORE, WAND, BMW;
+
+        // Parses "unpruned", "maxscore", "wand" or "bmw"
+        public static Algorithm parse(String name) {
+            for (Algorithm algorithm : values()) {
+                if (algorithm.name().equalsIgnoreCase(name)) {
+                    return algorithm;
+                }
+            }
+            throw new IllegalArgumentException("Unknown algorithm '" + name + "', expected unpruned, maxscore, wand or bmw");
+        }
+    }
+
+    // Relative slack on the threshold, so that rounding in sums of upper bounds never prunes a
+    // document whose exact score reaches the threshold
+    private static final double SLACK = 1e-9;
+
+    private final SegmentedIndex index;
+    private final double k1;
+    private final double b;
+    private final double[] lengthNorms;     // docID -> K
+    private final double N;
+
+    // Work counters, summed over all queries
+    private long postingsScored = 0;
+    private long docsScored = 0;
+    private long postingsDecoded = 0;
+
+    public DaatSearcher(SegmentedIndex index, double k1, double b, double[] lengthNorms) {
+        this.index = index;
+        this.k1 = k1;
+        this.b = b;
+        this.lengthNorms = lengthNorms;
+        this.N = index.numDocs();
+    }
+
+    // Returns the BM25 idf of a term that occurs in n documents
+    private double idf(double n) {
+        return Math.log((N - n + 0.5) / (n + 0.5));
+    }
+
+    // Returns a cursor for each query token that is in the index, in query order. A repeated
+    // token gets a cursor of its own, as it is scored twice by the term-at-a-time loop. The
+    // cursors decode their postings one block at a time, as they are needed.
+    public List<PostingsCursor> cursors(List<String> tokens) {
+        List<PostingsCursor> cursors = new ArrayList<PostingsCursor>();
+        for (String token : tokens) {
+            PostingsCursor cursor = cursor(token);
+            if (cursor != null) {
+                cursors.add(cursor);
+            }
+        }
+        return cursors;
+    }
+
+    // Returns a cursor over a term's postings, or null if the term is not in the index
+    public PostingsCursor cursor(String term) {
+        int n = index.documentFrequency(term);
+        if (n == 0) {
+            return null;
+        }
+        // A term with a negative idf can only lower a score, so it never adds to the bounds
+        return index.blockCursor(term, idf(n), k1, b);
+    }
+
+    // Returns a cursor over postings that are not in the lexicon, such as a phrase's, with an
+    // exact upper bound found by scanning the postings
+    public PostingsCursor cursor(int[] postings) {
+        double idf = idf(postings.length / 2);
+        double maxWeight = 0;
+        for (int j = 0; j < postings.length; j = j + 2) {
+            double termFreq = postings[j + 1];
+            maxWeight = Math.max(maxWeight, termFreq / (lengthNorms[postings[j]] + termFreq));
+        }
+        return new ArrayPostingsCursor(postings, idf, idf > 0 ? idf * maxWeight : 0);
+    }
+
+    // Returns whether a document whose score is at most upperBound could still enter the top k
+    private static boolean canEnter(TopDocs top, double upperBound) {
+        double threshold = top.threshold();
+        return upperBound >= threshold - SLACK * Math.abs(threshold);
+    }
+
+    // Ranks the documents of the cursors into top, which is cleared first and sorted at the end
+    public void search(List<PostingsCursor> cursors, TopDocs top, Algorithm algorithm) {
+        top.clear();
+        if (!cursors.isEmpty()) {
+            if (algorithm == Algorithm.UNPRUNED) {
+                unpruned(cursors, top);
+            } else if (algorithm == Algorithm.MAXSCORE) {
+                maxScore(cursors, top);
+            } else if (algorithm == Algorithm.WAND) {
+                wand(cursors, top);
+            } else {
+                blockMaxWand(cursors, top);
+            }
+        }
+        for (PostingsCursor cursor : cursors) {
+            postingsDecoded += cursor.postingsDecoded();
+        }
+        top.sort();
+    }
+
+    // Scores a document from the cursors that are on it, adding the scores in query order
+    private double score(List<PostingsCursor> cursors, int docID) {
+        double k = lengthNorms[docID];
+        double score = 0.0;
+        for (PostingsCursor cursor : cursors) {
+            if (cursor.docID() == docID) {
+                score += cursor.score(k);
+                postingsScored++;
+            }
+        }
+        docsScored++;
+        return score;
+    }
+
+    private void unpruned(List<PostingsCursor> cursors, TopDocs top) {
+        while (true) {
+            int docID = PostingsCursor.NO_MORE_DOCS;
+            for (PostingsCursor cursor : cursors) {
+                docID = Math.min(docID, cursor.docID());
+            }
+            if (docID == PostingsCursor.NO_MORE_DOCS) {
+                break;
+            }
+            top.add(docID, score(cursors, docID));
+            for (PostingsCursor cursor : cursors) {
+                if (cursor.docID() == docID) {
+                    cursor.next();
+                }
+            }
+        }
+    }
+
+    private void maxScore(List<PostingsCursor> cursors, TopDocs top) {
+        int n = cursors.size();
+        PostingsCursor[] inQueryOrder = cursors.toArray(new PostingsCursor[n]);
+
+        // Query positions of the cursors, sorted by upper bound
+        int[] byBound = new int[n];
+        for (int i = 0; i < n; i++) {
+            int q = i;
+            int j = i - 1;
+            while (j >= 0 && inQueryOrder[byBound[j]].upperBound() > inQueryOrder[q].upperBound()) {
+                byBound[j + 1] = byBound[j];
+                j--;
+            }
+            byBound[j + 1] = q;
+        }
+
+        // prefixBounds[i] is the sum of the i smallest upper bounds
+        double[] prefixBounds = new double[n + 1];
+        for (int i = 0; i < n; i++) {
+            prefixBounds[i + 1] = prefixBounds[i] + inQueryOrder[byBound[i]].upperBound();
+        }
+
+        // Score of each query position on the candidate, kept to add them up in query order
+        double[] contributions = new double[n];
+        boolean[] onCandidate = new boolean[n];
+
+        // Terms before firstEssential are non-essential; the threshold only rises, so it only moves up
+        int firstEssential = 0;
+        while (true) {
+            while (firstEssential < n && !canEnter(top, prefixBounds[firstEssential + 1])) {
+                firstEssential++;
+            }
+            if (firstEssential == n) {
+                break;
+            }
+
+            // The next candidate is the smallest docID among the essential terms
+            int docID = PostingsCursor.NO_MORE_DOCS;
+            for (int i = firstEssential; i < n; i++) {
+                docID = Math.min(docID, inQueryOrder[byBound[i]].docID());
+            }
+            if (docID == PostingsCursor.NO_MORE_DOCS) {
+                break;
+            }
+
+            // Partial score of the essential terms, then the non-essential terms from the largest
+            // bound down, as long as the rest of the bounds can still lift the document into the top k
+            double k = lengthNorms[docID];
+            double partial = 0;
+            Arrays.fill(onCandidate, false);
+            for (int i = firstEssential; i < n; i++) {
+                int q = byBound[i];
+                if (inQueryOrder[q].docID() == docID) {
+                    contributions[q] = inQueryOrder[q].score(k);
+                    onCandidate[q] = true;
+                    partial += contributions[q];
+                    postingsScored++;
+                }
+            }
+            boolean pruned = false;
+            for (int i = firstEssential - 1; i >= 0; i--) {
+                if (!canEnter(top, partial + prefixBounds[i + 1])) {
+                    pruned = true;
+                    break;
+                }
+                int q = byBound[i];
+                if (inQueryOrder[q].advance(docID) == docID) {
+                    contributions[q] = inQueryOrder[q].score(k);
+                    onCandidate[q] = true;
+                    partial += contributions[q];
+                    postingsScored++;
+                }
+            }
+            if (!pruned) {
+                double score = 0.0;
+                for (int q = 0; q < n; q++) {
+                    if (onCandidate[q]) {
+                        score += contributions[q];
+                    }
+                }
+                docsScored++;
+                top.add(docID, score);
+            }
+
+            for (int i = firstEssential; i < n; i++) {
+                if (inQueryOrder[byBound[i]].docID() == docID) {
+                    inQueryOrder[byBound[i]].next();
+                }
+            }
+        }
+    }
+
+    // Sorts the cursors by docID with an insertion sort, they are nearly sorted after each step
+    private static void sortByDocID(PostingsCursor[] byDocID) {
+        for (int i = 1; i < byDocID.length; i++) {
+            PostingsCursor cursor = byDocID[i];
+            int j = i - 1;
+            while (j >= 0 && byDocID[j].docID() > cursor.docID()) {
+                byDocID[j + 1] = byDocID[j];
+                j--;
+            }
+            byDocID[j + 1] = cursor;
+        }
+    }
+
+    // Returns the first cursor at which the upper bounds so far can reach the threshold, or -1
+    private static int findPivot(PostingsCursor[] byDocID, TopDocs top) {
+        double bounds = 0;
+        for (int i = 0; i < byDocID.length && byDocID[i].docID() != PostingsCursor.NO_MORE_DOCS; i++) {
+            bounds += byDocID[i].upperBound();
+            if (canEnter(top, bounds)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private void wand(List<PostingsCursor> cursors, TopDocs top) {
+        int n = cursors.size();
+        PostingsCursor[] byDocID = cursors.toArray(new PostingsCursor[n]);
+
+        while (true) {
+            sortByDocID(byDocID);
+            int pivot = findPivot(byDocID, top);
+            if (pivot < 0) {
+                break;
+            }
+            int pivotDoc = byDocID[pivot].docID();
+
+            if (byDocID[0].docID() == pivotDoc) {
+                // Every cursor up to the pivot is on the pivot document, score it
+                top.add(pivotDoc, score(cursors, pivotDoc));
+                for (int i = 0; i < n && byDocID[i].docID() == pivotDoc; i++) {
+                    byDocID[i].next();
+                }
+            } else {
+                // No document before the pivot can enter the top k
+                for (int i = 0; i < pivot && byDocID[i].docID() < pivotDoc; i++) {
+                    byDocID[i].advance(pivotDoc);
+                }
+            }
+        }
+    }
+
+    private void blockMaxWand(List<PostingsCursor> cursors, TopDocs top) {
+        int n = cursors.size();
+        PostingsCursor[] byDocID = cursors.toArray(new PostingsCursor[n]);
+
+        while (true) {
+            sortByDocID(byDocID);
+            int pivot = findPivot(byDocID, top);
+            if (pivot < 0) {
+                break;
+            }
+            int pivotDoc = byDocID[pivot].docID();
+            // Cursors after the pivot that are on the pivot document count towards it as well
+            while (pivot + 1 < n && byDocID[pivot + 1].docID() == pivotDoc) {
+                pivot++;
+            }
+
+            // Bound the pivot document by the blocks that would hold it
+            double blockBounds = 0;
+            for (int i = 0; i <= pivot; i++) {
+                byDocID[i].advanceShallow(pivotDoc);
+                blockBounds += byDocID[i].blockUpperBound();
+            }
+
+            if (canEnter(top, blockBounds)) {
+                if (byDocID[0].docID() == pivotDoc) {
+                    // Every cursor up to the pivot is on the pivot document, score it
+                    top.add(pivotDoc, score(cursors, pivotDoc));
+                    for (int i = 0; i <= pivot; i++) {
+                        byDocID[i].next();
+                    }
+                } else {
+                    // No document before the pivot can enter the top k
+                    for (int i = 0; i < pivot && byDocID[i].docID() < pivotDoc; i++) {
+                        byDocID[i].advance(pivotDoc);
+                    }
+                }
+                continue;
+            }
+
+            // No document from the pivot up to the end of the first of the blocks to end, or up to
+            // the next cursor after the pivot, can enter the top k
+            long next = pivot + 1 < n ? byDocID[pivot + 1].docID() : PostingsCursor.NO_MORE_DOCS;
+            int strongest = 0;
+            for (int i = 0; i <= pivot; i++) {
+                next = Math.min(next, (long) byDocID[i].blockLastDocID() + 1);
+                if (byDocID[i].upperBound() > byDocID[strongest].upperBound()) {
+                    strongest = i;
+                }
+            }
+            // Move the cursor with the largest bound, it is the one that skips the most
+            byDocID[strongest].advance((int) Math.min(next, PostingsCursor.NO_MORE_DOCS));
+        }
+    }
+
+    // Returns the number of postings decoded by all queries so far
+    public long postingsDecoded() {
+        return postingsDecoded;
+    }
+
+    // Returns the number of postings scored by all queries so far
+    public long postingsScored() {
+        return postingsScored;
+    }
+
+    // Returns the number of documents fully scored by all queries so far
+    public long docsScored() {
+        return docsScored;
+    }
+}
@@ -0,0 +1,106 @@
+/*
+ * Date: October 16, 2026
+ * Name: Matthew Chan
+ *
+ * Program Description:
+ * The DocStoreReader Java class fetches stored documents from the packed document store
+ * written by DocStoreWriter. The docID's record is read from the docstore index file and
+ * its compressed block is read from the store file, both with positioned FileChannel reads,
+ * and only that block is inflated. Positioned reads do not move a shared file pointer, so
+ * one reader can be used from several threads at once.
+ *
+ */
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+public class DocStoreReader {
+
+    private final RandomAccessFile storeFile;
+    private final RandomAccessFile indexFile;
+    private final FileChannel store;
+    private final FileChannel index;
+    private final int numDocs;
+
+    public DocStoreReader(String storePath, String indexPath) throws IOException {
+        if (!new File(storePath).exists()) {
+            throw new FileNotFoundException(storePath + " path does not exist");
+        }
+        if (!new File(indexPath).exists()) {
+            throw new FileNotFoundException(indexPath + " path does not exist");
+        }
+        storeFile = new RandomAccessFile(storePath, "r");
+        indexFile = new RandomAccessFile(indexPath, "r");
+        store = storeFile.getChannel();
+        index = indexFile.getChannel();
+        numDocs = (int) (index.size() / DocStoreWriter.DOC_RECORD_SIZE);
+    }
+
+    // Returns the number of documents in the store
+    public int numDocs() {
+        return numDocs;
+    }
+
+    // Reads exactly buf.remaining() bytes starting at position
+    private static void readFully(FileChannel channel, ByteBuffer buf, long position) throws IOException {
+        while (buf.hasRemaining()) {
+            int n = channel.read(buf, position);
+            if (n < 0) {
+                throw new IOException("Unexpected end of docstore file");
+            }
+            position += n;
+        }
+        buf.flip();
+    }
+
+    // Returns the stored text of a document: its metadata followed by the raw document
+    public String getDocument(int docID) throws IOException {
+        if (docID < 0 || docID >= numDocs) {
+            throw new IllegalArgumentException("docID " + docID + " is not in the docstore");
+        }
+
+        // Look up where the document's block is and where the document is inside it
+        ByteBuffer record = ByteBuffer.allocate(DocStoreWriter.DOC_RECORD_SIZE);
+        readFully(index, record, (long) docID * DocStoreWriter.DOC_RECORD_SIZE);
+        long blockOffset = record.getLong();
+        int blockLength = record.getInt();
+        int docOffset = record.getInt();
+        int docLength = record.getInt();
+
+        // Read the compressed block and inflate it up to the end of the document
+        ByteBuffer compressed = ByteBuffer.allocate(blockLength);
+        readFully(store, compressed, blockOffset);
+        byte[] uncompressed = new byte[docOffset + docLength];
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(compressed.array(), 0, blockLength);
+            int n = 0;
+            while (n < uncompressed.length) {
+                int read = inflater.inflate(uncompressed, n, uncompressed.length - n);
+                if (read == 0 && (inflater.finished() || inflater.needsInput())) {
+                    throw new IOException("Docstore block for docID " + docID + " is truncated");
+                }
+                n += read;
+            }
+        } catch (DataFormatException e) {
+            throw new IOException("Docstore block for docID " + docID + " is corrupt", e);
+        } finally {
+            inflater.end();
+        }
+
+        return new String(uncompressed, docOffset, docLength, StandardCharsets.UTF_8);
+    }
+
+    // Closes the store and index files
+    public void close() throws IOException {
+        storeFile.close();
+        indexFile.close();
+    }
+}
@@ -0,0 +1,111 @@
+/*
+ * Date: October 16, 2026
+ * Name: Matthew Chan
+ *
+ * Program Description:
+ * The DocStoreWriter Java class packs the stored documents of the index into a single
+ * document store instead of one gzip file per document. Documents are appended in docID
+ * order and buffered until a block reaches the configured size. The block is then deflate
+ * compressed and appended to the store file. A fixed-size record per docID in the docstore
+ * index file points at the compressed block and at the document inside the uncompressed
+ * block, so DocStoreReader can fetch any document with positioned reads.
+ *
+ * Store file:  [compressed block 0][compressed block 1]...
+ * Index file:  [block offset (long), block length (int), doc offset (int), doc length (int)]
+ *              for docID 0, then docID 1, ...
+ *
+ */
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.zip.Deflater;
+
+public class DocStoreWriter {
+
+    // Size in bytes of one record in the docstore index file
+    public static final int DOC_RECORD_SIZE = 20;
+
+    private final OutputStream storeOut;
+    private final DataOutputStream indexOut;
+    private final int blockSize;
+    private final Deflater deflater = new Deflater();
+    private final byte[] deflateBuffer = new byte[1 << 16];
+
+    private final ByteArrayOutputStream block = new ByteArrayOutputStream();
+    private int[] pendingOffsets = new int[64];  // offsets of the buffered documents inside the block
+    private int[] pendingLengths = new int[64];  // byte lengths of the buffered documents
+    private int numPending = 0;
+    private long storeOffset = 0;
+    private int nextDocID = 0;
+
+    public DocStoreWriter(String storePath, String indexPath, int blockSize) throws IOException {
+        if (blockSize <= 0) {
+            throw new IllegalArgumentException("Docstore block size must be positive");
+        }
+        this.storeOut = new BufferedOutputStream(new FileOutputStream(storePath), 1 << 16);
+        this.indexOut = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(indexPath), 1 << 16));
+        this.blockSize = blockSize;
+    }
+
+    // Appends the next document, docIDs must be consecutive from 0
+    public void addDocument(int docID, byte[] document) throws IOException {
+        if (docID != nextDocID) {
+            throw new IllegalArgumentException("Expected docID " + nextDocID + " but got " + docID);
+        }
+        nextDocID++;
+
+        if (numPending == pendingOffsets.length) {
+            pendingOffsets = Arrays.copyOf(pendingOffsets, numPending * 2);
+            pendingLengths = Arrays.copyOf(pendingLengths, numPending * 2);
+        }
+        pendingOffsets[numPending] = block.size();
+        pendingLengths[numPending] = document.length;
+        numPending++;
+        block.write(document);
+
+        if (block.size() >= blockSize) {
+            flushBlock();
+        }
+    }
+
+    // Compresses the buffered block, appends it to the store and writes its documents' records
+    private void flushBlock() throws IOException {
+        if (numPending == 0) {
+            return;
+        }
+
+        deflater.reset();
+        deflater.setInput(block.toByteArray());
+        deflater.finish();
+        int blockLength = 0;
+        while (!deflater.finished()) {
+            int n = deflater.deflate(deflateBuffer);
+            storeOut.write(deflateBuffer, 0, n);
+            blockLength += n;
+        }
+
+        for (int i = 0; i < numPending; i++) {
+            indexOut.writeLong(storeOffset);
+            indexOut.writeInt(blockLength);
+            indexOut.writeInt(pendingOffsets[i]);
+            indexOut.writeInt(pendingLengths[i]);
+        }
+
+        storeOffset += blockLength;
+        block.reset();
+        numPending = 0;
+    }
+
+    // Flushes the last block and closes both files
+    public void close() throws IOException {
+        flushBlock();
+        deflater.end();
+        storeOut.close();
+        indexOut.close();
+    }
+}
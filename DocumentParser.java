@@ -0,0 +1,128 @@
+/*
+ * Date: October 16, 2026
+ * Name: Matthew Chan
+ *
+ * Program Description:
+ * The DocumentParser Java class extracts the HEADLINE, TEXT and GRAPHIC fields of a <DOC>
+ * block in a single pass over the document. The content of each field is written straight
+ * into a reusable buffer with newlines and <P> / </P> tags stripped, which is the same text
+ * the previous regex extraction produced, but without the document copies and intermediate
+ * Strings made by running three regexes and a chain of String.replace calls. As with the
+ * regexes, only the first occurrence of each field is used and the fields are expected not
+ * to be nested inside each other, as is the case in the LA Times collection.
+ *
+ * One parser should be used per thread, since its buffers are reused for every document.
+ *
+ */
+
+public class DocumentParser {
+
+    private static final String[] FIELDS = {"HEADLINE", "TEXT", "GRAPHIC"};
+
+    private final StringBuilder[] buffers = {new StringBuilder(), new StringBuilder(), new StringBuilder()};
+    private final boolean[] found = new boolean[FIELDS.length];
+
+    // Parses a document, replacing the contents of the field buffers
+    public void parse(CharSequence doc) {
+        for (int f = 0; f < FIELDS.length; f++) {
+            buffers[f].setLength(0);
+            found[f] = false;
+        }
+
+        int length = doc.length();
+        int i = 0;
+        while (i < length) {
+            if (doc.charAt(i) != '<') {
+                i++;
+                continue;
+            }
+
+            // Check whether the tag opens a field that has not been seen yet
+            int field = -1;
+            for (int f = 0; f < FIELDS.length; f++) {
+                if (!found[f] && matchesTag(doc, i, FIELDS[f], false)) {
+                    field = f;
+                    break;
+                }
+            }
+            if (field < 0) {
+                i++;
+                continue;
+            }
+
+            // Copy the field content up to its closing tag, dropping newlines and paragraph tags.
+            // The content must be at least one character long, as it was for the (.+?) regexes.
+            int contentStart = i + FIELDS[field].length() + 2;
+            int end = indexOfTag(doc, contentStart + 1, FIELDS[field], true);
+            if (end < 0) {
+                // Without a closing tag the field is not extracted, like an unmatched regex
+                i++;
+                continue;
+            }
+            copyContent(doc, contentStart, end, buffers[field]);
+            found[field] = true;
+            i = end + FIELDS[field].length() + 3;
+        }
+    }
+
+    // Returns the headline of the last parsed document
+    public StringBuilder headline() {
+        return buffers[0];
+    }
+
+    // Returns the text of the last parsed document
+    public StringBuilder text() {
+        return buffers[1];
+    }
+
+    // Returns the graphic caption of the last parsed document
+    public StringBuilder graphic() {
+        return buffers[2];
+    }
+
+    // Checks whether <name> (or </name> when closing) starts at position i
+    private static boolean matchesTag(CharSequence doc, int i, String name, boolean closing) {
+        int pos = i;
+        int length = doc.length();
+        if (pos >= length || doc.charAt(pos++) != '<') {
+            return false;
+        }
+        if (closing && (pos >= length || doc.charAt(pos++) != '/')) {
+            return false;
+        }
+        for (int k = 0; k < name.length(); k++) {
+            if (pos >= length || doc.charAt(pos++) != name.charAt(k)) {
+                return false;
+            }
+        }
+        return pos < length && doc.charAt(pos) == '>';
+    }
+
+    // Returns the position of the first <name> or </name> tag at or after from, or -1
+    private static int indexOfTag(CharSequence doc, int from, String name, boolean closing) {
+        for (int i = from; i < doc.length(); i++) {
+            if (doc.charAt(i) == '<' && matchesTag(doc, i, name, closing)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    // Appends doc[start, end) to out without newlines, <P> and </P>
+    private static void copyContent(CharSequence doc, int start, int end, StringBuilder out) {
+        int i = start;
+        while (i < end) {
+            char c = doc.charAt(i);
+            if (c == '\n') {
+                i++;
+            } else if (c == '<' && i + 3 <= end && matchesTag(doc, i, "P", false)) {
+                i += 3;
+            } else if (c == '<' && i + 4 <= end && matchesTag(doc, i, "P", true)) {
+                i += 4;
+            } else {
+                out.append(c);
+                i++;
+            }
+        }
+    }
+}
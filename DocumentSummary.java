@@ -0,0 +1,195 @@
+/*
+ * Date: October 16, 2026
+ * Name: Matthew Chan
+ *
+ * Program Description:
+ * The DocumentSummary Java class builds what a search result shows of a document: its
+ * headline, its date and a query-biased snippet. The snippet is the two best sentences of the
+ * document's text, where a sentence scores 2 if it is the first sentence and 1 if it is the
+ * second, plus the number of query words it contains and the number of distinct query words
+ * it contains. A document without a headline gets the start of its snippet as a headline.
+ *
+ */
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.text.BreakIterator;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+public class DocumentSummary {
+
+    // Use regex to find text between tags
+    private static final Pattern headlinePattern = Pattern.compile("<HEADLINE>(.+?)</HEADLINE>", Pattern.DOTALL);
+    private static final Pattern datePattern = Pattern.compile("<DATE>(.+?)</DATE>", Pattern.DOTALL);
+    private static final Pattern textPattern = Pattern.compile("<TEXT>(.+?)</TEXT>", Pattern.DOTALL);
+    private static final Pattern graphicPattern = Pattern.compile("<GRAPHIC>(.+?)</GRAPHIC>", Pattern.DOTALL);
+
+    private final String headline;
+    private final String date;
+    private final String snippet;
+
+    private DocumentSummary(String headline, String date, String snippet) {
+        this.headline = headline;
+        this.date = date;
+        this.snippet = snippet;
+    }
+
+    public String headline() {
+        return headline;
+    }
+
+    public String date() {
+        return date;
+    }
+
+    public String snippet() {
+        return snippet;
+    }
+
+    // Returns the index of the first token equal to the chars in buf[0, length), or -1
+    private static int indexOf(List<String> tokens, char[] buf, int length) {
+        for (int i = 0; i < tokens.size(); i++) {
+            String token = tokens.get(i);
+            if (token.length() != length) {
+                continue;
+            }
+            int j = 0;
+            while (j < length && token.charAt(j) == buf[j]) {
+                j++;
+            }
+            if (j == length) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    // Extract text from a given string using a regex pattern
+    private static String extractText(String input, Pattern pattern) {
+        Matcher matcher = pattern.matcher(input);
+        if (matcher.find()) {
+            return matcher.group(1)
+                    .replaceAll("\n", "")
+                    .replaceAll("<P>", "");
+        } else {
+            return "";
+        }
+    }
+
+    // Calculate a score based on sentence number, sentence, and query tokens
+    private static Integer calculateScore(int sentenceNum, String sentence, List<String> queryTokens) {
+        int l = 0; // First or second sentence
+        int c = 0; // Query term occurrence in sentence
+        int d = 0; // Distinct query term occurrence in sentence
+
+        if (sentenceNum == 1) {
+            l = 2;
+        } else if (sentenceNum == 2) {
+            l = 1;
+        }
+
+        // Match the sentence's tokens against the query straight from the tokenizer's buffer
+        boolean[] seen = new boolean[queryTokens.size()]; // query terms found, by first index in the query
+        Tokenizer tokenizer = Tokenizer.forThread();
+        tokenizer.reset(sentence);
+        while (tokenizer.next()) {
+            int queryIndex = indexOf(queryTokens, tokenizer.buffer(), tokenizer.length());
+            if (queryIndex >= 0) {
+                c++;
+                if (!seen[queryIndex]) {
+                    seen[queryIndex] = true;
+                    d++;
+                }
+            }
+        }
+
+        return l + c + d;
+    }
+
+    // Summarizes a document for a query, tokens are the query's words as typed
+    public static DocumentSummary of(SegmentedIndex index, int docID, List<String> tokens) throws IOException {
+        if (docID >= index.numDocs()) {
+            throw new FileNotFoundException("File not found");
+        }
+        return of(index.getDocument(docID), tokens);
+    }
+
+    // Summarizes a stored document for a query, so that the docstore read and the snippet can
+    // be timed apart
+    public static DocumentSummary of(String document, List<String> tokens) {
+        String headline = "";
+        String date = "";
+        String snippet = "";
+
+        // Extract snippet, headline from the document with its lines joined together
+        StringBuilder currDoc = new StringBuilder(document.replace("\n", ""));
+
+        HashMap<String, Integer> scoreAggregator = new HashMap<>();
+
+        headline = extractText(currDoc.toString(), headlinePattern).replace("</P>", "");
+
+        if (headline.length() > 50) {
+            headline = headline.substring(0, 50) + "...";
+        }
+
+        String source = (extractText(currDoc.toString(), textPattern) +
+                extractText(currDoc.toString(), graphicPattern))
+                .replaceAll("<[^>]*>", "")
+                .replaceAll("\\s+", " ");
+
+        // Break text into sentences
+        BreakIterator iterator = BreakIterator.getSentenceInstance(Locale.US);
+        iterator.setText(source);
+        int start = iterator.first();
+        int sentenceNum = 1;
+        // Iterate through each sentence
+        for (int end = iterator.next();
+             end != BreakIterator.DONE;
+             start = end, end = iterator.next()) {
+            String sentence = source.substring(start, end);
+            scoreAggregator.put(sentence, calculateScore(sentenceNum, sentence, tokens));
+            if (sentenceNum <= 2) {
+                sentenceNum++;
+            }
+        }
+
+        // Sort accumulator descending
+        ArrayList<Map.Entry<String, Integer>> scoreAggregatorEntries = new ArrayList<>(scoreAggregator.entrySet());
+        Collections.sort(
+                scoreAggregatorEntries,
+                new Comparator<Map.Entry<String, Integer>>() {
+                    public int compare(Map.Entry<String, Integer> a, Map.Entry<String, Integer> b) {
+                        return Integer.compare(b.getValue(), a.getValue());
+                    }
+                }
+        );
+
+        if (scoreAggregatorEntries.size() == 1) {
+            snippet = scoreAggregatorEntries.get(0).getKey();
+        } else if (scoreAggregatorEntries.size() >= 2) {
+            snippet = scoreAggregatorEntries.get(0).getKey() + scoreAggregatorEntries.get(1).getKey();
+        }
+
+        String[] dateSplit = extractText(currDoc.toString(), datePattern).replaceAll("</P>", "").split(", ");
+        if (dateSplit.length > 2) {
+            date = dateSplit[0] + ", " + dateSplit[1];
+        }
+
+        if (headline.equals("") && snippet.length() > 0) {
+            if (snippet.length() >= 50) {
+                headline = snippet.substring(0, 50) + "...";
+            } else {
+                headline = snippet.substring(0, snippet.length()) + "...";
+            }
+        }
+        return new DocumentSummary(headline, date, snippet);
+    }
+}
@@ -0,0 +1,338 @@
+/*
+ * Date: October 16, 2026
+ * Name: Matthew Chan
+ *
+ * Program Description:
+ * The ImpactIndex Java program builds, and the class reads, an impact-ordered copy of an
+ * index's postings. For one k1 and b, the BM25 score idf * tf / (K + tf) of every posting is
+ * computed once, with the collection statistics summed over every segment, and quantized to
+ * an 8-bit impact: the scores from 0 to the largest magnitude of any posting's score are
+ * divided into 255 equal steps, and each posting gets the nearest step, at least 1. Terms in
+ * more than half of the documents have a negative idf, so all of their postings lower the
+ * score; such a term is marked as negative and its impacts are subtracted. A term's postings
+ * are then grouped by impact, the groups (the impact segments of Anh and Moffat) are stored
+ * from the highest impact to the lowest, and the docIDs inside a group are in increasing order
+ * and gap encoded with VByte. ImpactSearcher reads the highest impacts of the query terms first
+ * and adds up small integers instead of computing BM25 for every posting.
+ *
+ * Terms whose idf is exactly 0 add nothing and are left out. The impacts belong to the whole
+ * index rather than to a segment, since they use the statistics of every segment. Merging
+ * segments keeps every docID and statistic, so the impacts stay valid, but after documents are
+ * appended they have to be built again, which IndexEngine does with --impacts. The file is
+ * written to a temporary file and renamed over the old one.
+ *
+ * Impacts file: [magic (int), version (int), k1 (double), b (double), number of documents (int),
+ *                total tokens (long), score of one impact step (double), number of terms (int),
+ *                term table offset (long)]
+ *               then for every term [2 * number of groups + 1 if negative (VByte)],
+ *               [impact (byte), number of postings (VByte), byte length (VByte)] for each
+ *               group, and each group's docID gaps
+ *               then the term table, [term length (VByte), term (UTF-8), offset (int)] in
+ *               term order
+ *
+ * Command Line Argument Inputs:
+ * javac ImpactIndex.java
+ * java ImpactIndex.java latimes_index
+ * java ImpactIndex.java latimes_index --k1 0.9 --b 0.4
+ *
+ */
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.List;
+
+public class ImpactIndex {
+
+    // Marks an impacts file, "LATI"
+    private static final int MAGIC = 0x4C415449;
+    private static final int FORMAT_VERSION = 1;
+
+    // Largest impact, impacts take 8 bits
+    public static final int MAX_IMPACT = 255;
+
+    // Byte offset of the number of terms in the header, the term table offset follows it
+    private static final int NUM_TERMS_POSITION = 4 + 4 + 8 + 8 + 4 + 8 + 8;
+
+    private final ByteBuffer impacts;
+    private final double k1;
+    private final double b;
+    private final double step;
+    private final StringIntMap terms;
+    private final int[] offsets;            // term ID -> byte offset of its groups
+
+    private ImpactIndex(ByteBuffer impacts, double k1, double b, double step, StringIntMap terms, int[] offsets) {
+        this.impacts = impacts;
+        this.k1 = k1;
+        this.b = b;
+        this.step = step;
+        this.terms = terms;
+        this.offsets = offsets;
+    }
+
+    // Returns the path of the impacts file of an index directory
+    public static String path(String indexRoot) {
+        return indexRoot + "\\impacts.bin";
+    }
+
+    // Returns whether an index directory has an impacts file
+    public static boolean exists(String indexRoot) {
+        return new File(path(indexRoot)).exists();
+    }
+
+    // Returns the BM25 idf of a term that occurs in n of N documents
+    private static double idf(double N, double n) {
+        return Math.log((N - n + 0.5) / (n + 0.5));
+    }
+
+    // Computes the quantized BM25 impacts of every posting for k1 and b and writes the impacts
+    // file of the index directory, returns the number of postings written
+    public static long build(SegmentedIndex index, String indexRoot, double k1, double b) throws IOException {
+        double N = index.numDocs();
+        double[] lengthNorms = index.lengthNorms(k1, b);
+        List<String> terms = index.terms();
+
+        // The largest magnitude of any posting's score sets the size of an impact step
+        double maxScore = 0;
+        for (String term : terms) {
+            int[] postings = index.getPostings(term);
+            double idf = Math.abs(idf(N, postings.length / 2));
+            for (int j = 0; j < postings.length; j = j + 2) {
+                double termFreq = postings[j + 1];
+                maxScore = Math.max(maxScore, termFreq / (lengthNorms[postings[j]] + termFreq) * idf);
+            }
+        }
+        double step = maxScore > 0 ? maxScore / MAX_IMPACT : 1.0;
+
+        File tmpFile = new File(path(indexRoot) + ".tmp");
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmpFile), 1 << 16));
+        out.writeInt(MAGIC);
+        out.writeInt(FORMAT_VERSION);
+        out.writeDouble(k1);
+        out.writeDouble(b);
+        out.writeInt(index.numDocs());
+        out.writeLong(index.totalTokens());
+        out.writeDouble(step);
+        out.writeInt(0);        // number of terms and table offset, filled in at the end
+        out.writeLong(0);
+        long written = out.size();      // bytes of the file so far, kept below 2GB so it can be mapped
+
+        String[] tableTerms = new String[terms.size()];
+        int[] tableOffsets = new int[terms.size()];
+        int numTerms = 0;
+        long numPostings = 0;
+        int[] groupSizes = new int[MAX_IMPACT + 1];
+        int[] groupStarts = new int[MAX_IMPACT + 1];
+        ByteArrayOutputStream directoryBytes = new ByteArrayOutputStream();
+        ByteArrayOutputStream groupBytes = new ByteArrayOutputStream();
+        for (String term : terms) {
+            int[] postings = index.getPostings(term);
+            double idf = idf(N, postings.length / 2);
+            if (idf == 0) {
+                continue;
+            }
+            boolean negative = idf < 0;
+            idf = Math.abs(idf);
+
+            // Quantize the magnitude of each posting's score and count the postings of each impact
+            int df = postings.length / 2;
+            byte[] impactOf = new byte[df];
+            Arrays.fill(groupSizes, 0);
+            for (int i = 0; i < df; i++) {
+                double termFreq = postings[2 * i + 1];
+                double score = termFreq / (lengthNorms[postings[2 * i]] + termFreq) * idf;
+                int impact = Math.max(1, Math.min(MAX_IMPACT, (int) Math.round(score / step)));
+                impactOf[i] = (byte) impact;
+                groupSizes[impact]++;
+            }
+
+            // Place the docIDs in groups from the highest impact down, keeping docID order inside
+            // each group
+            int[] grouped = new int[df];
+            int start = 0;
+            for (int impact = MAX_IMPACT; impact >= 1; impact--) {
+                groupStarts[impact] = start;
+                start += groupSizes[impact];
+            }
+            int[] fill = groupStarts.clone();
+            for (int i = 0; i < df; i++) {
+                grouped[fill[impactOf[i] & 0xFF]++] = postings[2 * i];
+            }
+
+            // Build the group directory and the gaps of every group, then write the directory
+            // followed by the gaps
+            int numGroups = 0;
+            for (int impact = MAX_IMPACT; impact >= 1; impact--) {
+                if (groupSizes[impact] > 0) {
+                    numGroups++;
+                }
+            }
+            directoryBytes.reset();
+            VByte.write(directoryBytes, 2 * numGroups + (negative ? 1 : 0));
+            groupBytes.reset();
+            for (int impact = MAX_IMPACT; impact >= 1; impact--) {
+                if (groupSizes[impact] == 0) {
+                    continue;
+                }
+                int groupStart = groupBytes.size();
+                int docID = -1;
+                for (int i = groupStarts[impact]; i < groupStarts[impact] + groupSizes[impact]; i++) {
+                    VByte.write(groupBytes, grouped[i] - docID - 1);
+                    docID = grouped[i];
+                }
+                directoryBytes.write(impact);
+                VByte.write(directoryBytes, groupSizes[impact]);
+                VByte.write(directoryBytes, groupBytes.size() - groupStart);
+            }
+            if (written + directoryBytes.size() + groupBytes.size() > Integer.MAX_VALUE) {
+                out.close();
+                tmpFile.delete();
+                throw new IOException(path(indexRoot) + " would be larger than 2GB and cannot be mapped as one buffer");
+            }
+            tableTerms[numTerms] = term;
+            tableOffsets[numTerms] = (int) written;
+            numTerms++;
+            directoryBytes.writeTo(out);
+            groupBytes.writeTo(out);
+            written += directoryBytes.size() + groupBytes.size();
+            numPostings += df;
+        }
+
+        // Write the term table after the groups
+        long tableOffset = written;
+        for (int i = 0; i < numTerms; i++) {
+            byte[] bytes = tableTerms[i].getBytes(StandardCharsets.UTF_8);
+            written += VByte.write(out, bytes.length) + bytes.length + 4;
+            if (written > Integer.MAX_VALUE) {
+                out.close();
+                tmpFile.delete();
+                throw new IOException(path(indexRoot) + " would be larger than 2GB and cannot be mapped as one buffer");
+            }
+            out.write(bytes);
+            out.writeInt(tableOffsets[i]);
+        }
+        out.close();
+
+        RandomAccessFile header = new RandomAccessFile(tmpFile, "rw");
+        header.seek(NUM_TERMS_POSITION);
+        header.writeInt(numTerms);
+        header.writeLong(tableOffset);
+        header.close();
+
+        Files.move(tmpFile.toPath(), new File(path(indexRoot)).toPath(),
+                   StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return numPostings;
+    }
+
+    // Opens the impacts file of an index directory, which must have been built for the
+    // documents the index holds now
+    public static ImpactIndex open(String indexRoot, SegmentedIndex index) throws IOException {
+        String impactsPath = path(indexRoot);
+        if (!new File(impactsPath).exists()) {
+            throw new FileNotFoundException(impactsPath + " path does not exist, build it with IndexEngine --impacts or ImpactIndex");
+        }
+        ByteBuffer impacts = PostingsReader.map(impactsPath);
+        if (impacts.getInt() != MAGIC) {
+            throw new IOException(impactsPath + " is not an impacts file");
+        }
+        int version = impacts.getInt();
+        if (version != FORMAT_VERSION) {
+            throw new IOException(impactsPath + " has format version " + version +
+                                  " but version " + FORMAT_VERSION + " is expected, build it again");
+        }
+        double k1 = impacts.getDouble();
+        double b = impacts.getDouble();
+        int numDocs = impacts.getInt();
+        long totalTokens = impacts.getLong();
+        if (numDocs != index.numDocs() || totalTokens != index.totalTokens()) {
+            throw new IOException(impactsPath + " was built for " + numDocs + " documents but the index has " +
+                                  index.numDocs() + ", build it again");
+        }
+        double step = impacts.getDouble();
+        int numTerms = impacts.getInt();
+        long tableOffset = impacts.getLong();
+
+        // Read the term table into a hash map
+        StringIntMap terms = new StringIntMap(numTerms);
+        int[] offsets = new int[numTerms];
+        ByteBuffer table = impacts.duplicate();
+        table.position((int) tableOffset);
+        byte[] bytes = new byte[64];
+        for (int i = 0; i < numTerms; i++) {
+            int length = VByte.read(table);
+            if (length > bytes.length) {
+                bytes = new byte[length];
+            }
+            table.get(bytes, 0, length);
+            terms.getOrAdd(new String(bytes, 0, length, StandardCharsets.UTF_8));
+            offsets[i] = table.getInt();
+        }
+        return new ImpactIndex(impacts, k1, b, step, terms, offsets);
+    }
+
+    // Returns the k1 the impacts were computed for
+    public double k1() {
+        return k1;
+    }
+
+    // Returns the b the impacts were computed for
+    public double b() {
+        return b;
+    }
+
+    // Returns the BM25 score of one impact step, so a sum of impacts times step approximates
+    // the BM25 score
+    public double step() {
+        return step;
+    }
+
+    // Returns the number of terms with impacts
+    public int numTerms() {
+        return terms.size();
+    }
+
+    // Returns the byte offset of a term's group directory, or -1 if it has no impacts or is not
+    // in the index
+    public int offset(String term) {
+        int termID = terms.get(term);
+        return termID < 0 ? -1 : offsets[termID];
+    }
+
+    // Returns a buffer over the whole impacts file, with a position of its own
+    ByteBuffer impactsBuffer() {
+        return impacts.duplicate();
+    }
+
+    public static void main(String[] args) throws IOException {
+        Options options = new Options(args);
+        if (options.numPositional() != 1) {
+            throw new IllegalArgumentException(
+                    "Please include a valid path to an index directory. For example: " +
+                    "'java ImpactIndex.java latimes_index'");
+        }
+        String indexRoot = options.positional(0);
+        if (!new File(indexRoot).exists()) {
+            throw new FileNotFoundException(indexRoot + " path does not exist");
+        }
+        double k1 = options.getDouble("k1", 1.2);
+        double b = options.getDouble("b", 0.75);
+
+        long startTime = System.currentTimeMillis();
+        SegmentedIndex index = SegmentedIndex.open(indexRoot);
+        long numPostings = build(index, indexRoot, k1, b);
+        index.close();
+        float totalTime = (System.currentTimeMillis() - startTime) / 1000f;
+        System.out.printf("Wrote the impacts of %d postings for k1 %s and b %s in %.2f seconds (%.1f MB)%n",
+                numPostings, k1, b, totalTime, new File(path(indexRoot)).length() / 1048576.0);
+    }
+}
@@ -0,0 +1,291 @@
+/*
+ * Date: October 16, 2026
+ * Name: Matthew Chan
+ *
+ * Program Description:
+ * The ImpactSearcher Java class ranks documents score-at-a-time over an ImpactIndex. The
+ * impact groups of every query term are sorted by impact, highest first, and read in that
+ * order, adding each group's impact to the integer accumulator of every document in it, so
+ * the postings that contribute the most to the scores are read first and no floating point
+ * BM25 is computed. A term repeated in the query adds its impacts once per occurrence. The
+ * groups of terms with a negative idf are read first and subtracted, so that afterwards scores
+ * can only grow.
+ *
+ * Documents can then gain at most the sum of the impacts of each term's next unread group. A
+ * histogram of the accumulator values gives the k-th highest score and the highest score below
+ * it, and once the k-th score is above that next score (or 0, the score of a document not seen
+ * yet) plus everything documents can still gain, no document can enter or leave the top k, so
+ * the remaining groups are not read. The top k are then ordered by the scores they have so
+ * far, which can differ from their order with every group read. This check is made whenever
+ * the impact of the groups drops. With a budget of postings, evaluation also stops after the
+ * group that reaches the budget, which trades effectiveness for time (the anytime ranking of
+ * JASS). Only the postings of positive terms count towards the budget, since the negative
+ * terms are read in full first.
+ *
+ * Scores are reported as the integer sum times the score of one impact step, which
+ * approximates the BM25 score; documents with equal sums are ordered by docno.
+ *
+ */
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+public class ImpactSearcher {
+
+    private final ImpactIndex impacts;
+    private final ByteBuffer buf;
+    private final int budget;               // positive postings read per query, 0 for no limit
+
+    // docID -> integer score of the current query, and the docIDs that have one
+    private final int[] scores;
+    private final boolean[] touched;
+    private final int[] touchedDocs;
+    private int numTouched = 0;
+
+    // score - minScore -> number of documents with that score
+    private int[] histogram = new int[1024];
+    private int minScore;
+    private int maxScore;
+
+    // The groups of the current query: term index, weight, number of postings, byte position
+    private int numGroups = 0;
+    private int[] groupTerm = new int[256];
+    private int[] groupWeight = new int[256];
+    private int[] groupSize = new int[256];
+    private int[] groupStart = new int[256];
+
+    // Work counters, summed over all queries
+    private long postingsRead = 0;
+    private long postingsSkipped = 0;
+    private int earlyStops = 0;
+    private int budgetStops = 0;
+    private long docsTouched = 0;
+
+    public ImpactSearcher(ImpactIndex impacts, SegmentedIndex index, double k1, double b, int budget) {
+        if (impacts.k1() != k1 || impacts.b() != b) {
+            throw new IllegalArgumentException("The impacts were built for k1 " + impacts.k1() + " and b " + impacts.b() +
+                                               ", build them again for k1 " + k1 + " and b " + b);
+        }
+        if (budget < 0) {
+            throw new IllegalArgumentException("The budget of postings must not be negative");
+        }
+        this.impacts = impacts;
+        this.buf = impacts.impactsBuffer();
+        this.budget = budget;
+        this.scores = new int[index.numDocs()];
+        this.touched = new boolean[index.numDocs()];
+        this.touchedDocs = new int[index.numDocs()];
+    }
+
+    // Adds the groups of a term to the query's groups, each impact times the term's query count,
+    // negated if the term's scores are negative
+    private void addGroups(int term, int offset, int queryCount) {
+        buf.position(offset);
+        int header = VByte.read(buf);
+        int termGroups = header >>> 1;
+        int sign = (header & 1) == 1 ? -1 : 1;
+        if (numGroups + termGroups > groupTerm.length) {
+            int capacity = Math.max(groupTerm.length * 2, numGroups + termGroups);
+            groupTerm = Arrays.copyOf(groupTerm, capacity);
+            groupWeight = Arrays.copyOf(groupWeight, capacity);
+            groupSize = Arrays.copyOf(groupSize, capacity);
+            groupStart = Arrays.copyOf(groupStart, capacity);
+        }
+        int[] lengths = new int[termGroups];
+        for (int i = 0; i < termGroups; i++) {
+            groupTerm[numGroups + i] = term;
+            groupWeight[numGroups + i] = sign * (buf.get() & 0xFF) * queryCount;
+            groupSize[numGroups + i] = VByte.read(buf);
+            lengths[i] = VByte.read(buf);
+        }
+        int start = buf.position();
+        for (int i = 0; i < termGroups; i++) {
+            groupStart[numGroups + i] = start;
+            start += lengths[i];
+        }
+        numGroups += termGroups;
+    }
+
+    // Adds weight to the score of every document of a group
+    private void readGroup(int group) {
+        int weight = groupWeight[group];
+        buf.position(groupStart[group]);
+        int docID = -1;
+        for (int i = groupSize[group]; i > 0; i--) {
+            docID = docID + VByte.read(buf) + 1;
+            int score = scores[docID];
+            if (!touched[docID]) {
+                touched[docID] = true;
+                touchedDocs[numTouched++] = docID;
+            } else {
+                histogram[score - minScore]--;
+            }
+            score += weight;
+            scores[docID] = score;
+            histogram[score - minScore]++;
+        }
+    }
+
+    // Returns the k-th highest score, or the lowest possible score if fewer than k documents
+    // have a score
+    private int kthScore(int k) {
+        int count = 0;
+        for (int score = maxScore; score >= minScore; score--) {
+            count += histogram[score - minScore];
+            if (count >= k) {
+                return score;
+            }
+        }
+        return minScore;
+    }
+
+    // Returns whether no document can enter or leave the top k when scores can only grow, by at
+    // most remaining
+    private boolean topKDecided(int k, int remaining) {
+        int count = 0;
+        int score = maxScore;
+        for (; score >= minScore; score--) {
+            count += histogram[score - minScore];
+            if (count >= k) {
+                break;
+            }
+        }
+        // Fewer than k documents have a score, or documents are tied at the k-th score
+        if (score < minScore || count > k) {
+            return false;
+        }
+        // The best score outside the top k, a document not seen yet has 0
+        int next = score - 1;
+        while (next >= minScore && histogram[next - minScore] == 0) {
+            next--;
+        }
+        return score > Math.max(next, 0) + remaining;
+    }
+
+    // Ranks the documents of the query's tokens into top, which is cleared first and sorted
+    public void search(List<String> tokens, TopDocs top) {
+        top.clear();
+
+        // Count each distinct term of the query and collect its groups
+        Map<String, Integer> queryCounts = new LinkedHashMap<String, Integer>();
+        for (String token : tokens) {
+            queryCounts.merge(token, 1, Integer::sum);
+        }
+        numGroups = 0;
+        int numTerms = 0;
+        for (Map.Entry<String, Integer> entry : queryCounts.entrySet()) {
+            int offset = impacts.offset(entry.getKey());
+            if (offset >= 0) {
+                addGroups(numTerms++, offset, entry.getValue());
+            }
+        }
+
+        // Order the groups of negative terms first, then the rest by weight, highest first; a
+        // term's own groups keep their order
+        long[] order = new long[numGroups];
+        for (int i = 0; i < numGroups; i++) {
+            long rank = groupWeight[i] < 0 ? 0 : Integer.MAX_VALUE - groupWeight[i] + 1L;
+            order[i] = (rank << 32) | i;
+        }
+        Arrays.sort(order);
+
+        // A term's first group has the largest weight, so the first groups bound the scores and
+        // a document can gain at most the weight of each positive term's next group
+        int[] nextWeight = new int[numTerms];
+        for (int i = numGroups - 1; i >= 0; i--) {
+            nextWeight[groupTerm[i]] = groupWeight[i];
+        }
+        int remaining = 0;
+        minScore = 0;
+        maxScore = 0;
+        for (int weight : nextWeight) {
+            if (weight > 0) {
+                remaining += weight;
+                maxScore += weight;
+            } else {
+                minScore += weight;
+            }
+        }
+        if (histogram.length <= maxScore - minScore) {
+            histogram = new int[Math.max(histogram.length * 2, maxScore - minScore + 1)];
+        }
+
+        int read = 0;
+        int positiveRead = 0;
+        int i = 0;
+        for (; i < numGroups; i++) {
+            int group = (int) order[i];
+            int previous = i > 0 ? groupWeight[(int) order[i - 1]] : 0;
+            if (i > 0 && groupWeight[group] > 0 && groupWeight[group] != previous
+                    && topKDecided(top.capacity(), remaining)) {
+                earlyStops++;
+                break;
+            }
+            if (budget > 0 && positiveRead >= budget) {
+                budgetStops++;
+                break;
+            }
+            readGroup(group);
+            read += groupSize[group];
+            if (groupWeight[group] > 0) {
+                positiveRead += groupSize[group];
+            }
+
+            // The term's next group follows this one in the file
+            int term = groupTerm[group];
+            int following = group + 1 < numGroups && groupTerm[group + 1] == term ? groupWeight[group + 1] : 0;
+            if (groupWeight[group] > 0) {
+                remaining -= nextWeight[term] - following;
+            }
+            nextWeight[term] = following;
+        }
+        postingsRead += read;
+        for (; i < numGroups; i++) {
+            postingsSkipped += groupSize[(int) order[i]];
+        }
+
+        // Offer the documents that reach the k-th score, then reset the accumulators
+        docsTouched += numTouched;
+        int threshold = kthScore(top.capacity());
+        double step = impacts.step();
+        for (int j = 0; j < numTouched; j++) {
+            int docID = touchedDocs[j];
+            if (scores[docID] >= threshold) {
+                top.add(docID, scores[docID] * step);
+            }
+            scores[docID] = 0;
+            touched[docID] = false;
+        }
+        numTouched = 0;
+        Arrays.fill(histogram, 0, maxScore - minScore + 1, 0);
+        top.sort();
+    }
+
+    // Returns the number of postings read, summed over all queries
+    public long postingsRead() {
+        return postingsRead;
+    }
+
+    // Returns the number of postings in groups that were not read
+    public long postingsSkipped() {
+        return postingsSkipped;
+    }
+
+    // Returns the number of queries that stopped because the top k were decided
+    public int earlyStops() {
+        return earlyStops;
+    }
+
+    // Returns the number of queries that stopped at the budget of postings
+    public int budgetStops() {
+        return budgetStops;
+    }
+
+    // Returns the number of documents given a score, summed over all queries
+    public long docsTouched() {
+        return docsTouched;
+    }
+}
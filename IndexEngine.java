@@ -9,11 +9,27 @@
  * The program extracts relevant information from these tags, including document numbers, 
  * dates, headlines, and textual content. It tokenizes and processes the text, performing optional 
  * stemming, and then constructs an inverted index to map terms to document IDs and their corresponding 
- * word frequencies. The program generates metadata for each document, compresses the documents, 
- * and stores them in a structured directory based on their publication dates. Additionally, it creates 
+ * word frequencies. The program generates metadata for each document and packs the documents into 
+ * a block-compressed document store with a docID lookup table. Additionally, it creates 
  * lexicon files and an inverted index file to facilitate efficient retrieval of information. The user 
  * can specify whether or not to apply stemming during the tokenization process.
  * 
+ * Indexing runs as a pipeline: a reader thread splits the input into <DOC> blocks, a pool of 
+ * worker threads parses, tokenizes and stems each document, and a single ordered stage 
+ * appends postings in docID order, so the output does not depend on the number of worker threads. 
+ * Postings are held in memory up to a budget (--memory-mb) and flushed to sorted runs on disk, 
+ * which are merged into the final postings file at the end.
+ * 
+ * The index directory holds one or more immutable segments listed in segments.txt. A new index 
+ * is written as a single segment. With --append, the documents of the data file are indexed into 
+ * a new segment of an existing index, numbered after the documents already indexed, and small 
+ * segments are then merged in the background by SegmentMerger (--merge-factor, 0 to turn it off).
+ * With --positions, the word positions of every posting are stored as well, in a separate 
+ * positions file, for phrase and proximity queries. Each segment also gets a binary manifest of 
+ * its collection statistics and a dense binary array of its doc lengths (see CollectionStats).
+ * With --impacts, the BM25 score of every posting for --k1 and --b (1.2 and 0.75 by default) is
+ * also quantized into an impact-ordered file for score-at-a-time ranking (see ImpactIndex).
+ * 
  * NOTE: first argument is for data directory, second is for path to store the metadata,
  * third argument specifies whether to stem or not (0 for no stemming or 1 for stemming)
  * 
@@ -21,29 +37,36 @@
  * javac IndexEngine.java
  * java IndexEngine.java data\latimes.gz latimes_index 0
  * java IndexEngine.java data\latimes.gz latimes_index 1
+ * java IndexEngine.java data\latimes.gz latimes_index 1 --threads 8
+ * java IndexEngine.java data\latimes.gz latimes_index 1 --memory-mb 256
+ * java IndexEngine.java data\latimes.gz latimes_index 1 --docstore-block-kb 64
+ * java IndexEngine.java data\latimes.gz latimes_index 1 --positions
+ * java IndexEngine.java data\new-articles.gz latimes_index 1 --append
+ * java IndexEngine.java data\new-articles.gz latimes_index 1 --append --merge-factor 10
+ * java IndexEngine.java data\latimes.gz latimes_index 1 --impacts
+ * java IndexEngine.java data\latimes.gz latimes_index 1 --impacts --k1 0.9 --b 0.4
  * 
  */
 
  import java.io.Reader;
  import java.io.BufferedReader;
- import java.io.BufferedWriter;
  import java.io.InputStreamReader;
- import java.io.ObjectOutputStream;
- import java.io.OutputStreamWriter;
+ import java.io.DataOutputStream;
  import java.io.FileInputStream;
  import java.io.InputStream;
- import java.util.ArrayList;
- import java.util.HashMap;
- import java.util.List;
- import java.util.regex.Matcher;
- import java.util.regex.Pattern;
+ import java.util.concurrent.ArrayBlockingQueue;
+ import java.util.concurrent.BlockingQueue;
+ import java.util.concurrent.CompletableFuture;
+ import java.util.concurrent.ExecutionException;
+ import java.util.concurrent.ExecutorService;
+ import java.util.concurrent.Executors;
+ import java.util.concurrent.Future;
  import java.util.zip.GZIPInputStream;
- import java.util.zip.GZIPOutputStream;
  import java.io.File;
  import java.io.IOException;
  import java.io.FileNotFoundException;
- import java.io.FileOutputStream;
  import java.io.FileWriter;
+ import java.nio.charset.StandardCharsets;
  import java.nio.file.FileAlreadyExistsException;
  import java.time.LocalDate;
  import java.time.format.DateTimeFormatter;
@@ -79,245 +102,317 @@ public class IndexEngine {
         return formattedDate;
     }
 
-    // Generates a file path based on the document number, year, month, and day
-    private static File getDocFilePathFromDocno(String docno,
-                                                String year,
-                                                String month,
-                                                String day,
-                                                String metaDataStorePathRoot) throws IOException {
-        String datePath = metaDataStorePathRoot + "/" + year + "/" + month + "/" + day;
-        new File(datePath).mkdirs();
-        File docFile = new File(datePath + "/" + docno + ".gzip");
-
-        return docFile;
-    }
-
-    // Checks if a character is alphanumeric
-    private static boolean isAlphanumeric(char c) {
-        return (c >= 'a' && c <= 'z') || (c >= '0' && c <= '9');
-    }
+    // A raw <DOC> block handed from the reader thread to the parsing workers
+    private static class RawDoc {
+        final int docID;
+        final String docno;
+        final String content;
 
-    // Tokenizes text and applies stemming if specified
-    private static List<String> tokenize(String text, String stem) {
-        List<String> tokens = new ArrayList<String>();
-        text = text.toLowerCase();
-        int start = 0;
-        int i = 0;
-
-        while (i < text.length()) {
-            char c = text.charAt(i);
-
-            if (!isAlphanumeric(c)) {
-                if (start != i) {
-                    String token = text.substring(start, i);
-                    if (stem.equals("1")) {
-                        // Apply stemming using PorterStemmer
-                        token = PorterStemmer.stem(token);
-                    }
-                    tokens.add(token);
-                }
-                start = i + 1;
-            }
-            i++;
+        RawDoc(int docID, String docno, String content) {
+            this.docID = docID;
+            this.docno = docno;
+            this.content = content;
         }
+    }
 
-        if (start != i) {
-            String token = text.substring(start, i);
-            if (stem.equals("1")) {
-                // Apply stemming using PorterStemmer
-                token = PorterStemmer.stem(token);
-            }
-            tokens.add(token);
+    // A parsed document handed from the parsing workers to the ordered postings stage
+    private static class ParsedDoc {
+        final int docID;
+        final String docno;
+        final String[] terms;   // distinct terms, in order of first occurrence
+        final int[] counts;     // count of each distinct term
+        final int length;       // number of tokens in the document
+        final byte[] stored;    // metadata and raw document for the docstore
+        final int[] positions;  // positions of terms[0], then of terms[1], ..., or null without positions
+
+        ParsedDoc(int docID, String docno, String[] terms, int[] counts, int length, byte[] stored, int[] positions) {
+            this.docID = docID;
+            this.docno = docno;
+            this.terms = terms;
+            this.counts = counts;
+            this.length = length;
+            this.stored = stored;
+            this.positions = positions;
         }
-
-        return tokens;
     }
 
-    // Converts tokens to term IDs using lexicon
-    private static List<Integer> tokensToIDs(List<String> tokens, HashMap<String, Integer> lexiconTermToID, HashMap<Integer, String> lexiconIDToTerm) {
-        List<Integer> tokenIDs = new ArrayList<Integer>();
+    // Maximum number of documents that are read but not yet added to the postings
+    private static final int PIPELINE_CAPACITY = 1024;
+
+    // Vocabulary size after which a worker starts its term vocabulary over, bounding its memory
+    private static final int MAX_WORKER_VOCABULARY = 1 << 20;
+
+    // Buffers owned by one worker thread and reused for every document it parses
+    private static class WorkerState {
+        final DocumentParser parser = new DocumentParser();
+        final Tokenizer tokenizer = new Tokenizer();
+        final StringIntMap surfaceForms = new StringIntMap();        // token as it appears -> worker-local surface ID
+        final IntArrayList surfaceToTerm = new IntArrayList(1024);   // worker-local surface ID -> worker-local term ID
+        final StringIntMap vocabulary = new StringIntMap();          // term (stemmed if stemming) -> worker-local term ID
+        final IntIntCounter counter = new IntIntCounter();           // worker-local term ID -> count
+        int numTokens = 0;
+
+        // Word positions of the current document, only filled when positions are stored
+        final IntArrayList tokenTerms = new IntArrayList(1024);      // worker-local term ID of each token
+        final IntArrayList tokenPositions = new IntArrayList(1024);  // position of each token
+        final IntArrayList termSlots = new IntArrayList(1024);       // worker-local term ID -> index in the document's terms
+        int position = 0;
+    }
 
-        for (String token : tokens) {
-            if (lexiconTermToID.containsKey(token)) {
-                tokenIDs.add(lexiconTermToID.get(token));
-            } else {
-                int termID = lexiconTermToID.size();
-                lexiconTermToID.put(token, termID);
-                lexiconIDToTerm.put(termID, token);
-                tokenIDs.add(termID);
+    private static final ThreadLocal<WorkerState> workerStates = ThreadLocal.withInitial(WorkerState::new);
+
+    // Tokenizes text and counts its terms in the worker's counter. Each distinct token is looked
+    // up straight from the tokenizer's buffer, and only the first time a worker sees a token is
+    // a String created for it and the token stemmed, if stemming is on.
+    private static void countTokens(CharSequence text, String stem, boolean storePositions, WorkerState state) {
+        Tokenizer tokenizer = state.tokenizer;
+        tokenizer.reset(text);
+        while (tokenizer.next()) {
+            int surfaceID = state.surfaceForms.getOrAdd(tokenizer.buffer(), 0, tokenizer.length());
+            if (surfaceID == state.surfaceToTerm.size()) {
+                String term = state.surfaceForms.key(surfaceID);
+                if (stem.equals("1")) {
+                    // Apply Porter stemming, the shared stem cache remembers stems across workers
+                    term = StemCache.shared().stem(term);
+                }
+                state.surfaceToTerm.add(state.vocabulary.getOrAdd(term));
+            }
+            int termID = state.surfaceToTerm.get(surfaceID);
+            state.counter.increment(termID);
+            state.numTokens++;
+            if (storePositions) {
+                state.tokenTerms.add(termID);
+                state.tokenPositions.add(state.position);
             }
+            state.position++;
         }
-
-        return tokenIDs;
     }
 
-    // Counts word occurrences and saves document length
-    private static HashMap<Integer, Integer> countWords(List<Integer> tokenIDs, FileWriter writerDocLength) throws IOException {
-        HashMap<Integer, Integer> wordCounts = new HashMap<Integer, Integer>();
-        int tokenCount = 0;
+    // Builds the parsed document from the worker's counter, keeping terms in the order they
+    // first appear in the document, and groups the token positions by term
+    private static ParsedDoc countWords(RawDoc doc, WorkerState state, byte[] stored, boolean storePositions) {
+        StringIntMap vocabulary = state.vocabulary;
+        IntIntCounter counter = state.counter;
+
+        String[] terms = new String[counter.size()];
+        int[] counts = new int[counter.size()];
+        for (int i = 0; i < terms.length; i++) {
+            terms[i] = vocabulary.key(counter.keyAt(i));
+            counts[i] = counter.countAt(i);
+        }
 
-        for (int i = 0; i < tokenIDs.size(); i++) {
-            tokenCount++;
-            int termID = tokenIDs.get(i);
-            if (wordCounts.containsKey(termID)) {
-                wordCounts.put(termID, wordCounts.get(termID) + 1);
-            } else {
-                wordCounts.put(termID, 1);
+        int[] positions = null;
+        if (storePositions) {
+            // next[i] is where the next position of terms[i] goes
+            int[] next = new int[terms.length];
+            for (int i = 0, start = 0; i < terms.length; i++) {
+                next[i] = start;
+                start += counts[i];
+                int termID = counter.keyAt(i);
+                while (state.termSlots.size() <= termID) {
+                    state.termSlots.add(0);
+                }
+                state.termSlots.set(termID, i);
+            }
+            positions = new int[state.numTokens];
+            for (int j = 0; j < state.tokenTerms.size(); j++) {
+                int slot = state.termSlots.get(state.tokenTerms.get(j));
+                positions[next[slot]++] = state.tokenPositions.get(j);
             }
         }
-
-        writerDocLength.append(tokenCount + "\n");
-        return wordCounts;
+        return new ParsedDoc(doc.docID, doc.docno, terms, counts, state.numTokens, stored, positions);
     }
 
-    // Updates inverted index with document information
-    private static void addToPostings(HashMap<Integer, Integer> wordCounts,
-                                      Integer docID,
-                                      HashMap<Integer, List<Integer>> invIndex) {
-        for (Integer termID : wordCounts.keySet()) {
-            int count = wordCounts.get(termID);
-            List<Integer> postings = invIndex.getOrDefault(termID, new ArrayList<Integer>());
-            postings.add(docID);
-            postings.add(count);
-            invIndex.put(termID, postings);
-        }
-    }
+    // Parses one document on a worker thread: builds its stored form and counts its tokens
+    private static ParsedDoc parseDoc(RawDoc doc, String stem, int docBase, boolean storePositions) throws IOException {
 
-    // Extracts text between specified tags using regular expressions
-    private static String extractText(String input, Pattern pattern) {
-        Matcher matcher = pattern.matcher(input);
-        if (matcher.find()) {
-            return matcher.group(1)
-                    .replace("\n", "")
-                    .replace("<P>", "")
-                    .replace("</P>", "");
-        } else {
-            return "";
+        // Extract date information from docno
+        String[] dateArray = getDate(doc.docno);
+        String date = getWordDate(Integer.parseInt(dateArray[0]), Integer.parseInt(dateArray[1]), Integer.parseInt(dateArray[2]));
+
+        // Extract headline, text and graphic in one pass over the document
+        WorkerState state = workerStates.get();
+        DocumentParser parser = state.parser;
+        parser.parse(doc.content);
+
+        // Create metadata string
+        StringBuilder metadata = new StringBuilder();
+        metadata.append("docno: " + doc.docno + "\n" +
+                "internal id: " + (docBase + doc.docID) + "\n" +
+                "date: " + date + "\n" +
+                "headline: " + parser.headline() + "\n" +
+                "raw document:\n");
+
+        // Stored form of the document that is packed into the docstore
+        byte[] stored = (metadata.toString() + doc.content).getBytes(StandardCharsets.UTF_8);
+
+        // Start the worker's vocabulary over once it is large, between documents
+        if (state.surfaceForms.size() > MAX_WORKER_VOCABULARY) {
+            state.surfaceForms.clear();
+            state.surfaceToTerm.clear();
+            state.vocabulary.clear();
         }
+
+        // Tokenize the fields in order and count words. Positions skip one number between
+        // fields, so a phrase cannot match across the end of a field.
+        state.counter.clear();
+        state.numTokens = 0;
+        state.tokenTerms.clear();
+        state.tokenPositions.clear();
+        state.position = 0;
+        countTokens(parser.headline(), stem, storePositions, state);
+        state.position++;
+        countTokens(parser.text(), stem, storePositions, state);
+        state.position++;
+        countTokens(parser.graphic(), stem, storePositions, state);
+        return countWords(doc, state, stored, storePositions);
     }
 
-    // Indexes a file and updates lexicon, inverted index, and document metadata
-    private static void indexFile(BufferedReader buffered,
-                                  String metaDataStorePathRoot,
-                                  FileWriter writerIndexMap,
-                                  FileWriter writerDocLength,
-                                  String stem) throws IOException {
-
-        // Variables to store document information
-        String docno = "";
-        String date = "";
-        String headline = "";
-        String text = "";
-        String graphic = "";
-
-        // Read the first line and initialize internal ID count
-        String currLine;
-        Integer internalIdCount = 0;
-
-        // Data structures to store lexicon and inverted index
-        HashMap<String, Integer> lexiconTermToID = new HashMap<String, Integer>();
-        HashMap<Integer, String> lexiconIDToTerm = new HashMap<Integer, String>();
-        HashMap<Integer, List<Integer>> invIndex = new HashMap<Integer, List<Integer>>();
+    // Reader stage: splits the gzip'd stream into <DOC> blocks and submits them to the workers in order
+    private static void readDocs(BufferedReader buffered,
+                                 ExecutorService workers,
+                                 BlockingQueue<Future<ParsedDoc>> parsedDocs,
+                                 String stem,
+                                 int docBase,
+                                 boolean storePositions) throws IOException, InterruptedException {
 
         // StringBuilder to accumulate the current document content
         StringBuilder currDoc = new StringBuilder();
+        int docID = 0;
 
-        // Read and process each line in the file
+        // Read the first document header
         currDoc.append(buffered.readLine() + "\n"); // append the first line which is <DOC>
-        currLine = buffered.readLine();
+        String currLine = buffered.readLine();
         currDoc.append(currLine + "\n"); // append the current line to currDoc <DOCNO>
-
-        // Extract docno from line and write to indexMap file
-        docno = getDocno(currLine);
-        writerIndexMap.append(docno + "\n");
-
-        // Extract date information from docno
-        String[] dateArray = getDate(docno);
-        date = getWordDate(Integer.parseInt(dateArray[0]), Integer.parseInt(dateArray[1]), Integer.parseInt(dateArray[2]));
-
-        // Generate file path for the current document
-        File currDocFile = getDocFilePathFromDocno(docno, dateArray[0], dateArray[1], dateArray[2], metaDataStorePathRoot);
-
-        // Define regex patterns for extracting text between tags
-        final Pattern headlinePattern = Pattern.compile("<HEADLINE>(.+?)</HEADLINE>", Pattern.DOTALL);
-        final Pattern textPattern = Pattern.compile("<TEXT>(.+?)</TEXT>", Pattern.DOTALL);
-        final Pattern graphicPattern = Pattern.compile("<GRAPHIC>(.+?)</GRAPHIC>", Pattern.DOTALL);
+        String docno = getDocno(currLine);
 
         // Process each line until the end of the document
         while ((currLine = buffered.readLine()) != null) {
             if (currLine.contains("</DOC>")) {
                 currDoc.append(currLine); // </DOC>
 
-                // Extract text from document using regex patterns
-                headline = extractText(currDoc.toString(), headlinePattern);
-                text = extractText(currDoc.toString(), textPattern);
-                graphic = extractText(currDoc.toString(), graphicPattern);
-
-                // Create metadata string
-                StringBuilder metadata = new StringBuilder();
-                metadata.append("docno: " + docno + "\n" +
-                        "internal id: " + internalIdCount.toString() + "\n" +
-                        "date: " + date + "\n" +
-                        "headline: " + headline + "\n" +
-                        "raw document:\n");
-
-                // Save gzipped compressed currDoc to currDocFile directory based on date (YY/MM/DD)
-                GZIPOutputStream gzip = new GZIPOutputStream(new FileOutputStream(currDocFile));
-                BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(gzip, "UTF-8"));
-                writer.append(metadata.toString());
-                writer.append(currDoc.toString());
-                writer.close();
-
-                // Tokenize, convert to term IDs, count words, and update inverted index
-                List<String> tokens = tokenize(headline + " " + text + " " + graphic, stem);
-                List<Integer> tokenIDs = tokensToIDs(tokens, lexiconTermToID, lexiconIDToTerm);
-                HashMap<Integer, Integer> wordCounts = countWords(tokenIDs, writerDocLength);
-                addToPostings(wordCounts, internalIdCount, invIndex);
-
-                // Reset variables for the next document
-                headline = "";
-                text = "";
-                graphic = "";
+                // Hand the document to a worker, blocks while the pipeline is full
+                RawDoc doc = new RawDoc(docID, docno, currDoc.toString());
+                parsedDocs.put(workers.submit(() -> parseDoc(doc, stem, docBase, storePositions)));
 
                 // Start processing a new document
                 if ((currLine = buffered.readLine()) != null) {
                     currDoc = new StringBuilder(); // reset currDoc
                     currLine = buffered.readLine(); // <DOCNO>
                     docno = getDocno(currLine);
-                    dateArray = getDate(docno);
-                    date = getWordDate(Integer.parseInt(dateArray[0]), Integer.parseInt(dateArray[1]), Integer.parseInt(dateArray[2]));
                     currDoc.append(currLine + "\n"); // append the current line to currDoc
-                    internalIdCount = internalIdCount + 1;
-                    currDocFile = getDocFilePathFromDocno(docno, dateArray[0], dateArray[1], dateArray[2], metaDataStorePathRoot);
-                    writerIndexMap.append(docno + "\n");
+                    docID = docID + 1;
                 }
             } else {
                 currDoc.append(currLine + "\n"); // append current line to doc
             }
         }
+    }
+
+    // Indexes a file into a new segment and writes its lexicon, inverted index, and document metadata
+    private static int indexFile(BufferedReader buffered,
+                                 String metaDataStorePathRoot,
+                                 String segmentName,
+                                 int docBase,
+                                 FileWriter writerIndexMap,
+                                 FileWriter writerDocLength,
+                                 String stem,
+                                 boolean storePositions,
+                                 int numThreads,
+                                 long memoryBudget,
+                                 int docStoreBlockSize) throws IOException {
+
+        // In-memory postings that are flushed to sorted runs on disk when the budget is reached
+        SpimiIndexer spimi = new SpimiIndexer(SegmentList.path(metaDataStorePathRoot, segmentName, "run-"), memoryBudget, storePositions);
+
+        // Packed document store, written in docID order by the ordered stage
+        DocStoreWriter docStore = new DocStoreWriter(SegmentList.path(metaDataStorePathRoot, segmentName, "docstore.bin"),
+                                                     SegmentList.path(metaDataStorePathRoot, segmentName, "docstore-index.bin"),
+                                                     docStoreBlockSize);
+
+        // Dense binary doc lengths, mapped by the query programs
+        DataOutputStream docLengthsOut = CollectionStats.openDocLengths(metaDataStorePathRoot, segmentName);
+
+        // Parsing workers, and a bounded queue of their results in document order. The queue
+        // bounds the documents in flight, so the reader blocks when the later stages fall behind.
+        ExecutorService workers = Executors.newFixedThreadPool(numThreads);
+        BlockingQueue<Future<ParsedDoc>> parsedDocs = new ArrayBlockingQueue<Future<ParsedDoc>>(PIPELINE_CAPACITY);
+
+        // Reader thread, a completed null result marks the end of the input
+        Thread reader = new Thread(() -> {
+            Future<ParsedDoc> end = CompletableFuture.completedFuture(null);
+            try {
+                readDocs(buffered, workers, parsedDocs, stem, docBase, storePositions);
+            } catch (Exception e) {
+                end = CompletableFuture.failedFuture(e);
+            }
+            try {
+                parsedDocs.put(end);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }, "IndexEngine-reader");
+        reader.setDaemon(true);
+        reader.start();
+
+        // Ordered stage: append postings one document at a time in docID order
+        int numDocs = 0;
+        long totalTokens = 0;
+        IntArrayList docLengths = new IntArrayList(1 << 16);
+        try {
+            ParsedDoc doc;
+            while ((doc = parsedDocs.take().get()) != null) {
+                writerIndexMap.append(doc.docno + "\n");
+                writerDocLength.append(doc.length + "\n");
+                docLengthsOut.writeInt(doc.length);
+                docLengths.add(doc.length);
+                totalTokens += doc.length;
+                docStore.addDocument(doc.docID, doc.stored);
+                spimi.addDocument(doc.docID, doc.terms, doc.counts, doc.positions);
+                numDocs++;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Indexing was interrupted", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw new IOException("Indexing failed", e.getCause());
+        } finally {
+            workers.shutdownNow();
+            docStore.close();
+            docLengthsOut.close();
+        }
 
-        // Save lexicon and inverted index to directory
-        FileOutputStream fosLexiconTermToID = new FileOutputStream("latimes_index\\lexiconTermToID.txt");
-        ObjectOutputStream oosLexiconTermToID = new ObjectOutputStream(fosLexiconTermToID);
-        oosLexiconTermToID.writeObject(lexiconTermToID);
-        oosLexiconTermToID.close();
-
-        FileOutputStream fosLexiconIDToTerm = new FileOutputStream("latimes_index\\lexiconIDToTerm.txt");
-        ObjectOutputStream oosLexiconIDToTer = new ObjectOutputStream(fosLexiconIDToTerm);
-        oosLexiconIDToTer.writeObject(lexiconIDToTerm);
-        oosLexiconIDToTer.close();
-
-        FileOutputStream fosInvIndex = new FileOutputStream("latimes_index\\invIndex.txt");
-        ObjectOutputStream oosInvIndex = new ObjectOutputStream(fosInvIndex);
-        oosInvIndex.writeObject(invIndex);
-        oosInvIndex.close();
+        // Binary manifest with the collection statistics of the segment
+        CollectionStats.writeManifest(metaDataStorePathRoot, segmentName, numDocs, totalTokens, stem);
+
+        // Merge the runs into the postings file and term table, term IDs follow sorted term order
+        Lexicon.Writer lexicon = new Lexicon.Writer(SegmentList.path(metaDataStorePathRoot, segmentName, "lexicon.bin"));
+        PostingsWriter postingsWriter = new PostingsWriter(SegmentList.path(metaDataStorePathRoot, segmentName, "postings.bin"),
+                                                           SegmentList.path(metaDataStorePathRoot, segmentName, "termTable.bin"),
+                                                           storePositions ? SegmentList.path(metaDataStorePathRoot, segmentName, "positions.bin") : null,
+                                                           storePositions ? SegmentList.path(metaDataStorePathRoot, segmentName, "positionTable.bin") : null);
+        postingsWriter.storeBounds(SegmentList.path(metaDataStorePathRoot, segmentName, "termBounds.bin"),
+                                   SegmentList.path(metaDataStorePathRoot, segmentName, "blockMax.bin"),
+                                   docLengths.toArray());
+        int numRuns = spimi.merge(postingsWriter, lexicon);
+        postingsWriter.close();
+
+        // Save the sorted, front-coded lexicon to directory
+        lexicon.close();
+        System.out.printf("Merged %d postings runs into %d terms%n", numRuns, lexicon.numTerms());
+
+        return numDocs;
     }
 
     // Main method for indexing documents
     public static void main(String[] args) throws FileNotFoundException, FileAlreadyExistsException, IOException {
 
         // Check if correct number of arguments is provided
-        if (args.length != 3) {
+        Options options = new Options(args);
+        if (options.numPositional() != 3) {
             throw new IllegalArgumentException(
                     "Please include a valid path to the gzip'd data file, " +
                             "a path to store the metadata, and specify third argument as " +
@@ -327,36 +422,92 @@ public class IndexEngine {
         }
 
         // Check if data path exists
-        String dataPath = args[0];
+        String dataPath = options.positional(0);
         File data = new File(dataPath);
         if (!data.exists()) {
             throw new FileNotFoundException(data + " path does not exist");
         }
 
-        // Check if meta data path already exists
-        String metaDataStorePathRoot = args[1];
-        if (new File(metaDataStorePathRoot).exists()) {
-            throw new FileAlreadyExistsException(metaDataStorePathRoot + " path already exists");
+        // A new index must not exist yet, and an index to append to must already exist
+        String metaDataStorePathRoot = options.positional(1);
+        boolean append = options.has("append");
+        if (append) {
+            if (!new File(SegmentList.listPath(metaDataStorePathRoot)).exists()) {
+                throw new FileNotFoundException(metaDataStorePathRoot + " is not an existing index to append to");
+            }
+        } else if (new File(metaDataStorePathRoot).exists()) {
+            throw new FileAlreadyExistsException(metaDataStorePathRoot + " path already exists, use --append to add documents to it");
         }
 
         // Check if stem argument is valid
-        String stem = args[2];
+        String stem = options.positional(2);
         if ((!stem.equals("0") && !stem.equals("1"))) {
             throw new IllegalArgumentException("Third argument must be either: 0 (no index stemming) or 1 (with index stemming)");
         }
 
-        // Create directory for the meta data store
-        new File(metaDataStorePathRoot).mkdirs();
+        // Number of parsing workers, defaults to one per core
+        int numThreads = options.getInt("threads", Runtime.getRuntime().availableProcessors());
+        if (numThreads < 1) {
+            throw new IllegalArgumentException("--threads must be at least 1");
+        }
+
+        // Heap budget for in-memory postings before a run is flushed, defaults to a quarter of the max heap
+        long defaultBudgetMB = Math.max(16, Runtime.getRuntime().maxMemory() / (4L << 20));
+        long memoryBudget = options.getInt("memory-mb", (int) defaultBudgetMB) * (1L << 20);
+        if (memoryBudget <= 0) {
+            throw new IllegalArgumentException("--memory-mb must be at least 1");
+        }
+
+        // Uncompressed size of a docstore block, larger blocks compress better but cost more per fetch
+        int docStoreBlockSize = options.getInt("docstore-block-kb", 64) * 1024;
+        if (docStoreBlockSize <= 0) {
+            throw new IllegalArgumentException("--docstore-block-kb must be at least 1");
+        }
+
+        // Store word positions for phrase and proximity queries
+        boolean storePositions = options.has("positions");
+
+        // Build the quantized BM25 impacts of the whole index for score-at-a-time ranking
+        boolean buildImpacts = options.has("impacts");
+        double impactK1 = options.getDouble("k1", 1.2);
+        double impactB = options.getDouble("b", 0.75);
+
+        // Number of same-level segments merged together after an append, 0 turns merging off
+        int mergeFactor = options.getInt("merge-factor", SegmentMerger.DEFAULT_MERGE_FACTOR);
+        if (mergeFactor < 0 || mergeFactor == 1) {
+            throw new IllegalArgumentException("--merge-factor must be 0 (no merging) or at least 2");
+        }
+
+        // Read the existing segments or create directory for the meta data store
+        SegmentList segments;
+        if (append) {
+            segments = SegmentList.read(metaDataStorePathRoot);
+            if (!segments.stem().equals(stem)) {
+                throw new IllegalArgumentException("The index was built with stem " + segments.stem() +
+                                                   ", appended documents must use the same setting");
+            }
+            if (segments.size() > 0 && segments.hasPositions(0) != storePositions) {
+                throw new IllegalArgumentException("The index was built " + (storePositions ? "without" : "with") +
+                                                   " --positions, appended documents must use the same setting");
+            }
+        } else {
+            new File(metaDataStorePathRoot).mkdirs();
+            segments = new SegmentList(metaDataStorePathRoot, stem);
+        }
+
+        // The new segment's documents are numbered after the documents already indexed
+        String segmentName = segments.nextName();
+        int docBase = segments.totalDocs();
 
         // Create file to store internal and docno
-        File indexMap = new File("latimes_index\\indexMap.txt");
+        File indexMap = new File(SegmentList.path(metaDataStorePathRoot, segmentName, "indexMap.txt"));
         if (!indexMap.createNewFile()) {
             throw new FileAlreadyExistsException("indexMap.txt path already exists");
         }
         FileWriter writerIndexMap = new FileWriter(indexMap);
 
         // Create file to store document lengths
-        File docLength = new File("latimes_index\\doc-lengths.txt");
+        File docLength = new File(SegmentList.path(metaDataStorePathRoot, segmentName, "doc-lengths.txt"));
         if (!docLength.createNewFile()) {
             writerIndexMap.close();
             throw new FileAlreadyExistsException("doc-lengths.txt path already exists");
@@ -370,11 +521,50 @@ public class IndexEngine {
         BufferedReader buffered = new BufferedReader(decoder);
 
         // Index the file
-        indexFile(buffered, metaDataStorePathRoot, writerIndexMap, writerDocLength, stem);
+        long startTime = System.currentTimeMillis();
+        int numDocs = indexFile(buffered, metaDataStorePathRoot, segmentName, docBase, writerIndexMap, writerDocLength, stem, storePositions, numThreads, memoryBudget, docStoreBlockSize);
+        float totalTime = (System.currentTimeMillis() - startTime) / 1000f;
+        System.out.printf("Indexed %d documents in %.2f seconds (%.0f docs/sec) with %d worker threads%n",
+                numDocs, totalTime, numDocs / Math.max(totalTime, 0.001f), numThreads);
 
         // Close the file writers and buffered reader
         buffered.close();
         writerIndexMap.close();
         writerDocLength.close();
+
+        // Make the new segment searchable by adding it to segments.txt
+        segments.add(segmentName, numDocs);
+        segments.write();
+        System.out.printf("Added segment %s, the index has %d documents in %d segments%n",
+                segmentName, segments.totalDocs(), segments.size());
+
+        // The impacts use the statistics of every segment, so they are built for the whole index
+        // again; merges keep every docID, so they stay valid while segments are merged
+        if (buildImpacts) {
+            long impactsStart = System.currentTimeMillis();
+            SegmentedIndex index = SegmentedIndex.open(metaDataStorePathRoot);
+            long numPostings = ImpactIndex.build(index, metaDataStorePathRoot, impactK1, impactB);
+            index.close();
+            System.out.printf("Wrote the impacts of %d postings in %.2f seconds%n",
+                    numPostings, (System.currentTimeMillis() - impactsStart) / 1000f);
+        } else if (append && ImpactIndex.exists(metaDataStorePathRoot)) {
+            System.out.println("The impacts no longer match the index, build them again with --impacts or ImpactIndex");
+        }
+
+        // Merge small segments in the background, queries already see the new segment
+        if (append && mergeFactor > 0) {
+            Thread merger = new Thread(() -> {
+                try {
+                    int numMerges = SegmentMerger.maybeMerge(metaDataStorePathRoot, mergeFactor);
+                    if (numMerges > 0) {
+                        System.out.printf("Ran %d segment merges, %d segments remain%n",
+                                numMerges, SegmentList.read(metaDataStorePathRoot).size());
+                    }
+                } catch (IOException e) {
+                    System.err.println("Segment merge failed, the segments in segments.txt are still searchable: " + e);
+                }
+            }, "IndexEngine-merger");
+            merger.start();
+        }
     }
 }
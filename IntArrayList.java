@@ -0,0 +1,70 @@
+/*
+ * Date: October 16, 2026
+ * Name: Matthew Chan
+ *
+ * Program Description:
+ * The IntArrayList Java class is a growable array of primitive ints. It replaces
+ * ArrayList<Integer> where ints are appended in bulk, such as the (docID, count) pairs
+ * of a postings list being built, so no Integer objects are allocated per value.
+ *
+ */
+
+import java.util.Arrays;
+
+public class IntArrayList {
+
+    private int[] values;
+    private int size = 0;
+
+    public IntArrayList() {
+        this(8);
+    }
+
+    public IntArrayList(int initialCapacity) {
+        values = new int[Math.max(1, initialCapacity)];
+    }
+
+    // Appends a value, growing the array by half when it is full
+    public void add(int value) {
+        if (size == values.length) {
+            values = Arrays.copyOf(values, values.length + (values.length >> 1) + 1);
+        }
+        values[size++] = value;
+    }
+
+    // Returns the value at index
+    public int get(int index) {
+        if (index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for size " + size);
+        }
+        return values[index];
+    }
+
+    // Replaces the value at index
+    public void set(int index, int value) {
+        if (index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for size " + size);
+        }
+        values[index] = value;
+    }
+
+    // Returns the number of values
+    public int size() {
+        return size;
+    }
+
+    // Returns the number of ints the backing array can hold
+    public int capacity() {
+        return values.length;
+    }
+
+    // Removes all values but keeps the backing array for reuse
+    public void clear() {
+        size = 0;
+    }
+
+    // Returns a copy of the values
+    public int[] toArray() {
+        return Arrays.copyOf(values, size);
+    }
+}
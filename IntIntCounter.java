@@ -0,0 +1,133 @@
+/*
+ * Date: October 16, 2026
+ * Name: Matthew Chan
+ *
+ * Program Description:
+ * The IntIntCounter Java class counts occurrences of non-negative int keys in an
+ * open-addressing hash table with linear probing. It is meant to be reused: clear() only
+ * resets the slots that were used, so counting the terms of one document after another
+ * does not allocate. Keys are remembered in the order they were first seen, which lets
+ * callers walk the counts in first-occurrence order.
+ *
+ */
+
+import java.util.Arrays;
+
+public class IntIntCounter {
+
+    private static final int EMPTY = -1;
+
+    private int[] keys;
+    private int[] counts;
+    private int mask;
+    private final IntArrayList slotsInOrder = new IntArrayList(); // used slots in first-occurrence order
+
+    public IntIntCounter() {
+        this(64);
+    }
+
+    public IntIntCounter(int expectedKeys) {
+        int capacity = Integer.highestOneBit(Math.max(4, expectedKeys * 2) - 1) << 1;
+        keys = new int[capacity];
+        counts = new int[capacity];
+        Arrays.fill(keys, EMPTY);
+        mask = capacity - 1;
+    }
+
+    // Mixes the bits of a key so that consecutive keys spread over the table
+    private static int hash(int key) {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    // Adds one to the count of key
+    public void increment(int key) {
+        add(key, 1);
+    }
+
+    // Adds delta to the count of key
+    public void add(int key, int delta) {
+        if (key < 0) {
+            throw new IllegalArgumentException("Keys must be non-negative: " + key);
+        }
+        int slot = hash(key) & mask;
+        while (true) {
+            int k = keys[slot];
+            if (k == key) {
+                counts[slot] += delta;
+                return;
+            }
+            if (k == EMPTY) {
+                keys[slot] = key;
+                counts[slot] = delta;
+                slotsInOrder.add(slot);
+                if (slotsInOrder.size() * 2 > keys.length) {
+                    grow();
+                }
+                return;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    // Returns the count of key, or 0 if it was never added
+    public int get(int key) {
+        int slot = hash(key) & mask;
+        while (true) {
+            int k = keys[slot];
+            if (k == key) {
+                return counts[slot];
+            }
+            if (k == EMPTY) {
+                return 0;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    // Returns the number of distinct keys
+    public int size() {
+        return slotsInOrder.size();
+    }
+
+    // Returns the i-th distinct key in first-occurrence order
+    public int keyAt(int i) {
+        return keys[slotsInOrder.get(i)];
+    }
+
+    // Returns the count of the i-th distinct key in first-occurrence order
+    public int countAt(int i) {
+        return counts[slotsInOrder.get(i)];
+    }
+
+    // Removes all keys, touching only the slots that were used
+    public void clear() {
+        for (int i = 0; i < slotsInOrder.size(); i++) {
+            keys[slotsInOrder.get(i)] = EMPTY;
+        }
+        slotsInOrder.clear();
+    }
+
+    // Doubles the table and re-inserts the keys in first-occurrence order
+    private void grow() {
+        int[] oldKeys = keys;
+        int[] oldCounts = counts;
+        int[] order = slotsInOrder.toArray();
+
+        keys = new int[oldKeys.length * 2];
+        counts = new int[oldKeys.length * 2];
+        Arrays.fill(keys, EMPTY);
+        mask = keys.length - 1;
+        slotsInOrder.clear();
+
+        for (int oldSlot : order) {
+            int slot = hash(oldKeys[oldSlot]) & mask;
+            while (keys[slot] != EMPTY) {
+                slot = (slot + 1) & mask;
+            }
+            keys[slot] = oldKeys[oldSlot];
+            counts[slot] = oldCounts[oldSlot];
+            slotsInOrder.add(slot);
+        }
+    }
+}
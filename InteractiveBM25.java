@@ -14,245 +14,97 @@
  * includes file reading, data manipulation, and user interface components to facilitate a 
  * dynamic and informative search experience.
  * 
+ * A query can hold phrases in double quotes. "new york" only matches the words next to each
+ * other in that order, and "tax cuts"~5 matches the words in any order within 5 positions
+ * more than the phrase's length. A phrase is scored like one more query term: its document
+ * frequency is the number of documents that contain it and its term frequency is the number
+ * of times it occurs. Phrases need an index built with --positions; otherwise their words are
+ * searched as ordinary query terms. Query terms and phrases are stemmed when the index was
+ * built with stemming, as recorded in its manifest.
+ * 
+ * A word with a * or ? in it, such as polit* or wom?n, is expanded to the terms of the index
+ * that match it, at most --max-expansions of them (64 by default), the ones the most documents
+ * contain. The matching terms are scored together like one more query term (see QueryRanker).
+ * 
  * Command Line Argument Inputs:
  * javac InteractiveBM25.java
  * java InteractiveBM25.java latimes_index
+ * java InteractiveBM25.java latimes_index --warmup 1000
+ * java InteractiveBM25.java latimes_index --algorithm wand
+ * java InteractiveBM25.java latimes_index --result-cache-kb 1024 --snippet-cache-kb 4096
+ * java InteractiveBM25.java latimes_index --k1 0.9 --b 0.4
+ * java InteractiveBM25.java latimes_index --boolean
+ * java InteractiveBM25.java latimes_index --max-expansions 128
+ * java InteractiveBM25.java latimes_index --metrics-out metrics.json
+ * 
+ * The query is parsed by ParsedQuery and ranked by QueryRanker, and the headline and snippet
+ * of each result come from DocumentSummary, which SearchServer uses as well.
+ * 
+ * Repeated queries are answered from two least recently used caches: the ranked lists, keyed by
+ * the query's normalized terms and phrases, and the rendered headline, date and snippet of a
+ * document, keyed by the docID and the query's words. Each is bounded by an estimate of its
+ * size in KB, and their hits and misses are printed when the program ends. A size of 0 turns
+ * a cache off. The decoded postings of hot terms are cached as well, up to --postings-cache-mb.
+ * 
+ * With --algorithm maxscore, wand or bmw, the query is ranked document-at-a-time and only the top 
+ * 10 documents are kept, skipping documents that cannot reach them (see DaatSearcher), so 
+ * only the ranks that are shown can be opened.
+ * 
+ * With --boolean, a query may use AND, OR, NOT, +term, -term and parentheses as well (see
+ * BooleanQuery), and only the documents that match it are ranked (see BooleanSearcher).
+ * 
+ * The time of each stage of a query, from parsing it to building the snippets, is recorded in
+ * latency histograms (see QueryMetrics) and summarized when the program ends; --metrics-out
+ * also writes the summary to a JSON file.
  * 
  */
 
 import java.io.BufferedReader;
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.FileNotFoundException;
-import java.io.FileReader;
 import java.io.IOException;
-import java.io.InputStream;
-import java.io.InputStreamReader;
-import java.io.ObjectInputStream;
-import java.io.Reader;
+import java.io.StringReader;
+import java.util.AbstractMap;
 import java.util.ArrayList;
-import java.util.Collections;
-import java.util.Comparator;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Locale;
 import java.util.Map;
 import java.util.Scanner;
 import java.util.Map.Entry;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
-import java.util.zip.GZIPInputStream;
-import java.text.BreakIterator;
 
-@SuppressWarnings("unchecked")
 public class InteractiveBM25 {
 
-    // Check if a character is alphanumeric
-    private static boolean isAlphanumeric(char c) {
-        return (c >= 'a' && c <= 'z') || (c >= '0' && c <= '9');
-    }
-
-    // Tokenize code using pseudocode by Strohman, referenced in Professor Mark Smucker's lecture on Sept. 22, 2023
-    private static List<String> tokenize(String text) {
-        List<String> tokens = new ArrayList<String>();
-
-        text = text.toLowerCase();
-
-        int start = 0;
-        int i = 0;
-
-        while (i < text.length()) {
-            char c = text.charAt(i);
-
-            if (!isAlphanumeric(c)) {
-                if (start != i) {
-                    String token = text.substring(start, i);
-                    tokens.add(token);
-                }
-                start = i + 1;
-            }
-            i++;
-        }
-
-        if (start != i) {
-            String token = text.substring(start, i);
-            tokens.add(token);
-        }
-
-        return tokens;
-    }
-
-    // Read a Gzip file and return a BufferedReader
-    private static BufferedReader readGzip(String path) throws IOException {
-        // Open Gzip file
-        InputStream fileStream = new FileInputStream(path);
-        InputStream gzipStream = new GZIPInputStream(fileStream);
-        Reader decoder = new InputStreamReader(gzipStream);
-        BufferedReader buffered = new BufferedReader(decoder);
-
-        return buffered;
-    }
-
-    // Extract text from a given string using a regex pattern
-    private static String extractText(String input, Pattern pattern) {
-        Matcher matcher = pattern.matcher(input);
-        if (matcher.find()) {
-            return matcher.group(1)
-                    .replaceAll("\n", "")
-                    .replaceAll("<P>", "");
-        } else {
-            return "";
-        }
-    }
-
-    // Calculate a score based on sentence number, sentence, and query tokens
-    private static Integer calculateScore(int sentenceNum, String sentence, List<String> queryTokens) {
-        int l = 0; // First or second sentence
-        int c = 0; // Query term occurrence in sentence
-        int d = 0; // Distinct query term occurrence in sentence
-
-        if (sentenceNum == 1) {
-            l = 2;
-        } else if (sentenceNum == 2) {
-            l = 1;
-        }
-
-        List<String> sentenceTokens = tokenize(sentence);
-        List<String> distinctTerms = new ArrayList<>();
-
-        for (int i = 0; i < sentenceTokens.size(); i++) {
-            String term = sentenceTokens.get(i);
-            if (queryTokens.contains(term)) {
-                c++;
-            }
-            if (!distinctTerms.contains(term) && queryTokens.contains(term)) {
-                distinctTerms.add(term);
-            }
-        }
-
-        d = distinctTerms.size();
-
-        return l + c + d;
-    }
-
     // Display retrieval results for a given rank
-    private static void showRetrieval(ArrayList<Entry<Integer, Double>> accumulatorEntries,
-                                      ArrayList<String> IMList,
+    private static void showRetrieval(List<Entry<Integer, Double>> accumulatorEntries,
                                       int rank,
-                                      String dataPath,
-                                      List<String> tokens) throws IOException {
+                                      SegmentedIndex index,
+                                      List<String> tokens,
+                                      LruCache<String, DocumentSummary> summaryCache,
+                                      QueryMetrics metrics) throws IOException {
 
         Map.Entry<Integer, Double> entry = accumulatorEntries.get(rank - 1);
-        String docno = IMList.get(entry.getKey());
-
-        // Get year, month, day
-        String year = docno.substring(6, 8);
-        String month = docno.substring(2, 4);
-        String day = docno.substring(4, 6);
-
-        String datePath = dataPath + "/" + year + "/" + month + "/" + day + "/" + docno + ".gzip";
-        File docFile = new File(datePath);
-
-        // Use regex to find text between tags
-        final Pattern headlinePattern = Pattern.compile("<HEADLINE>(.+?)</HEADLINE>", Pattern.DOTALL);
-        final Pattern datePattern = Pattern.compile("<DATE>(.+?)</DATE>", Pattern.DOTALL);
-        final Pattern textPattern = Pattern.compile("<TEXT>(.+?)</TEXT>", Pattern.DOTALL);
-        final Pattern graphicPattern = Pattern.compile("<GRAPHIC>(.+?)</GRAPHIC>", Pattern.DOTALL);
-
-        String headline = "";
-        String date = "";
-        String snippet = "";
-
-        // Extract snippet, headline
-        if (docFile.exists()) {
-            // Print raw document contents
-            BufferedReader buffered = readGzip(datePath);
-            StringBuilder currDoc = new StringBuilder();
-            String curr;
-            while ((curr = buffered.readLine()) != null) {
-                currDoc.append(curr);
-            }
-
-            HashMap<String, Integer> scoreAggregator = new HashMap<>();
-
-            headline = extractText(currDoc.toString(), headlinePattern).replace("</P>", "");
-
-            if (headline.length() > 50) {
-                headline = headline.substring(0, 50) + "...";
-            }
-
-            String source = (extractText(currDoc.toString(), textPattern) +
-                    extractText(currDoc.toString(), graphicPattern))
-                    .replaceAll("<[^>]*>", "")
-                    .replaceAll("\\s+", " ");
-
-            // Break text into sentences
-            BreakIterator iterator = BreakIterator.getSentenceInstance(Locale.US);
-            iterator.setText(source);
-            int start = iterator.first();
-            int sentenceNum = 1;
-            // Iterate through each sentence
-            for (int end = iterator.next();
-                 end != BreakIterator.DONE;
-                 start = end, end = iterator.next()) {
-                String sentence = source.substring(start, end);
-                scoreAggregator.put(sentence, calculateScore(sentenceNum, sentence, tokens));
-                if (sentenceNum <= 2) {
-                    sentenceNum++;
-                }
-            }
-
-            // Sort accumulator descending
-            ArrayList<Map.Entry<String, Integer>> scoreAggregatorEntries = new ArrayList<>(scoreAggregator.entrySet());
-            Collections.sort(
-                    scoreAggregatorEntries,
-                    new Comparator<Map.Entry<String, Integer>>() {
-                        public int compare(Map.Entry<String, Integer> a, Map.Entry<String, Integer> b) {
-                            return Integer.compare(b.getValue(), a.getValue());
-                        }
-                    }
-            );
-
-            if (scoreAggregatorEntries.size() == 1) {
-                snippet = scoreAggregatorEntries.get(0).getKey();
-            } else if (scoreAggregatorEntries.size() >= 2) {
-                snippet = scoreAggregatorEntries.get(0).getKey() + scoreAggregatorEntries.get(1).getKey();
-            }
-
-            String[] dateSplit = extractText(currDoc.toString(), datePattern).replaceAll("</P>", "").split(", ");
-            if (dateSplit.length > 2) {
-                date = dateSplit[0] + ", " + dateSplit[1];
-            }
-
-            buffered.close();
-        } else {
-            throw new FileNotFoundException("File not found");
-        }
-
-        if (headline.equals("") && snippet.length() > 0) {
-            if (snippet.length() >= 50) {
-                headline = snippet.substring(0, 50) + "...";
-            } else {
-                headline = snippet.substring(0, snippet.length()) + "...";
-            }
+        String docno = index.docno(entry.getKey());
+
+        // Headline, date and query-biased snippet, rendered once per document and query words
+        String summaryKey = entry.getKey() + ":" + String.join(" ", tokens);
+        DocumentSummary summary = summaryCache.get(summaryKey);
+        if (summary == null) {
+            long start = System.nanoTime();
+            String document = index.getDocument(entry.getKey());
+            start = metrics.lap(QueryMetrics.Stage.DOCSTORE, start);
+            summary = DocumentSummary.of(document, tokens);
+            metrics.lap(QueryMetrics.Stage.SNIPPET, start);
+            summaryCache.put(summaryKey, summary);
         }
 
-        System.out.printf("%d. %s (%s)%n%s (%s)%n", rank, headline, date, snippet, docno);
+        System.out.printf("%d. %s (%s)%n%s (%s)%n", rank, summary.headline(), summary.date(), summary.snippet(), docno);
     }
 
-    // Output the content of a document given its metadata store path root and docno
-    public static void outputDoc(String metaDataStorePathRoot, String docno) throws FileNotFoundException, IOException {
-
-        String year = docno.substring(6, 8);
-        String month = docno.substring(2, 4);
-        String day = docno.substring(4, 6);
-
-        String datePath = metaDataStorePathRoot + "/" + year + "/" + month + "/" + day + "/" + docno + ".gzip";
-        File docFile = new File(datePath);
+    // Output the content of a document given the index and its internal docID
+    public static void outputDoc(SegmentedIndex index, int docid) throws FileNotFoundException, IOException {
 
-        if (docFile.exists()) {
+        if (docid < index.numDocs()) {
             // Print raw document contents
-            BufferedReader buffered = readGzip(datePath);
+            BufferedReader buffered = new BufferedReader(new StringReader(index.getDocument(docid)));
             String currLine;
             while ((currLine = buffered.readLine()) != null) {
                 System.out.println(currLine);
@@ -264,10 +116,11 @@ public class InteractiveBM25 {
         }
     }
 
-    public static void main(String[] args) throws FileNotFoundException, IOException, ClassNotFoundException {
+    public static void main(String[] args) throws FileNotFoundException, IOException {
 
         // Throw an error if 1 argument is not given and give a help message
-        if (args.length != 1) {
+        Options options = new Options(args);
+        if (options.numPositional() != 1) {
             throw new IllegalArgumentException(
                     "Please include a valid path to a gzip'd data file. For example, " +
                             "'java BM25.java latimes_index'"
@@ -275,66 +128,53 @@ public class InteractiveBM25 {
         }
 
         // Throw an error if the data file path does not exist
-        String dataPath = args[0];
+        String dataPath = options.positional(0);
         File dataFile = new File(dataPath);
         if (!dataFile.exists()) {
             throw new FileNotFoundException(dataPath + " path does not exist");
         }
 
-        // Throw an error if the indexMap file path does not exist
-        File IMFile = new File(dataPath + "\\indexMap.txt");
-        if (!IMFile.exists()) {
-            throw new FileNotFoundException("indexMap.txt path does not exist");
-        }
+        // Open every segment of the index, statistics are summed over the segments
+        SegmentedIndex index = SegmentedIndex.open(dataPath);
+        double k1 = options.getDouble("k1", 1.2);
+        double b = options.getDouble("b", 0.75);
 
-        ArrayList<String> IMList = new ArrayList<>();
-        String currLineIM = "";
-        Scanner myReaderIM = new Scanner(IMFile);
-        while (myReaderIM.hasNextLine()) {
-            currLineIM = myReaderIM.nextLine();
-            IMList.add(currLineIM);
-        }
-        myReaderIM.close();
+        // Length normalization K of every document, computed once for all queries
+        double[] lengthNorms = index.lengthNorms(k1, b);
 
-        // Throw an error if the doc-length file path does not exist in dataPath
-        File docLengthsFile = new File(dataPath + "\\doc-lengths.txt");
-        if (!docLengthsFile.exists()) {
-            throw new FileNotFoundException("doc-lengths.txt path does not exist");
-        }
+        // Document-at-a-time evaluation of the top 10 with dynamic pruning, null for exhaustive
+        String algorithmName = options.get("algorithm", "exhaustive");
+        DaatSearcher.Algorithm algorithm = algorithmName.equals("exhaustive") ? null : DaatSearcher.Algorithm.parse(algorithmName);
+        QueryRanker ranker = new QueryRanker(index, k1, b, lengthNorms, algorithm);
+        ranker.setMaxExpansions(options.getInt("max-expansions", QueryRanker.DEFAULT_MAX_EXPANSIONS));
 
-        ArrayList<Integer> docLengthsList = new ArrayList<>();
-        int currLength = 0;
-        Double sum = 0.0;
-        Double N = 0.0;
-        Double avgDocLength = -1.0;
-        Scanner myReader = new Scanner(docLengthsFile);
-        while (myReader.hasNextLine()) {
-            currLength = Integer.parseInt(myReader.nextLine());
-            docLengthsList.add(currLength);
-            sum = sum + currLength;
-            N++;
-        }
-        myReader.close();
-        if (N > 0) {
-            avgDocLength = sum / N;
+        // Queries with Boolean operators, whose matching documents are ranked exhaustively
+        boolean booleanQueries = options.has("boolean");
+        if (booleanQueries && algorithm != null) {
+            throw new IllegalArgumentException("--boolean ranks every matching document and cannot be used with --algorithm " + algorithmName);
         }
+        BooleanSearcher booleanSearcher = booleanQueries ? new BooleanSearcher(index, k1, b, lengthNorms) : null;
 
-        // Reference: https://docs.oracle.com/javase/8/docs/api/java/io/ObjectInputStream.html
-        FileInputStream fisLexiconTermToID = new FileInputStream(dataPath + "\\lexiconTermToID.txt");
-        ObjectInputStream oisLexiconTermToID = new ObjectInputStream(fisLexiconTermToID);
-        HashMap<String, Integer> lexiconTermToID = (HashMap<String, Integer>) oisLexiconTermToID.readObject();
-        oisLexiconTermToID.close();
+        // Latency of each stage of every query
+        QueryMetrics metrics = new QueryMetrics();
+        ranker.setMetrics(metrics);
+        TopDocs top = new TopDocs(10, index);
 
-        BufferedReader bufferedIM = new BufferedReader(new FileReader(new File(dataPath + "\\indexMap.txt")));
-        ArrayList<String> indexMap = new ArrayList<>();
-        while ((currLineIM = bufferedIM.readLine()) != null) {
-            indexMap.add(currLineIM);
-        }
+        // Caches of ranked lists, keyed by the normalized query, and of rendered summaries, keyed
+        // by docID and query words, each bounded by an estimate of the bytes it holds
+        LruCache<String, List<Map.Entry<Integer, Double>>> resultCache = new LruCache<>(
+                options.getInt("result-cache-kb", 1024) * 1024L,
+                (key, results) -> 64L + 2L * key.length() + 64L * results.size());
+        LruCache<String, DocumentSummary> summaryCache = new LruCache<>(
+                options.getInt("snippet-cache-kb", 4096) * 1024L,
+                (key, summary) -> 96L + 2L * (key.length() + summary.headline().length() +
+                                              summary.date().length() + summary.snippet().length()));
+
+        // Optionally pre-touch the pages of each segment's hottest terms
+        index.warmUp(options.getInt("warmup", 0));
 
-        FileInputStream fisInvIndex = new FileInputStream(dataPath + "\\invIndex.txt");
-        ObjectInputStream oisInvIndex = new ObjectInputStream(fisInvIndex);
-        HashMap<Integer, List<Integer>> invIndex = (HashMap<Integer, List<Integer>>) oisInvIndex.readObject();
-        oisInvIndex.close();
+        // Keep the decoded postings of hot terms in memory
+        index.setPostingsCache(options.getInt("postings-cache-mb", 64) * 1048576L);
 
         // Using Scanner for Getting Input from User
         Scanner in = new Scanner(System.in);
@@ -345,76 +185,66 @@ public class InteractiveBM25 {
             System.out.print("Please enter a query here: ");
             String query = in.nextLine();
 
-            long startTime = System.currentTimeMillis();
-
-            int termID = -1;
-            Double b = 0.75;
-            Double k1 = 1.2;
-
-            List<String> tokens = new ArrayList<>();
-            tokens = tokenize(query);
-
-            HashMap<Integer, Double> accumulator = new HashMap<>(); // doc id -> score
+            long startTime = System.nanoTime();
 
-            if (!tokens.isEmpty()) {
-                // Iterate through each term in the query
-                for (int i = 0; i < tokens.size(); i++) {
-                    if (lexiconTermToID.containsKey(tokens.get(i))) {
-                        termID = lexiconTermToID.get(tokens.get(i));
+            ParsedQuery parsedQuery = null;
+            BooleanQuery booleanQuery = null;
+            if (booleanQueries) {
+                // Parse the operators into a query tree
+                try {
+                    booleanQuery = BooleanQuery.parse(query, index.stem(), index.hasPositions());
+                } catch (IllegalArgumentException e) {
+                    System.out.println("Error: " + e.getMessage());
+                    continue main;
+                }
+            } else {
+                // Take the phrases out of the query, the rest of it is ordinary terms
+                parsedQuery = ParsedQuery.parse(query, index.stem(), index.hasPositions());
+                for (String phrase : parsedQuery.phrasesAsTerms()) {
+                    System.out.println("This index does not store positions, searching \"" + phrase + "\" as separate terms");
+                }
+            }
+            long rankStart = metrics.lap(QueryMetrics.Stage.TOKENIZE, startTime);
+            boolean isEmpty = booleanQuery != null ? booleanQuery.isEmpty() : parsedQuery.isEmpty();
+            String cacheKey = booleanQuery != null ? "boolean " + booleanQuery.normalized() : parsedQuery.normalized();
+            List<String> snippetTokens = booleanQuery != null ? booleanQuery.snippetTokens() : parsedQuery.snippetTokens();
+
+            List<Map.Entry<Integer, Double>> accumulatorEntries = new ArrayList<>();
+
+            if (!isEmpty) {
+                // Rank the top 10, ordered by score and then by docno, unless the same query was
+                // ranked recently
+                accumulatorEntries = resultCache.get(cacheKey);
+                if (accumulatorEntries == null) {
+                    if (booleanQuery != null) {
+                        long docsBefore = booleanSearcher.docsMatched();
+                        booleanSearcher.search(booleanQuery, top);
+                        metrics.lap(QueryMetrics.Stage.SCORING, rankStart);
+                        metrics.addDocsTouched(booleanSearcher.docsMatched() - docsBefore);
                     } else {
-                        continue;
+                        ranker.rank(parsedQuery, top);
                     }
-                    List<Integer> postings = invIndex.get(termID); // [doc id, count of term i, doc id, count of term i, ...]
-                    Double scoreBM25 = 0.0;
-                    Double n = (double) postings.size() / 2;
-                    // calculate idf
-                    Double idf = Math.log((N - n + 0.5) / (n + 0.5));
-
-                    // compute BM25
-                    for (int j = 0; j < postings.size(); j=j+2) {
-
-                        int docid = postings.get(j);
-                        Double term_freq = (double) postings.get(j+1);
-                        Double docLength = (double) docLengthsList.get(docid);
-
-                        // calculate length normalization K
-                        Double k = k1 * ((1 - b) + b * docLength / avgDocLength);
-
-                        // calculate tf weight
-                        Double tf = term_freq / (k + term_freq);
-
-                        scoreBM25 = tf * idf;
-
-                        if (!accumulator.containsKey(docid)) {
-                            accumulator.put(docid, scoreBM25);
-                        } else {
-                            accumulator.put(docid, accumulator.get(docid) + scoreBM25);
-                        }
+                    accumulatorEntries = new ArrayList<>();
+                    for (int i = 0; i < top.size(); i++) {
+                        accumulatorEntries.add(new AbstractMap.SimpleEntry<>(top.docID(i), top.score(i)));
                     }
+                    resultCache.put(cacheKey, accumulatorEntries);
                 }
             } else {
                 System.out.println("Error: please input a query");
             }
 
-            // sort accumulator descending
-            ArrayList<Map.Entry<Integer, Double>> accumulatorEntries = new ArrayList<>(accumulator.entrySet());
-            Collections.sort(
-                accumulatorEntries,   
-                new Comparator<Map.Entry<Integer,Double>>() {
-                    public int compare(Map.Entry<Integer,Double> a, Map.Entry<Integer,Double> b) {
-                        return Double.compare(b.getValue(), a.getValue());
-                    }
-                }
-            );
-
+            long rankTime = System.nanoTime() - startTime;
             for (int i = 0; i < accumulatorEntries.size(); i++) {
                 if (i >= 10) {
                     break;
                 }
-                showRetrieval(accumulatorEntries, IMList, i+1, dataPath, tokens);
-                long endTime   = System.currentTimeMillis();
-                float totalTime = endTime - startTime;
-                System.out.printf("Retrieval took %.4f seconds %n%n", totalTime / 1000);
+                showRetrieval(accumulatorEntries, i+1, index, snippetTokens, summaryCache, metrics);
+            }
+            if (!isEmpty) {
+                // The whole query, from parsing it to showing its last snippet
+                long totalTime = metrics.lap(QueryMetrics.Stage.QUERY, startTime) - startTime;
+                System.out.printf("Retrieval took %.4f seconds (%.4f seconds ranking) %n%n", totalTime / 1e9, rankTime / 1e9);
             }
             
             while(true) {
@@ -422,6 +252,15 @@ public class InteractiveBM25 {
                 System.out.print("Enter N for new query, Q for quit, or a numeric rank: ");
                 String response = in.nextLine();
                 if (response.toLowerCase().equals("q")) {
+                    System.out.println("Result cache: " + resultCache.stats());
+                    System.out.println("Snippet cache: " + summaryCache.stats());
+                    if (index.postingsCache() != null) {
+                        System.out.println("Postings cache: " + index.postingsCache().stats());
+                    }
+                    System.out.println(metrics.summary());
+                    if (options.has("metrics-out")) {
+                        metrics.write(options.get("metrics-out", "metrics.json"));
+                    }
                     System.out.println("Ending program. Goodbye.");
                     break main;
                 } else if (response.toLowerCase().equals("n")) {
@@ -430,9 +269,9 @@ public class InteractiveBM25 {
                     int rank = Integer.parseInt(response);
                     if (rank <= accumulatorEntries.size() && rank > 0) {
                         int docid = accumulatorEntries.get(Integer.parseInt(response)-1).getKey();
-                        String docno = indexMap.get(docid);
+                        String docno = index.docno(docid);
                         System.out.println(docno);
-                        outputDoc(dataPath, docno);
+                        outputDoc(index, docid);
                     } else {
                         System.out.println("Inputted rank exceeds the number of documents retrieved");
                     }
@@ -443,5 +282,6 @@ public class InteractiveBM25 {
             }
         }
         in.close();
+        index.close();
     }
 }
\ No newline at end of file
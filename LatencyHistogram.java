@@ -0,0 +1,88 @@
+/*
+ * Date: October 16, 2026
+ * Name: Matthew Chan
+ *
+ * Program Description:
+ * The LatencyHistogram Java class counts latencies in nanoseconds in log-linear buckets, in the
+ * manner of an HDR histogram. Values below 128 have a bucket each, and every larger power of
+ * two range is split into 64 buckets of equal width, so a bucket is never wider than 1/64 of
+ * the values in it and a percentile is reported within 1.6% of the recorded value. The 3776
+ * buckets cover every long value, a histogram takes 30 KB whatever it records, and recording
+ * is a few shifts and one atomic increment, so many threads can record into it at once.
+ *
+ */
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+public class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 7;                   // 128 values below the first shift
+    private static final int HALF_SUB_BUCKETS = 1 << (SUB_BUCKET_BITS - 1);
+    private static final int NUM_BUCKETS = (64 - SUB_BUCKET_BITS + 1) * HALF_SUB_BUCKETS + HALF_SUB_BUCKETS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(NUM_BUCKETS);
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong sum = new AtomicLong();
+    private final AtomicLong max = new AtomicLong();
+
+    // Returns the bucket of a value: the value itself below 128, and above that the top 7 bits
+    // of the value after the shift that leaves 7 bits
+    private static int bucket(long value) {
+        int shift = Math.max(0, 64 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS);
+        return shift * HALF_SUB_BUCKETS + (int) (value >>> shift);
+    }
+
+    // Returns the largest value that falls in a bucket
+    private static long highestValue(int bucket) {
+        if (bucket < 2 * HALF_SUB_BUCKETS) {
+            return bucket;
+        }
+        int shift = bucket / HALF_SUB_BUCKETS - 1;
+        long subBucket = bucket - shift * HALF_SUB_BUCKETS;
+        return ((subBucket + 1) << shift) - 1;
+    }
+
+    // Records one latency in nanoseconds, negative values are recorded as 0
+    public void record(long nanos) {
+        long value = Math.max(nanos, 0);
+        counts.incrementAndGet(bucket(value));
+        count.incrementAndGet();
+        sum.addAndGet(value);
+        max.accumulateAndGet(value, Math::max);
+    }
+
+    // Returns the number of recorded latencies
+    public long count() {
+        return count.get();
+    }
+
+    // Returns the mean latency in nanoseconds, 0 if nothing was recorded
+    public double mean() {
+        long n = count.get();
+        return n == 0 ? 0 : (double) sum.get() / n;
+    }
+
+    // Returns the largest latency in nanoseconds
+    public long max() {
+        return max.get();
+    }
+
+    // Returns the latency in nanoseconds that p percent of the recorded latencies are at or
+    // below, by the nearest rank, as the top of its bucket but never above the largest latency
+    public long percentile(double p) {
+        long n = count.get();
+        if (n == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(p / 100 * n));
+        long seen = 0;
+        for (int bucket = 0; bucket < NUM_BUCKETS; bucket++) {
+            seen += counts.get(bucket);
+            if (seen >= rank) {
+                return Math.min(highestValue(bucket), max.get());
+            }
+        }
+        return max.get();
+    }
+}
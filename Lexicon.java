@@ -0,0 +1,366 @@
+/*
+ * Date: October 16, 2026
+ * Name: Matthew Chan
+ *
+ * Program Description:
+ * The Lexicon Java class writes and reads a segment's lexicon as one sorted, front-coded file,
+ * which replaces the two serialized HashMaps of terms and term IDs. Term IDs follow sorted
+ * term order, so a term's ID is its rank and only the terms are stored. They are cut into
+ * blocks of 16: the first term of a block is stored whole, and every other term as the number
+ * of leading UTF-8 bytes it shares with the term before it and the bytes that follow. Related
+ * terms sort next to each other, so most terms take a few bytes.
+ *
+ * The file is memory mapped, and only the first term and the offset of each block are read
+ * into the heap. term(ID) decodes the ID's block up to the ID, and termID(term) binary
+ * searches the first terms of the blocks, then decodes the one block that can hold the term.
+ * A lookup reads at most 16 entries of the file and lookups can run on many threads at once.
+ *
+ * Terms that share a prefix are next to each other in term order, so the terms that match a
+ * wildcard pattern such as polit* or wom?n are found by finding the first term at or after
+ * the letters before the first wildcard and decoding terms from there until the prefix ends,
+ * in time proportional to the number of terms with that prefix rather than to the lexicon.
+ *
+ * Lexicon file: [magic (int), version (int), number of terms (int), terms per block (int),
+ *                longest term in bytes (int), number of blocks (int)]
+ *               then the byte offset of every block (int), in term order
+ *               then every block, [length (VByte), term (UTF-8)] for its first term and
+ *               [shared prefix length (VByte), suffix length (VByte), suffix (UTF-8)] for the rest
+ *
+ */
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+public class Lexicon {
+
+    // Marks a lexicon file, "LTLX"
+    private static final int MAGIC = 0x4C544C58;
+    private static final int FORMAT_VERSION = 1;
+
+    // Terms per block, a lookup decodes at most this many
+    public static final int BLOCK_SIZE = 16;
+
+    private final ByteBuffer lexicon;
+    private final int numTerms;
+    private final int maxTermLength;
+    private final String[] firstTerms;      // block -> its first term
+    private final int[] blockOffsets;       // block -> byte offset in the file
+
+    private Lexicon(ByteBuffer lexicon, int numTerms, int maxTermLength, String[] firstTerms, int[] blockOffsets) {
+        this.lexicon = lexicon;
+        this.numTerms = numTerms;
+        this.maxTermLength = maxTermLength;
+        this.firstTerms = firstTerms;
+        this.blockOffsets = blockOffsets;
+    }
+
+    // Writes the terms of a lexicon in increasing order, giving each the next term ID
+    public static class Writer {
+        private final String path;
+        private final ByteArrayOutputStream blocks = new ByteArrayOutputStream(1 << 16);
+        private final DataOutputStream out = new DataOutputStream(blocks);
+        private final IntArrayList blockOffsets = new IntArrayList(1024);
+        private byte[] previous = new byte[0];
+        private String previousTerm = null;
+        private int numTerms = 0;
+        private int maxTermLength = 0;
+
+        public Writer(String path) {
+            this.path = path;
+        }
+
+        // Adds the next term, which must sort after the term before it
+        public void add(String term) throws IOException {
+            if (previousTerm != null && previousTerm.compareTo(term) >= 0) {
+                throw new IllegalArgumentException("Lexicon terms must be added in increasing order, '" + term +
+                                                   "' came after '" + previousTerm + "'");
+            }
+            byte[] bytes = term.getBytes(StandardCharsets.UTF_8);
+            if (numTerms % BLOCK_SIZE == 0) {
+                blockOffsets.add(out.size());
+                VByte.write(out, bytes.length);
+                out.write(bytes);
+            } else {
+                int prefix = 0;
+                int limit = Math.min(previous.length, bytes.length);
+                while (prefix < limit && previous[prefix] == bytes[prefix]) {
+                    prefix++;
+                }
+                VByte.write(out, prefix);
+                VByte.write(out, bytes.length - prefix);
+                out.write(bytes, prefix, bytes.length - prefix);
+            }
+            previous = bytes;
+            previousTerm = term;
+            maxTermLength = Math.max(maxTermLength, bytes.length);
+            numTerms++;
+        }
+
+        // Returns the number of terms added
+        public int numTerms() {
+            return numTerms;
+        }
+
+        // Writes the header, the block offsets and the blocks to the file
+        public void close() throws IOException {
+            int numBlocks = blockOffsets.size();
+            int dataStart = 6 * 4 + numBlocks * 4;
+            DataOutputStream file = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(path), 1 << 16));
+            try {
+                file.writeInt(MAGIC);
+                file.writeInt(FORMAT_VERSION);
+                file.writeInt(numTerms);
+                file.writeInt(BLOCK_SIZE);
+                file.writeInt(maxTermLength);
+                file.writeInt(numBlocks);
+                for (int i = 0; i < numBlocks; i++) {
+                    file.writeInt(dataStart + blockOffsets.get(i));
+                }
+                blocks.writeTo(file);
+            } finally {
+                file.close();
+            }
+        }
+    }
+
+    // Opens a lexicon file, reading the first term of every block into the heap
+    public static Lexicon open(String path) throws IOException {
+        ByteBuffer lexicon = PostingsReader.map(path);
+        if (lexicon.getInt() != MAGIC) {
+            throw new IOException(path + " is not a lexicon file");
+        }
+        int version = lexicon.getInt();
+        if (version != FORMAT_VERSION) {
+            throw new IOException(path + " has format version " + version +
+                                  " but version " + FORMAT_VERSION + " is expected, rebuild the index");
+        }
+        int numTerms = lexicon.getInt();
+        int blockSize = lexicon.getInt();
+        if (blockSize != BLOCK_SIZE) {
+            throw new IOException(path + " has blocks of " + blockSize + " terms but " + BLOCK_SIZE + " are expected");
+        }
+        int maxTermLength = lexicon.getInt();
+        int numBlocks = lexicon.getInt();
+        int[] blockOffsets = new int[numBlocks];
+        for (int i = 0; i < numBlocks; i++) {
+            blockOffsets[i] = lexicon.getInt();
+        }
+
+        String[] firstTerms = new String[numBlocks];
+        byte[] bytes = new byte[maxTermLength];
+        ByteBuffer buf = lexicon.duplicate();
+        for (int i = 0; i < numBlocks; i++) {
+            buf.position(blockOffsets[i]);
+            int length = VByte.read(buf);
+            buf.get(bytes, 0, length);
+            firstTerms[i] = new String(bytes, 0, length, StandardCharsets.UTF_8);
+        }
+        return new Lexicon(lexicon, numTerms, maxTermLength, firstTerms, blockOffsets);
+    }
+
+    // Returns the number of terms
+    public int numTerms() {
+        return numTerms;
+    }
+
+    // Returns the term with a term ID
+    public String term(int termID) {
+        if (termID < 0 || termID >= numTerms) {
+            throw new IllegalArgumentException("Term ID " + termID + " is not in the lexicon");
+        }
+        int block = termID / BLOCK_SIZE;
+        if (termID % BLOCK_SIZE == 0) {
+            return firstTerms[block];
+        }
+        ByteBuffer buf = lexicon.duplicate();
+        buf.position(blockOffsets[block]);
+        byte[] bytes = new byte[maxTermLength];
+        int length = VByte.read(buf);
+        buf.get(bytes, 0, length);
+        for (int i = block * BLOCK_SIZE + 1; i <= termID; i++) {
+            length = readNext(buf, bytes);
+        }
+        return new String(bytes, 0, length, StandardCharsets.UTF_8);
+    }
+
+    // Returns the last block whose first term sorts at or before a term, or -1 if there is none
+    private int blockOf(String term) {
+        int low = 0;
+        int high = firstTerms.length - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (firstTerms[mid].compareTo(term) <= 0) {
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return high;
+    }
+
+    // Returns the term ID of a term, or -1 if it is not in the lexicon
+    public int termID(String term) {
+        int block = blockOf(term);
+        if (block < 0) {
+            return -1;
+        }
+        if (firstTerms[block].equals(term)) {
+            return block * BLOCK_SIZE;
+        }
+
+        // Decode the rest of the block, comparing UTF-8 bytes
+        byte[] target = term.getBytes(StandardCharsets.UTF_8);
+        if (target.length > maxTermLength) {
+            return -1;
+        }
+        ByteBuffer buf = lexicon.duplicate();
+        buf.position(blockOffsets[block]);
+        byte[] bytes = new byte[maxTermLength];
+        int length = VByte.read(buf);
+        buf.get(bytes, 0, length);
+        int last = Math.min(numTerms, (block + 1) * BLOCK_SIZE);
+        for (int termID = block * BLOCK_SIZE + 1; termID < last; termID++) {
+            length = readNext(buf, bytes);
+            if (length == target.length && Arrays.equals(bytes, 0, length, target, 0, length)) {
+                return termID;
+            }
+        }
+        return -1;
+    }
+
+    // Returns the ID of the first term that sorts at or after a term, or numTerms() if every
+    // term sorts before it
+    public int ceiling(String term) {
+        int block = blockOf(term);
+        if (block < 0) {
+            return 0;
+        }
+        if (firstTerms[block].equals(term)) {
+            return block * BLOCK_SIZE;
+        }
+        ByteBuffer buf = lexicon.duplicate();
+        buf.position(blockOffsets[block]);
+        byte[] bytes = new byte[maxTermLength];
+        int length = VByte.read(buf);
+        buf.get(bytes, 0, length);
+        int last = Math.min(numTerms, (block + 1) * BLOCK_SIZE);
+        for (int termID = block * BLOCK_SIZE + 1; termID < last; termID++) {
+            length = readNext(buf, bytes);
+            if (new String(bytes, 0, length, StandardCharsets.UTF_8).compareTo(term) >= 0) {
+                return termID;
+            }
+        }
+        return last;
+    }
+
+    // Adds the terms that match a wildcard pattern to output in term order, where * matches any
+    // run of characters and ? matches one character. Only the terms that start with the
+    // pattern's letters before its first wildcard are decoded, from the first of them on, so a
+    // pattern that starts with a letter reads the terms it matches and few others.
+    public void match(String pattern, List<String> output) {
+        int wildcard = 0;
+        while (wildcard < pattern.length() && pattern.charAt(wildcard) != '*' && pattern.charAt(wildcard) != '?') {
+            wildcard++;
+        }
+        if (wildcard == pattern.length()) {
+            if (termID(pattern) >= 0) {
+                output.add(pattern);
+            }
+            return;
+        }
+        String prefix = pattern.substring(0, wildcard);
+        byte[] prefixBytes = prefix.getBytes(StandardCharsets.UTF_8);
+        int start = ceiling(prefix);
+        if (start == numTerms) {
+            return;
+        }
+
+        // Decode the block of the first term up to it, then every term after it in order until
+        // one no longer starts with the prefix
+        int block = start / BLOCK_SIZE;
+        ByteBuffer buf = lexicon.duplicate();
+        byte[] bytes = new byte[maxTermLength];
+        int length = 0;
+        for (int termID = block * BLOCK_SIZE; termID < numTerms; termID++) {
+            if (termID % BLOCK_SIZE == 0) {
+                buf.position(blockOffsets[termID / BLOCK_SIZE]);
+                length = VByte.read(buf);
+                buf.get(bytes, 0, length);
+            } else {
+                length = readNext(buf, bytes);
+            }
+            if (termID < start) {
+                continue;
+            }
+            if (length < prefixBytes.length || !Arrays.equals(bytes, 0, prefixBytes.length, prefixBytes, 0, prefixBytes.length)) {
+                break;
+            }
+            String term = new String(bytes, 0, length, StandardCharsets.UTF_8);
+            if (globMatches(pattern, wildcard, term, wildcard)) {
+                output.add(term);
+            }
+        }
+    }
+
+    // Returns whether text from t on matches pattern from p on, where * matches any run of
+    // characters and ? matches one character, backtracking to the last * on a mismatch
+    static boolean globMatches(String pattern, int p, String text, int t) {
+        int starAt = -1;
+        int starText = 0;
+        while (t < text.length()) {
+            if (p < pattern.length() && pattern.charAt(p) == '*') {
+                starAt = p++;
+                starText = t;
+            } else if (p < pattern.length() && (pattern.charAt(p) == '?' || pattern.charAt(p) == text.charAt(t))) {
+                p++;
+                t++;
+            } else if (starAt >= 0) {
+                p = starAt + 1;
+                t = ++starText;
+            } else {
+                return false;
+            }
+        }
+        while (p < pattern.length() && pattern.charAt(p) == '*') {
+            p++;
+        }
+        return p == pattern.length();
+    }
+
+    // Returns every term in term ID order
+    public String[] terms() {
+        String[] terms = new String[numTerms];
+        ByteBuffer buf = lexicon.duplicate();
+        byte[] bytes = new byte[maxTermLength];
+        for (int termID = 0; termID < numTerms; termID++) {
+            int length;
+            if (termID % BLOCK_SIZE == 0) {
+                buf.position(blockOffsets[termID / BLOCK_SIZE]);
+                length = VByte.read(buf);
+                buf.get(bytes, 0, length);
+                terms[termID] = firstTerms[termID / BLOCK_SIZE];
+            } else {
+                length = readNext(buf, bytes);
+                terms[termID] = new String(bytes, 0, length, StandardCharsets.UTF_8);
+            }
+        }
+        return terms;
+    }
+
+    // Decodes the next front-coded term of a block over the term before it in bytes, and
+    // returns its length
+    private static int readNext(ByteBuffer buf, byte[] bytes) {
+        int prefix = VByte.read(buf);
+        int suffix = VByte.read(buf);
+        buf.get(bytes, prefix, suffix);
+        return prefix + suffix;
+    }
+
+}
@@ -0,0 +1,260 @@
+/*
+ * Date: October 16, 2026
+ * Name: Matthew Chan
+ *
+ * Program Description:
+ * The LexiconBenchmark Java program compares the front-coded Lexicon of each segment of an
+ * index against the two serialized maps the index stored before, a HashMap<String, Integer>
+ * of term IDs and a HashMap<Integer, String> of terms. The maps are rebuilt from the lexicon
+ * and serialized to temporary files, then both forms are loaded several times, reporting the
+ * file size, the load time, the heap they keep (measured after a full garbage collection) and
+ * the time of a term -> term ID and a term ID -> term lookup over every term in random order.
+ *
+ * It then times wildcard patterns made from random terms (prefixes of 2 to 4 letters followed
+ * by *, and the same with a ? after the first letter), finding the matching terms by scanning
+ * every key of the term ID map, which was the only way with the maps, against Lexicon.match,
+ * which only decodes the terms that start with the letters before the first wildcard. Both must
+ * find the same terms.
+ *
+ * Command Line Argument Inputs:
+ * javac LexiconBenchmark.java
+ * java LexiconBenchmark.java latimes-index
+ * java LexiconBenchmark.java latimes-index 5
+ *
+ */
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+
+public class LexiconBenchmark {
+
+    // Receives a value from every round so the JIT cannot remove the work
+    private static volatile long sink;
+
+    // Returns the heap in use after garbage collection has settled
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        long used = Long.MAX_VALUE;
+        for (int i = 0; i < 5; i++) {
+            System.gc();
+            used = Math.min(used, runtime.totalMemory() - runtime.freeMemory());
+        }
+        return used;
+    }
+
+    // Serializes an object to a file
+    private static void writeObject(Object object, File file) throws IOException {
+        ObjectOutputStream oos = new ObjectOutputStream(new FileOutputStream(file));
+        try {
+            oos.writeObject(object);
+        } finally {
+            oos.close();
+        }
+    }
+
+    // Reads a serialized object from a file
+    private static Object readObject(File file) throws IOException, ClassNotFoundException {
+        ObjectInputStream ois = new ObjectInputStream(new FileInputStream(file));
+        try {
+            return ois.readObject();
+        } finally {
+            ois.close();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    public static void main(String[] args) throws IOException, ClassNotFoundException {
+        if (args.length < 1 || args.length > 2) {
+            throw new IllegalArgumentException(
+                    "Please include a valid path to the index directory and optionally the number of rounds. " +
+                    "For example: 'java LexiconBenchmark.java latimes-index 5'");
+        }
+        if (!new File(args[0]).exists()) {
+            throw new FileNotFoundException(args[0] + " path does not exist");
+        }
+        int rounds = args.length == 2 ? Integer.parseInt(args[1]) : 5;
+
+        SegmentList segmentList = SegmentList.read(args[0]);
+        for (int s = 0; s < segmentList.size(); s++) {
+            String lexiconPath = SegmentList.path(args[0], segmentList.name(s), "lexicon.bin");
+            String[] terms = Lexicon.open(lexiconPath).terms();
+
+            // The maps as IndexEngine used to write them
+            HashMap<String, Integer> termToIDMap = new HashMap<String, Integer>();
+            HashMap<Integer, String> idToTermMap = new HashMap<Integer, String>();
+            for (int termID = 0; termID < terms.length; termID++) {
+                termToIDMap.put(terms[termID], termID);
+                idToTermMap.put(termID, terms[termID]);
+            }
+            File termToIDFile = File.createTempFile("lexiconTermToID", ".txt");
+            File idToTermFile = File.createTempFile("lexiconIDToTerm", ".txt");
+            termToIDFile.deleteOnExit();
+            idToTermFile.deleteOnExit();
+            writeObject(termToIDMap, termToIDFile);
+            writeObject(idToTermMap, idToTermFile);
+            termToIDMap = null;
+            idToTermMap = null;
+
+            // Every term ID in random order, and the terms in the same order as new Strings so
+            // that lookups hash and compare them
+            Random random = new Random(42);
+            int[] order = new int[terms.length];
+            for (int i = 0; i < order.length; i++) {
+                order[i] = i;
+            }
+            for (int i = order.length - 1; i > 0; i--) {
+                int j = random.nextInt(i + 1);
+                int swap = order[i];
+                order[i] = order[j];
+                order[j] = swap;
+            }
+            String[] queries = new String[order.length];
+            for (int i = 0; i < order.length; i++) {
+                queries[i] = new String(terms[order[i]].toCharArray());
+            }
+            terms = null;
+
+            long mapsLoadNanos = 0, mapsHeap = 0, mapsToIDNanos = 0, mapsToTermNanos = 0;
+            long lexiconLoadNanos = 0, lexiconHeap = 0, lexiconToIDNanos = 0, lexiconToTermNanos = 0;
+            for (int r = 0; r <= rounds; r++) {
+                // Round 0 warms up both paths and is not counted
+                long heap = usedHeap();
+                long start = System.nanoTime();
+                HashMap<String, Integer> termToID = (HashMap<String, Integer>) readObject(termToIDFile);
+                HashMap<Integer, String> idToTerm = (HashMap<Integer, String>) readObject(idToTermFile);
+                long loadNanos = System.nanoTime() - start;
+                long retained = usedHeap() - heap;
+                start = System.nanoTime();
+                for (String query : queries) {
+                    sink += termToID.get(query);
+                }
+                long toIDNanos = System.nanoTime() - start;
+                start = System.nanoTime();
+                for (int termID : order) {
+                    sink += idToTerm.get(termID).length();
+                }
+                long toTermNanos = System.nanoTime() - start;
+                sink += termToID.size() + idToTerm.size();
+                termToID = null;
+                idToTerm = null;
+                if (r > 0) {
+                    mapsLoadNanos += loadNanos;
+                    mapsHeap += retained;
+                    mapsToIDNanos += toIDNanos;
+                    mapsToTermNanos += toTermNanos;
+                }
+
+                heap = usedHeap();
+                start = System.nanoTime();
+                Lexicon lexicon = Lexicon.open(lexiconPath);
+                loadNanos = System.nanoTime() - start;
+                retained = usedHeap() - heap;
+                start = System.nanoTime();
+                for (String query : queries) {
+                    sink += lexicon.termID(query);
+                }
+                toIDNanos = System.nanoTime() - start;
+                start = System.nanoTime();
+                for (int termID : order) {
+                    sink += lexicon.term(termID).length();
+                }
+                toTermNanos = System.nanoTime() - start;
+                sink += lexicon.numTerms();
+                lexicon = null;
+                if (r > 0) {
+                    lexiconLoadNanos += loadNanos;
+                    lexiconHeap += retained;
+                    lexiconToIDNanos += toIDNanos;
+                    lexiconToTermNanos += toTermNanos;
+                }
+            }
+
+            int numTerms = queries.length;
+            System.out.printf("Segment %s: %d terms%n", segmentList.name(s), numTerms);
+            System.out.printf("serialized maps:     %8.1f MB on disk, %8.1f ms load, %8.1f MB heap, %6.1f ns term->ID, %6.1f ns ID->term%n",
+                    (termToIDFile.length() + idToTermFile.length()) / (double) (1 << 20), mapsLoadNanos / rounds / 1e6,
+                    mapsHeap / (double) rounds / (1 << 20), mapsToIDNanos / (double) rounds / numTerms,
+                    mapsToTermNanos / (double) rounds / numTerms);
+            System.out.printf("front-coded lexicon: %8.1f MB on disk, %8.1f ms load, %8.1f MB heap, %6.1f ns term->ID, %6.1f ns ID->term%n",
+                    new File(lexiconPath).length() / (double) (1 << 20), lexiconLoadNanos / rounds / 1e6,
+                    lexiconHeap / (double) rounds / (1 << 20), lexiconToIDNanos / (double) rounds / numTerms,
+                    lexiconToTermNanos / (double) rounds / numTerms);
+
+            // Wildcard patterns from random terms, with the letters before the first wildcard
+            List<String> patterns = new ArrayList<String>();
+            for (int i = 0; i < 200 && i < queries.length; i++) {
+                String term = queries[i];
+                for (int length = 2; length <= 4 && length < term.length(); length++) {
+                    patterns.add(term.substring(0, length) + "*");
+                    patterns.add(term.charAt(0) + "?" + term.substring(2, length) + "*");
+                }
+            }
+            HashMap<String, Integer> termToID = (HashMap<String, Integer>) readObject(termToIDFile);
+            Lexicon lexicon = Lexicon.open(lexiconPath);
+            List<String> matches = new ArrayList<String>();
+            long scanNanos = 0, matchNanos = 0, numMatches = 0;
+            for (int r = 0; r <= rounds; r++) {
+                long start = System.nanoTime();
+                for (String pattern : patterns) {
+                    matches.clear();
+                    for (String term : termToID.keySet()) {
+                        if (Lexicon.globMatches(pattern, 0, term, 0)) {
+                            matches.add(term);
+                        }
+                    }
+                    sink += matches.size();
+                }
+                long nanos = System.nanoTime() - start;
+                if (r > 0) {
+                    scanNanos += nanos;
+                }
+
+                start = System.nanoTime();
+                for (String pattern : patterns) {
+                    matches.clear();
+                    lexicon.match(pattern, matches);
+                    sink += matches.size();
+                    if (r == 0) {
+                        numMatches += matches.size();
+                    }
+                }
+                nanos = System.nanoTime() - start;
+                if (r > 0) {
+                    matchNanos += nanos;
+                }
+            }
+
+            // Both must find the same terms
+            for (String pattern : patterns) {
+                TreeSet<String> scanned = new TreeSet<String>();
+                for (String term : termToID.keySet()) {
+                    if (Lexicon.globMatches(pattern, 0, term, 0)) {
+                        scanned.add(term);
+                    }
+                }
+                matches.clear();
+                lexicon.match(pattern, matches);
+                if (!new ArrayList<String>(scanned).equals(matches)) {
+                    throw new IllegalStateException("Lexicon.match found " + matches.size() + " terms for " + pattern +
+                                                    " but a scan found " + scanned.size());
+                }
+            }
+            System.out.printf("wildcards, %d patterns matching %.1f terms each:%n", patterns.size(), numMatches / (double) patterns.size());
+            System.out.printf("scan of the term ID map:   %10.1f us/pattern%n", scanNanos / (double) rounds / patterns.size() / 1e3);
+            System.out.printf("Lexicon.match:             %10.1f us/pattern%n", matchNanos / (double) rounds / patterns.size() / 1e3);
+
+            termToIDFile.delete();
+            idToTermFile.delete();
+        }
+    }
+}
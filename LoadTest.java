@@ -0,0 +1,150 @@
+/*
+ * Date: October 16, 2026
+ * Name: Matthew Chan
+ *
+ * Program Description:
+ * The LoadTest Java program measures how SearchServer holds up under load. It reads the
+ * queries of a queries file (a topic ID line followed by a query line, as BM25 reads them)
+ * and sends them to the server's /search endpoint from a number of concurrent clients, each
+ * sending its next request as soon as the previous one is answered. This is repeated at each
+ * level of concurrency, and for each level the program reports the throughput in queries per
+ * second and the 50th, 90th, 99th percentile and largest latencies. A warm-up pass runs first
+ * so the server's JIT compilation is not counted.
+ *
+ * Command Line Argument Inputs:
+ * javac LoadTest.java
+ * java LoadTest.java http://localhost:8080 queries.txt
+ * java LoadTest.java http://localhost:8080 queries.txt --concurrency 1,2,4,8,16,32 --requests 2000 --k 10
+ *
+ */
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.FileReader;
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class LoadTest {
+
+    private final HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+    private final List<URI> requests = new ArrayList<URI>();
+
+    private LoadTest(String serverURL, List<String> queries, int k) {
+        for (String query : queries) {
+            requests.add(URI.create(serverURL + "/search?k=" + k + "&q=" + URLEncoder.encode(query, StandardCharsets.UTF_8)));
+        }
+    }
+
+    // Reads the queries of a queries file, each follows its topic ID line
+    private static List<String> readQueries(File queryFile) throws IOException {
+        List<String> queries = new ArrayList<String>();
+        BufferedReader brQueries = new BufferedReader(new FileReader(queryFile));
+        String currLine;
+        while ((currLine = brQueries.readLine()) != null) {
+            if ((currLine = brQueries.readLine()) != null && !currLine.isBlank()) {
+                queries.add(currLine);
+            }
+        }
+        brQueries.close();
+        return queries;
+    }
+
+    // Sends numRequests requests from concurrency clients, cycling through the queries, and
+    // returns the latency of each request in nanoseconds; failed requests are counted in errors
+    private long[] run(int concurrency, int numRequests, AtomicInteger errors) throws InterruptedException {
+        long[] latencies = new long[numRequests];
+        AtomicInteger next = new AtomicInteger();
+        ExecutorService clients = Executors.newFixedThreadPool(concurrency);
+        for (int c = 0; c < concurrency; c++) {
+            clients.execute(() -> {
+                int i;
+                while ((i = next.getAndIncrement()) < numRequests) {
+                    HttpRequest request = HttpRequest.newBuilder(requests.get(i % requests.size())).GET().build();
+                    long start = System.nanoTime();
+                    try {
+                        HttpResponse<byte[]> response = client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+                        if (response.statusCode() != 200) {
+                            errors.incrementAndGet();
+                        }
+                    } catch (IOException e) {
+                        errors.incrementAndGet();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
+                    latencies[i] = System.nanoTime() - start;
+                }
+            });
+        }
+        clients.shutdown();
+        clients.awaitTermination(1, TimeUnit.DAYS);
+        return latencies;
+    }
+
+    // Returns a percentile of sorted latencies in milliseconds, by the nearest rank
+    private static double percentile(long[] sorted, double p) {
+        int rank = (int) Math.ceil(p / 100.0 * sorted.length);
+        return sorted[Math.max(rank - 1, 0)] / 1e6;
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        Options options = new Options(args);
+        if (options.numPositional() != 2) {
+            throw new IllegalArgumentException("Please include the server's URL and a path to a query txt file. For example, " +
+                                               "'java LoadTest.java http://localhost:8080 queries.txt'");
+        }
+        String serverURL = options.positional(0).replaceAll("/+$", "");
+        File queryFile = new File(options.positional(1));
+        if (!queryFile.exists()) {
+            throw new FileNotFoundException(options.positional(1) + " path does not exist");
+        }
+        List<String> queries = readQueries(queryFile);
+        if (queries.isEmpty()) {
+            throw new IllegalArgumentException("The query file has no queries");
+        }
+
+        int numRequests = options.getInt("requests", 1000);
+        int k = options.getInt("k", 10);
+        int[] levels = Arrays.stream(options.get("concurrency", "1,2,4,8,16").split(","))
+                .mapToInt(level -> Integer.parseInt(level.trim())).toArray();
+        if (numRequests < 1 || Arrays.stream(levels).anyMatch(level -> level < 1)) {
+            throw new IllegalArgumentException("--requests and every --concurrency level must be at least 1");
+        }
+
+        LoadTest loadTest = new LoadTest(serverURL, queries, k);
+
+        // Warm up the server with every query once
+        AtomicInteger warmUpErrors = new AtomicInteger();
+        loadTest.run(levels[0], options.getInt("warmup", queries.size()), warmUpErrors);
+        if (warmUpErrors.get() > 0) {
+            System.out.println(warmUpErrors.get() + " warm-up requests failed, is the server running at " + serverURL + "?");
+        }
+
+        System.out.printf("%11s %9s %7s %10s %9s %9s %9s %9s%n",
+                "concurrency", "requests", "errors", "QPS", "p50 ms", "p90 ms", "p99 ms", "max ms");
+        for (int concurrency : levels) {
+            AtomicInteger errors = new AtomicInteger();
+            long startTime = System.nanoTime();
+            long[] latencies = loadTest.run(concurrency, numRequests, errors);
+            double seconds = (System.nanoTime() - startTime) / 1e9;
+            Arrays.sort(latencies);
+            System.out.printf("%11d %9d %7d %10.1f %9.2f %9.2f %9.2f %9.2f%n",
+                    concurrency, numRequests, errors.get(), numRequests / seconds,
+                    percentile(latencies, 50), percentile(latencies, 90), percentile(latencies, 99),
+                    latencies[latencies.length - 1] / 1e6);
+        }
+    }
+}
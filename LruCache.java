@@ -0,0 +1,103 @@
+/*
+ * Date: October 16, 2026
+ * Name: Matthew Chan
+ *
+ * Program Description:
+ * The LruCache Java class keeps recently used values up to a budget of bytes and evicts the
+ * least recently used entries once the budget is exceeded. The size of each entry is
+ * estimated by a weigher given to the constructor, so ranked lists and rendered snippets can
+ * be sized by what they hold rather than counted. A LinkedHashMap in access order keeps the
+ * entries from least to most recently used. Hits, misses and evictions are counted so the
+ * budget can be sized from real use. The methods are synchronized, so one cache can be shared
+ * by several threads.
+ *
+ */
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.BiFunction;
+
+public class LruCache<K, V> {
+
+    private final LinkedHashMap<K, V> entries = new LinkedHashMap<K, V>(16, 0.75f, true);
+    private final BiFunction<K, V, Long> weigher;   // estimated bytes of an entry
+    private final long maxBytes;
+    private long bytes = 0;
+    private long hits = 0;
+    private long misses = 0;
+    private long evictions = 0;
+
+    // A budget of 0 bytes keeps nothing
+    public LruCache(long maxBytes, BiFunction<K, V, Long> weigher) {
+        if (maxBytes < 0) {
+            throw new IllegalArgumentException("Cache size must not be negative");
+        }
+        this.maxBytes = maxBytes;
+        this.weigher = weigher;
+    }
+
+    // Returns the value of a key and marks it as most recently used, or null on a miss
+    public synchronized V get(K key) {
+        V value = entries.get(key);
+        if (value != null) {
+            hits++;
+        } else {
+            misses++;
+        }
+        return value;
+    }
+
+    // Adds or replaces an entry, then evicts the least recently used entries over the budget. An
+    // entry larger than the whole budget is not kept.
+    public synchronized void put(K key, V value) {
+        long weight = weigher.apply(key, value);
+        V previous = entries.remove(key);
+        if (previous != null) {
+            bytes -= weigher.apply(key, previous);
+        }
+        if (weight > maxBytes) {
+            return;
+        }
+        entries.put(key, value);
+        bytes += weight;
+
+        Iterator<Map.Entry<K, V>> eldest = entries.entrySet().iterator();
+        while (bytes > maxBytes) {
+            Map.Entry<K, V> entry = eldest.next();
+            bytes -= weigher.apply(entry.getKey(), entry.getValue());
+            eldest.remove();
+            evictions++;
+        }
+    }
+
+    public synchronized long hits() {
+        return hits;
+    }
+
+    public synchronized long misses() {
+        return misses;
+    }
+
+    public synchronized long evictions() {
+        return evictions;
+    }
+
+    // Returns the number of entries kept
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    // Returns the estimated bytes of the entries kept
+    public synchronized long bytes() {
+        return bytes;
+    }
+
+    // Returns a one-line summary of the counters
+    public synchronized String stats() {
+        long lookups = hits + misses;
+        return String.format("%d hits, %d misses (%.1f%% hit rate), %d evictions, %d entries in %.1f of %.1f KB",
+                hits, misses, lookups > 0 ? 100.0 * hits / lookups : 0.0, evictions, entries.size(),
+                bytes / 1024.0, maxBytes / 1024.0);
+    }
+}
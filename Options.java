@@ -0,0 +1,95 @@
+/*
+ * Date: October 16, 2026
+ * Name: Matthew Chan
+ *
+ * Program Description:
+ * The Options Java class splits the command line arguments of the search engine programs
+ * into the required positional arguments and optional "--name value" or "--flag" options
+ * that follow them. Optional settings such as warm-up sizes or thread counts can then be
+ * added to a program without changing the meaning of its existing positional arguments.
+ *
+ * Example:
+ * java BM25.java latimes_index queries.txt results.txt 0 --warmup 1000
+ *
+ */
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+public class Options {
+
+    private final List<String> positional = new ArrayList<>();
+    private final HashMap<String, String> named = new HashMap<>();
+
+    public Options(String[] args) {
+        int i = 0;
+        while (i < args.length) {
+            String arg = args[i];
+            if (arg.startsWith("--") && arg.length() > 2) {
+                String name = arg.substring(2);
+                // An option takes a value unless it is followed by another option or nothing
+                if (i + 1 < args.length && !args[i + 1].startsWith("--")) {
+                    named.put(name, args[i + 1]);
+                    i = i + 2;
+                } else {
+                    named.put(name, "");
+                    i = i + 1;
+                }
+            } else {
+                positional.add(arg);
+                i = i + 1;
+            }
+        }
+    }
+
+    // Returns the number of positional arguments
+    public int numPositional() {
+        return positional.size();
+    }
+
+    // Returns the positional argument at the given index
+    public String positional(int index) {
+        return positional.get(index);
+    }
+
+    // Returns true if the option was given on the command line
+    public boolean has(String name) {
+        return named.containsKey(name);
+    }
+
+    // Returns the value of an option or the default if it was not given
+    public String get(String name, String defaultValue) {
+        String value = named.get(name);
+        if (value == null || value.isEmpty()) {
+            return defaultValue;
+        }
+        return value;
+    }
+
+    // Returns the integer value of an option or the default if it was not given
+    public int getInt(String name, int defaultValue) {
+        String value = get(name, null);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("--" + name + " must be an integer but was '" + value + "'");
+        }
+    }
+
+    // Returns the double value of an option or the default if it was not given
+    public double getDouble(String name, double defaultValue) {
+        String value = get(name, null);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Double.parseDouble(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("--" + name + " must be a number but was '" + value + "'");
+        }
+    }
+}
@@ -0,0 +1,177 @@
+/*
+ * Date: October 16, 2026
+ * Name: Matthew Chan
+ *
+ * Program Description:
+ * The ParsedQuery Java class splits a query typed by a user into the ordinary terms and the
+ * phrases that InteractiveBM25 and SearchServer rank. A phrase is written in double quotes,
+ * "new york", and may be followed by ~N for a proximity search. Phrases of one word, and
+ * phrases when the index has no positions, are searched as ordinary terms. The terms and
+ * phrases are stemmed when the index was built with stemming, while the words used to pick
+ * snippets are kept as they were typed, since snippets are matched against the stored text.
+ *
+ * A word with a * or ? in it, such as polit* or wom?n, is a wildcard pattern: * matches any run
+ * of letters and digits and ? matches one. A ? at the end of a word is a question mark and is
+ * ignored. Patterns are lowercased but not stemmed, and QueryRanker expands them to the terms of
+ * the lexicon that match.
+ *
+ */
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+public class ParsedQuery {
+
+    // A phrase in double quotes, optionally followed by ~N for a proximity search
+    private static final Pattern phrasePattern = Pattern.compile("\"([^\"]*)\"(?:~(\\d+))?");
+
+    // A word that may hold wildcards
+    private static final Pattern wordPattern = Pattern.compile("[A-Za-z0-9*?]+");
+
+    private final List<String> tokens;              // ordinary terms, in query order
+    private final List<List<String>> phrases;
+    private final List<Integer> slops;              // slop of each phrase, 0 for an exact phrase
+    private final List<String> snippetTokens;       // every word of the query, unstemmed
+    private final List<String> phrasesAsTerms;      // phrases searched as terms for lack of positions
+    private final List<String> wildcards;           // wildcard patterns, lowercased
+
+    private ParsedQuery(List<String> tokens, List<List<String>> phrases, List<Integer> slops,
+                        List<String> snippetTokens, List<String> phrasesAsTerms, List<String> wildcards) {
+        this.tokens = tokens;
+        this.phrases = phrases;
+        this.slops = slops;
+        this.snippetTokens = snippetTokens;
+        this.phrasesAsTerms = phrasesAsTerms;
+        this.wildcards = wildcards;
+    }
+
+    // Returns whether a word is a wildcard pattern: it has a letter or digit, and a * or a ?
+    // that is not at the end of the word
+    private static boolean isWildcard(String word) {
+        int end = word.length();
+        while (end > 0 && word.charAt(end - 1) == '?') {
+            end--;
+        }
+        boolean hasWildcard = false;
+        boolean hasLetter = false;
+        for (int i = 0; i < end; i++) {
+            char c = word.charAt(i);
+            if (c == '*' || c == '?') {
+                hasWildcard = true;
+            } else {
+                hasLetter = true;
+            }
+        }
+        return hasWildcard && hasLetter;
+    }
+
+    // Parses a query for an index built with or without stemming ("0" or "1") and positions
+    public static ParsedQuery parse(String query, String stem, boolean hasPositions) {
+        List<List<String>> phrases = new ArrayList<List<String>>();
+        List<Integer> slops = new ArrayList<Integer>();
+        List<String> phraseTokens = new ArrayList<String>();
+        List<String> phraseWords = new ArrayList<String>();
+        List<String> phrasesAsTerms = new ArrayList<String>();
+
+        // Take the phrases out of the query, the rest of it is ordinary terms
+        Matcher phraseMatcher = phrasePattern.matcher(query);
+        while (phraseMatcher.find()) {
+            List<String> phrase = Tokenizer.tokens(phraseMatcher.group(1), stem.equals("1"));
+            phraseWords.addAll(Tokenizer.tokens(phraseMatcher.group(1), false));
+            if (phrase.size() >= 2 && hasPositions) {
+                phrases.add(phrase);
+                slops.add(phraseMatcher.group(2) != null ? Integer.parseInt(phraseMatcher.group(2)) : 0);
+            } else {
+                if (phrase.size() >= 2) {
+                    phrasesAsTerms.add(String.join(" ", phrase));
+                }
+                phraseTokens.addAll(phrase);
+            }
+        }
+        String rest = phraseMatcher.replaceAll(" ");
+
+        // Take the wildcard patterns out of the rest, ? and * are punctuation everywhere else
+        List<String> wildcards = new ArrayList<String>();
+        Matcher wordMatcher = wordPattern.matcher(rest);
+        StringBuilder terms = new StringBuilder();
+        while (wordMatcher.find()) {
+            String word = wordMatcher.group();
+            if (isWildcard(word)) {
+                String wildcard = word.toLowerCase(Locale.ROOT);
+                if (!wildcards.contains(wildcard)) {
+                    wildcards.add(wildcard);
+                }
+                wordMatcher.appendReplacement(terms, " ");
+            }
+        }
+        wordMatcher.appendTail(terms);
+        rest = terms.toString();
+        List<String> tokens = Tokenizer.tokens(rest, stem.equals("1"));
+        tokens.addAll(phraseTokens);
+
+        // Snippets are chosen by the words of the phrases as well
+        List<String> snippetTokens = Tokenizer.tokens(rest, false);
+        snippetTokens.addAll(phraseWords);
+
+        return new ParsedQuery(tokens, phrases, slops, snippetTokens, phrasesAsTerms, wildcards);
+    }
+
+    // Returns the ordinary terms in query order, followed by the words of the phrases that are
+    // searched as terms
+    public List<String> tokens() {
+        return Collections.unmodifiableList(tokens);
+    }
+
+    // Returns the number of phrases
+    public int numPhrases() {
+        return phrases.size();
+    }
+
+    // Returns the terms of a phrase
+    public String[] phrase(int i) {
+        return phrases.get(i).toArray(new String[0]);
+    }
+
+    // Returns the slop of a phrase
+    public int slop(int i) {
+        return slops.get(i);
+    }
+
+    // Returns the terms and phrases as one string, the same for every query that is ranked the
+    // same way, such as queries that differ only in case, punctuation or spacing
+    public String normalized() {
+        StringBuilder sb = new StringBuilder(String.join(" ", tokens));
+        for (int i = 0; i < phrases.size(); i++) {
+            sb.append(" \"").append(String.join(" ", phrases.get(i))).append("\"~").append(slops.get(i));
+        }
+        for (String wildcard : wildcards) {
+            sb.append(' ').append(wildcard);
+        }
+        return sb.toString();
+    }
+
+    // Returns whether the query has nothing to search for
+    public boolean isEmpty() {
+        return tokens.isEmpty() && phrases.isEmpty() && wildcards.isEmpty();
+    }
+
+    // Returns the wildcard patterns, lowercased, in query order
+    public List<String> wildcards() {
+        return Collections.unmodifiableList(wildcards);
+    }
+
+    // Returns every word of the query as typed, to pick snippets with
+    public List<String> snippetTokens() {
+        return Collections.unmodifiableList(snippetTokens);
+    }
+
+    // Returns the phrases of two or more words that are searched as separate terms because the
+    // index does not store positions
+    public List<String> phrasesAsTerms() {
+        return Collections.unmodifiableList(phrasesAsTerms);
+    }
+}
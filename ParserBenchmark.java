@@ -0,0 +1,145 @@
+/*
+ * Date: October 16, 2026
+ * Name: Matthew Chan
+ *
+ * Program Description:
+ * The ParserBenchmark Java program compares the single-pass DocumentParser used by the
+ * indexer against the previous regex extraction, where three DOTALL regexes were run over
+ * a copy of each document and the matches were cleaned with chained String.replace calls.
+ * It loads the <DOC> blocks of a gzip'd collection into memory, checks that both paths
+ * extract the same headline, text and graphic for every document, and then times several
+ * rounds of each path over all documents after a warm-up round.
+ *
+ * Command Line Argument Inputs:
+ * javac ParserBenchmark.java
+ * java ParserBenchmark.java data\latimes.gz
+ * java ParserBenchmark.java data\latimes.gz 10
+ *
+ */
+
+import java.io.BufferedReader;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPInputStream;
+
+public class ParserBenchmark {
+
+    private static final Pattern headlinePattern = Pattern.compile("<HEADLINE>(.+?)</HEADLINE>", Pattern.DOTALL);
+    private static final Pattern textPattern = Pattern.compile("<TEXT>(.+?)</TEXT>", Pattern.DOTALL);
+    private static final Pattern graphicPattern = Pattern.compile("<GRAPHIC>(.+?)</GRAPHIC>", Pattern.DOTALL);
+
+    // Receives a value from every round so the JIT cannot remove the work
+    private static volatile long sink;
+
+    // Previous extraction: regex match on the document followed by chained replaces
+    private static String extractText(String input, Pattern pattern) {
+        Matcher matcher = pattern.matcher(input);
+        if (matcher.find()) {
+            return matcher.group(1)
+                    .replace("\n", "")
+                    .replace("<P>", "")
+                    .replace("</P>", "");
+        } else {
+            return "";
+        }
+    }
+
+    // Reads every <DOC> block of the gzip'd collection into memory
+    private static List<String> readDocs(String dataPath) throws IOException {
+        List<String> docs = new ArrayList<String>();
+        BufferedReader buffered = new BufferedReader(new InputStreamReader(new GZIPInputStream(new FileInputStream(dataPath))));
+        StringBuilder currDoc = new StringBuilder();
+        String currLine;
+        while ((currLine = buffered.readLine()) != null) {
+            currDoc.append(currLine);
+            if (currLine.contains("</DOC>")) {
+                docs.add(currDoc.toString());
+                currDoc.setLength(0);
+            } else {
+                currDoc.append("\n");
+            }
+        }
+        buffered.close();
+        return docs;
+    }
+
+    // Runs the regex path over all documents as IndexEngine used to, three copies per document
+    private static long regexRound(List<String> docs) {
+        long total = 0;
+        StringBuilder currDoc = new StringBuilder();
+        for (String doc : docs) {
+            currDoc.setLength(0);
+            currDoc.append(doc);
+            String headline = extractText(currDoc.toString(), headlinePattern);
+            String text = extractText(currDoc.toString(), textPattern);
+            String graphic = extractText(currDoc.toString(), graphicPattern);
+            total += (headline + " " + text + " " + graphic).length();
+        }
+        return total;
+    }
+
+    // Runs the single-pass parser over all documents
+    private static long parserRound(List<String> docs, DocumentParser parser) {
+        long total = 0;
+        for (String doc : docs) {
+            parser.parse(doc);
+            total += parser.headline().length() + 1 + parser.text().length() + 1 + parser.graphic().length();
+        }
+        return total;
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1 || args.length > 2) {
+            throw new IllegalArgumentException(
+                    "Please include a valid path to the gzip'd data file and optionally the number of rounds. " +
+                    "For example: 'java ParserBenchmark.java data\\latimes.gz 10'");
+        }
+        if (!new File(args[0]).exists()) {
+            throw new FileNotFoundException(args[0] + " path does not exist");
+        }
+        int rounds = args.length == 2 ? Integer.parseInt(args[1]) : 5;
+
+        List<String> docs = readDocs(args[0]);
+        DocumentParser parser = new DocumentParser();
+
+        // Both paths must extract the same fields
+        int mismatches = 0;
+        for (String doc : docs) {
+            parser.parse(doc);
+            if (!extractText(doc, headlinePattern).equals(parser.headline().toString())
+                    || !extractText(doc, textPattern).equals(parser.text().toString())
+                    || !extractText(doc, graphicPattern).equals(parser.graphic().toString())) {
+                mismatches++;
+            }
+        }
+        System.out.printf("Loaded %d documents, %d extraction mismatches%n", docs.size(), mismatches);
+
+        // Warm up both paths before timing
+        sink = regexRound(docs) + parserRound(docs, parser);
+
+        long regexNanos = 0;
+        long parserNanos = 0;
+        for (int r = 0; r < rounds; r++) {
+            long start = System.nanoTime();
+            sink += regexRound(docs);
+            regexNanos += System.nanoTime() - start;
+
+            start = System.nanoTime();
+            sink += parserRound(docs, parser);
+            parserNanos += System.nanoTime() - start;
+        }
+
+        double regexPerDoc = (double) regexNanos / rounds / docs.size();
+        double parserPerDoc = (double) parserNanos / rounds / docs.size();
+        System.out.printf("regex extraction:   %10.0f ns/doc%n", regexPerDoc);
+        System.out.printf("single-pass parser: %10.0f ns/doc%n", parserPerDoc);
+        System.out.printf("speedup:            %10.2fx%n", regexPerDoc / parserPerDoc);
+    }
+}
@@ -0,0 +1,107 @@
+/*
+ * Date: October 16, 2026
+ * Name: Matthew Chan
+ *
+ * Program Description:
+ * The PhraseMatcher Java class counts how many times a phrase occurs in one document, given
+ * the sorted word positions of each of the phrase's terms in that document. An exact phrase
+ * occurs at position p when its i-th term is at position p + i, which is found by walking
+ * the position lists together the way postings lists are intersected. A proximity phrase
+ * ("..."~N) occurs wherever all of its terms, in any order, fit in a window of N positions
+ * more than the phrase's length. Those windows are found with one sliding window over the
+ * merged position lists, counting each window that cannot be shrunk any further.
+ *
+ */
+
+public class PhraseMatcher {
+
+    // Returns the number of positions p where term i of the phrase is at p + i. positions[i]
+    // holds the sorted positions of the phrase's i-th term in [0, counts[i]); a term that
+    // repeats in the phrase can use the same array for each of its places.
+    public static int countExact(int[][] positions, int[] counts) {
+        int numTerms = positions.length;
+        int[] cursors = new int[numTerms];
+        int occurrences = 0;
+
+        for (int first = 0; first < counts[0]; first++) {
+            int start = positions[0][first];
+            boolean matched = true;
+            for (int i = 1; i < numTerms; i++) {
+                // Positions only increase, so the cursor never needs to move back
+                int target = start + i;
+                int[] termPositions = positions[i];
+                int cursor = cursors[i];
+                while (cursor < counts[i] && termPositions[cursor] < target) {
+                    cursor++;
+                }
+                cursors[i] = cursor;
+                if (cursor == counts[i]) {
+                    return occurrences;
+                }
+                if (termPositions[cursor] != target) {
+                    matched = false;
+                    break;
+                }
+            }
+            if (matched) {
+                occurrences++;
+            }
+        }
+        return occurrences;
+    }
+
+    // Returns the number of smallest windows that hold required[t] occurrences of each distinct
+    // term t, in any order, and span at most maxSpan positions from first to last. positions[t]
+    // holds the sorted positions of distinct term t in [0, counts[t]).
+    public static int countWithin(int[][] positions, int[] counts, int[] required, int maxSpan) {
+        int numTerms = positions.length;
+        int total = 0;
+        for (int t = 0; t < numTerms; t++) {
+            total += counts[t];
+        }
+
+        // Merge the position lists into one list of (position, term) in position order
+        int[] mergedPositions = new int[total];
+        int[] mergedTerms = new int[total];
+        int[] cursors = new int[numTerms];
+        for (int k = 0; k < total; k++) {
+            int best = -1;
+            for (int t = 0; t < numTerms; t++) {
+                if (cursors[t] < counts[t] && (best < 0 || positions[t][cursors[t]] < positions[best][cursors[best]])) {
+                    best = t;
+                }
+            }
+            mergedPositions[k] = positions[best][cursors[best]];
+            mergedTerms[k] = best;
+            cursors[best]++;
+        }
+
+        // Grow the window to the right until it holds every term, then shrink it from the left
+        int[] inWindow = new int[numTerms];
+        int missing = numTerms;
+        int left = 0;
+        int occurrences = 0;
+        for (int right = 0; right < total; right++) {
+            int term = mergedTerms[right];
+            inWindow[term]++;
+            if (inWindow[term] == required[term]) {
+                missing--;
+            }
+            if (missing > 0) {
+                continue;
+            }
+            while (inWindow[mergedTerms[left]] > required[mergedTerms[left]]) {
+                inWindow[mergedTerms[left]]--;
+                left++;
+            }
+            if (mergedPositions[right] - mergedPositions[left] <= maxSpan) {
+                occurrences++;
+            }
+            // Drop the leftmost term so the next window ends further right
+            inWindow[mergedTerms[left]]--;
+            missing++;
+            left++;
+        }
+        return occurrences;
+    }
+}
@@ -0,0 +1,243 @@
+/*
+ * Date: October 16, 2026
+ * Name: Matthew Chan
+ *
+ * Program Description:
+ * The PostingsCache Java class keeps the decoded postings lists of the most frequently
+ * queried terms in memory, up to a budget of bytes, so a hot term is not decoded from the
+ * mapped postings file on every query. Lists are kept in least recently used order, and a
+ * TinyLFU admission policy decides whether a new list may take the place of the lists it
+ * would evict: a count-min sketch estimates how often every list has been asked for, and the
+ * new list is admitted only if it has been asked for more often than each of them. A long
+ * list asked for once therefore cannot flush lists that are asked for all the time. The
+ * sketch's counters are halved after a fixed number of requests, so the frequencies follow
+ * recent use.
+ *
+ * The cache is shared by concurrent readers without one lock that every lookup waits on. The
+ * lists are split by key into stripes, each an LRU map with its own lock and an equal share
+ * of the budget, so threads only wait for each other when they look up keys of the same
+ * stripe. The sketch is shared and lock-free: its 4-bit counters are packed 16 to a long in an
+ * AtomicLongArray and incremented by compare-and-set, so recording a request takes no lock at
+ * all. A list is decoded outside any lock and offered afterwards. The cache counts its hits,
+ * which are the decodes it saved, and the postings in those lists.
+ *
+ */
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+public class PostingsCache {
+
+    // Estimated bytes of a cached list besides its ints: the array header and the map entry
+    private static final long ENTRY_OVERHEAD = 80;
+
+    // Most stripes, and the smallest share of the budget a stripe gets, so long lists still fit
+    private static final int MAX_STRIPES = 16;
+    private static final long MIN_STRIPE_BYTES = 8L << 20;
+
+    // Count-min sketch of how often each key was asked for, with 4-bit counters packed 16 to a
+    // long, which concurrent threads increment without a lock
+    private static class FrequencySketch {
+        private static final int DEPTH = 4;
+        private static final long[] SEEDS = {0x9E3779B97F4A7C15L, 0xC2B2AE3D27D4EB4FL, 0x165667B19E3779F9L, 0xD6E8FEB86659FD93L};
+        private static final int MAX_COUNT = 15;
+        private static final long HALF_MASK = 0x7777777777777777L;     // each counter's low 3 bits
+
+        private final AtomicLongArray counts;   // DEPTH rows of width / 16 longs
+        private final int rowLongs;
+        private final int mask;
+        private final int sampleSize;           // requests after which every counter is halved
+        private final AtomicInteger requests = new AtomicInteger();
+
+        FrequencySketch(int width) {
+            int w = Integer.highestOneBit(Math.max(width, 64) - 1) << 1;
+            rowLongs = w >>> 4;
+            counts = new AtomicLongArray(DEPTH * rowLongs);
+            mask = w - 1;
+            sampleSize = 10 * w;
+        }
+
+        private int slot(long key, int row) {
+            long h = (key + SEEDS[row]) * SEEDS[(row + 1) % DEPTH];
+            return (int) (h ^ (h >>> 32)) & mask;
+        }
+
+        void increment(long key) {
+            for (int row = 0; row < DEPTH; row++) {
+                int slot = slot(key, row);
+                int index = row * rowLongs + (slot >>> 4);
+                int shift = (slot & 15) << 2;
+                while (true) {
+                    long word = counts.get(index);
+                    if (((word >>> shift) & MAX_COUNT) == MAX_COUNT ||
+                        counts.compareAndSet(index, word, word + (1L << shift))) {
+                        break;
+                    }
+                }
+            }
+            // The thread whose request completes the sample halves every counter, requests
+            // counted meanwhile are kept
+            if (requests.incrementAndGet() == sampleSize) {
+                for (int i = 0; i < counts.length(); i++) {
+                    long word;
+                    do {
+                        word = counts.get(i);
+                    } while (!counts.compareAndSet(i, word, (word >>> 1) & HALF_MASK));
+                }
+                requests.addAndGet(-sampleSize / 2);
+            }
+        }
+
+        int frequency(long key) {
+            int frequency = MAX_COUNT;
+            for (int row = 0; row < DEPTH; row++) {
+                int slot = slot(key, row);
+                long word = counts.get(row * rowLongs + (slot >>> 4));
+                frequency = Math.min(frequency, (int) (word >>> ((slot & 15) << 2)) & MAX_COUNT);
+            }
+            return frequency;
+        }
+    }
+
+    // One stripe of the lists in least recently used order, guarded by its own lock
+    private static class Stripe {
+        final long maxBytes;
+        final LinkedHashMap<Long, int[]> lists = new LinkedHashMap<Long, int[]>(64, 0.75f, true);
+        long bytes = 0;
+
+        Stripe(long maxBytes) {
+            this.maxBytes = maxBytes;
+        }
+    }
+
+    private final long maxBytes;
+    private final Stripe[] stripes;
+    private final FrequencySketch sketch;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder postingsSaved = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public PostingsCache(long maxBytes) {
+        if (maxBytes <= 0) {
+            throw new IllegalArgumentException("The postings cache needs a positive budget");
+        }
+        this.maxBytes = maxBytes;
+        int numStripes = 1;
+        while (numStripes < MAX_STRIPES && maxBytes / (numStripes * 2) >= MIN_STRIPE_BYTES) {
+            numStripes *= 2;
+        }
+        this.stripes = new Stripe[numStripes];
+        for (int i = 0; i < numStripes; i++) {
+            stripes[i] = new Stripe(maxBytes / numStripes);
+        }
+        // About one counter per list that could fit, assuming lists of a few hundred postings
+        this.sketch = new FrequencySketch((int) Math.min(1 << 20, maxBytes / 1024));
+    }
+
+    // Returns the estimated bytes of a cached list of [docID, count, ...]
+    private static long weight(int[] postings) {
+        return ENTRY_OVERHEAD + 4L * postings.length;
+    }
+
+    // Returns the stripe that holds a key
+    private Stripe stripeOf(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return stripes[(int) (h >>> 32) & (stripes.length - 1)];
+    }
+
+    // Returns the cached list of a key, or null if the caller has to decode it and offer it.
+    // Every call counts as a request for the key.
+    public int[] get(long key) {
+        sketch.increment(key);
+        Stripe stripe = stripeOf(key);
+        int[] postings;
+        synchronized (stripe) {
+            postings = stripe.lists.get(key);
+        }
+        if (postings != null) {
+            hits.increment();
+            postingsSaved.add(postings.length / 2);
+        } else {
+            misses.increment();
+        }
+        return postings;
+    }
+
+    // Offers a decoded list, which is kept if it fits in its stripe's budget, or if it was asked
+    // for more often than every least recently used list of the stripe it would evict
+    public void offer(long key, int[] postings) {
+        Stripe stripe = stripeOf(key);
+        long weight = weight(postings);
+        if (weight > stripe.maxBytes) {
+            return;
+        }
+        int candidateFrequency = sketch.frequency(key);
+        synchronized (stripe) {
+            if (stripe.lists.containsKey(key)) {
+                return;
+            }
+
+            // Find the victims without evicting them yet
+            long freed = stripe.maxBytes - stripe.bytes;
+            Iterator<Map.Entry<Long, int[]>> eldest = stripe.lists.entrySet().iterator();
+            int numVictims = 0;
+            while (freed < weight) {
+                Map.Entry<Long, int[]> victim = eldest.next();
+                if (sketch.frequency(victim.getKey()) >= candidateFrequency) {
+                    rejected.increment();
+                    return;
+                }
+                freed += weight(victim.getValue());
+                numVictims++;
+            }
+
+            eldest = stripe.lists.entrySet().iterator();
+            for (int i = 0; i < numVictims; i++) {
+                stripe.bytes -= weight(eldest.next().getValue());
+                eldest.remove();
+                evictions.increment();
+            }
+            stripe.lists.put(key, postings);
+            stripe.bytes += weight;
+        }
+    }
+
+    // Returns the number of requests answered from the cache, each one a decode saved
+    public long hits() {
+        return hits.sum();
+    }
+
+    // Returns the number of postings in the lists that did not have to be decoded
+    public long postingsSaved() {
+        return postingsSaved.sum();
+    }
+
+    public long misses() {
+        return misses.sum();
+    }
+
+    // Returns a one-line summary of the counters
+    public String stats() {
+        int numLists = 0;
+        long bytes = 0;
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                numLists += stripe.lists.size();
+                bytes += stripe.bytes;
+            }
+        }
+        long hits = hits();
+        long requests = hits + misses();
+        return String.format("%d decodes saved of %d requests (%.1f%%), %d postings not decoded, " +
+                             "%d lists not admitted, %d evicted, %d lists in %.1f of %.1f MB (%d stripes)",
+                hits, requests, requests > 0 ? 100.0 * hits / requests : 0.0, postingsSaved(),
+                rejected.sum(), evictions.sum(), numLists, bytes / 1048576.0, maxBytes / 1048576.0, stripes.length);
+    }
+}
@@ -0,0 +1,82 @@
+/*
+ * Date: October 16, 2026
+ * Name: Matthew Chan
+ *
+ * Program Description:
+ * The PostingsCursor Java class walks one query term's postings list in docID order for
+ * document-at-a-time evaluation. next() moves to the following posting and advance(target)
+ * moves to the first posting with a docID of at least target. The cursor also carries the
+ * term's idf and an upper bound of its BM25 score in any document, which dynamic pruning uses
+ * to skip documents that cannot reach the top k.
+ *
+ * ArrayPostingsCursor walks a list that is already decoded, and BlockPostingsCursor decodes
+ * the list of a lexicon term one block at a time. A cursor over blocks also has a shallow
+ * position: advanceShallow(target) moves it to the block that would hold target without
+ * decoding anything, and blockUpperBound() bounds the score of every posting in that block,
+ * which Block-Max WAND uses to skip whole blocks. A cursor without blocks acts as a single
+ * block covering the whole list.
+ *
+ */
+
+public abstract class PostingsCursor {
+
+    // docID of a cursor that has gone past its last posting
+    public static final int NO_MORE_DOCS = Integer.MAX_VALUE;
+
+    private final double idf;
+    private final double upperBound;
+
+    protected PostingsCursor(double idf, double upperBound) {
+        this.idf = idf;
+        this.upperBound = upperBound;
+    }
+
+    // Returns the docID of the current posting, or NO_MORE_DOCS
+    public abstract int docID();
+
+    // Returns the count of the current posting
+    public abstract int count();
+
+    // Returns the number of documents in the list
+    public abstract int documentFrequency();
+
+    // Moves to the next posting and returns its docID
+    public abstract int next();
+
+    // Moves to the first posting whose docID is at least target and returns its docID
+    public abstract int advance(int target);
+
+    // Returns the number of postings decoded so far
+    public abstract long postingsDecoded();
+
+    // Moves the shallow position to the block that holds the first docID of at least target,
+    // without decoding it. It never moves before the block of the current posting.
+    public void advanceShallow(int target) {
+    }
+
+    // Returns the last docID of the block at the shallow position, or NO_MORE_DOCS
+    public int blockLastDocID() {
+        return NO_MORE_DOCS;
+    }
+
+    // Returns an upper bound of score() over the postings of the block at the shallow position
+    public double blockUpperBound() {
+        return upperBound;
+    }
+
+    public double idf() {
+        return idf;
+    }
+
+    // Returns an upper bound of score() over every posting of the list
+    public double upperBound() {
+        return upperBound;
+    }
+
+    // Returns the BM25 score of the current posting, k is its document's length normalization
+    public double score(double k) {
+        double termFreq = count();
+        double tf = termFreq / (k + termFreq);
+        return tf * idf;
+    }
+}
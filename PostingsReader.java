@@ -0,0 +1,205 @@
+/*
+ * Date: October 16, 2026
+ * Name: Matthew Chan
+ *
+ * Program Description:
+ * The PostingsReader Java class reads the binary inverted index written by PostingsWriter.
+ * Both the term table and the postings file are memory-mapped with FileChannel.map, so
+ * opening an index costs the same no matter how large it is and nothing is copied onto
+ * the heap up front. A term's postings list is only decoded when a query asks for it, and
+ * it is returned in the same [docID, count, docID, count, ...] layout that the query
+ * programs used with the serialized inverted index. Caching of the file pages is left to
+ * the operating system's page cache. An optional warm-up pass touches the pages of the
+ * terms with the longest postings lists so that the first queries do not fault them in.
+ *
+ * If the index stores word positions, they are mapped as well and read through a
+ * PositionReader, which walks a term's positions in postings order. The positions of
+ * postings a query does not need are skipped by counting the last bytes of their
+ * variable-byte gaps, without decoding them.
+ *
+ */
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.PriorityQueue;
+
+public class PostingsReader {
+
+    // Size of an operating system page, used to touch each page once during warm-up
+    private static final int PAGE_SIZE = 4096;
+
+    // Receives the bytes read during warm-up so the JIT cannot remove the reads
+    private static volatile int warmUpSink;
+
+    private final MappedByteBuffer termTable;  // term ID -> [offset (long), length (int), df (int)]
+    private final MappedByteBuffer postings;
+    private final int numTerms;
+    private final MappedByteBuffer positionTable;   // term ID -> [offset (long)], null without positions
+    private final MappedByteBuffer positions;
+
+    public PostingsReader(String postingsPath, String termTablePath) throws IOException {
+        this(postingsPath, termTablePath, null, null);
+    }
+
+    // Maps the word positions as well when positionsPath and positionTablePath are not null
+    public PostingsReader(String postingsPath, String termTablePath,
+                          String positionsPath, String positionTablePath) throws IOException {
+        termTable = map(termTablePath);
+        postings = map(postingsPath);
+        numTerms = termTable.capacity() / PostingsWriter.TERM_RECORD_SIZE;
+        if (positionsPath != null) {
+            positionTable = map(positionTablePath);
+            positions = map(positionsPath);
+        } else {
+            positionTable = null;
+            positions = null;
+        }
+    }
+
+    // Memory-maps a whole file read-only
+    static MappedByteBuffer map(String path) throws IOException {
+        File file = new File(path);
+        if (!file.exists()) {
+            throw new FileNotFoundException(path + " path does not exist");
+        }
+        if (file.length() > Integer.MAX_VALUE) {
+            throw new IOException(path + " is larger than 2GB and cannot be mapped as one buffer");
+        }
+        // The mapping stays valid after the channel is closed
+        RandomAccessFile raf = new RandomAccessFile(file, "r");
+        FileChannel channel = raf.getChannel();
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, file.length());
+        raf.close();
+        return buffer;
+    }
+
+    // Returns whether the index stores word positions
+    public boolean hasPositions() {
+        return positions != null;
+    }
+
+    // Returns the number of terms in the term table
+    public int numTerms() {
+        return numTerms;
+    }
+
+    // Returns the number of documents containing the term
+    public int documentFrequency(int termID) {
+        return termTable.getInt(termID * PostingsWriter.TERM_RECORD_SIZE + 12);
+    }
+
+    // Returns the byte offset of the term's list in the postings file
+    private long offset(int termID) {
+        return termTable.getLong(termID * PostingsWriter.TERM_RECORD_SIZE);
+    }
+
+    // Returns the byte length of the term's list in the postings file
+    private int length(int termID) {
+        return termTable.getInt(termID * PostingsWriter.TERM_RECORD_SIZE + 8);
+    }
+
+    // Returns a buffer over the whole postings file, with a position of its own
+    ByteBuffer postingsBuffer() {
+        return postings.duplicate();
+    }
+
+    // Returns the byte offset of the term's list in the postings file
+    int listOffset(int termID) {
+        return (int) offset(termID);
+    }
+
+    // Decodes the postings list of a term into [docID, count, docID, count, ...]
+    public int[] getPostings(int termID) {
+        int df = documentFrequency(termID);
+        int[] output = new int[df * 2];
+        ByteBuffer buf = postings.duplicate();
+        buf.position((int) offset(termID));
+
+        int docID = -1;
+        for (int i = 0; i < output.length; i = i + 2) {
+            docID = docID + VByte.read(buf) + 1;
+            output[i] = docID;
+            output[i + 1] = VByte.read(buf);
+        }
+        return output;
+    }
+
+    // Sequential reader over the word positions of one term, one posting after another
+    public static class PositionReader {
+        private final ByteBuffer buf;
+
+        PositionReader(ByteBuffer buf) {
+            this.buf = buf;
+        }
+
+        // Skips the positions of the next posting, which has count positions
+        public void skip(int count) {
+            while (count > 0) {
+                // The last byte of a variable-byte number has its high bit clear
+                if (buf.get() >= 0) {
+                    count--;
+                }
+            }
+        }
+
+        // Decodes the count positions of the next posting into out[0, count)
+        public void read(int count, int[] out) {
+            int position = -1;
+            for (int i = 0; i < count; i++) {
+                position = position + VByte.read(buf) + 1;
+                out[i] = position;
+            }
+        }
+    }
+
+    // Returns a reader over the positions of a term, starting at its first posting
+    public PositionReader positions(int termID) {
+        if (positions == null) {
+            throw new IllegalStateException("This index does not store positions");
+        }
+        ByteBuffer buf = positions.duplicate();
+        buf.position((int) positionTable.getLong(termID * PostingsWriter.POSITION_RECORD_SIZE));
+        return new PositionReader(buf);
+    }
+
+    // Touches every page of the numHotTerms longest postings lists and returns the bytes covered
+    public long warmUp(int numHotTerms) {
+        if (numHotTerms <= 0) {
+            return 0;
+        }
+
+        // Keep the hottest terms in a min-heap ordered by document frequency
+        PriorityQueue<Integer> hottest = new PriorityQueue<>(
+                (a, b) -> Integer.compare(documentFrequency(a), documentFrequency(b)));
+        for (int termID = 0; termID < numTerms; termID++) {
+            if (hottest.size() < numHotTerms) {
+                hottest.add(termID);
+            } else if (documentFrequency(termID) > documentFrequency(hottest.peek())) {
+                hottest.poll();
+                hottest.add(termID);
+            }
+        }
+
+        // Read one byte per page so that the OS brings the page into its cache
+        long bytesTouched = 0;
+        int checksum = 0;
+        for (int termID : hottest) {
+            int start = (int) offset(termID);
+            int end = start + length(termID);
+            for (int pos = start; pos < end; pos = pos + PAGE_SIZE) {
+                checksum += postings.get(pos);
+            }
+            if (end > start) {
+                checksum += postings.get(end - 1);
+            }
+            bytesTouched += end - start;
+        }
+        warmUpSink = checksum;
+        return bytesTouched;
+    }
+}
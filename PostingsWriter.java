@@ -0,0 +1,251 @@
+/*
+ * Date: October 16, 2026
+ * Name: Matthew Chan
+ *
+ * Program Description:
+ * The PostingsWriter Java class writes the binary inverted index produced by IndexEngine.
+ * All postings lists are stored back to back in a single postings file. Within a list,
+ * each posting is a docID gap (the difference from the previous docID in the list) followed
+ * by the term count, both variable-byte encoded. A separate term table holds one fixed-size
+ * record per term ID with the byte offset of the list in the postings file, the byte length
+ * of the list and the document frequency (df). Terms must be written in term ID order.
+ *
+ * Postings file:  [gap, count, gap, count, ...] for term 0, then term 1, ...
+ * Term table:     [offset (long), length (int), df (int)] for term 0, then term 1, ...
+ *
+ * Word positions are optional and kept in a separate positions file, so queries that do
+ * not need them never read them. For each posting, its count positions are stored as
+ * variable-byte gaps (the first position, then the difference from the previous position
+ * minus one), in the same order as the postings. A position table holds the byte offset
+ * of each term's positions.
+ *
+ * Positions file:  [gap, gap, ...] for each posting of term 0, then term 1, ...
+ * Position table:  [offset (long)] for term 0, then term 1, ...
+ *
+ * Given the doc lengths of the segment, the writer also records upper bounds of each term's
+ * BM25 tf weight tf / (K + tf), which dynamic pruning uses to skip documents that cannot
+ * reach the top k. The largest tf weight is computed with BOUND_K1, BOUND_B and the
+ * segment's average doc length, and rounded up to a float; the largest count gives a
+ * looser bound for any other k1 and b.
+ *
+ * The same bounds are recorded for every block of BLOCK_SIZE postings of a term, together
+ * with the block's last docID and where it starts in the term's list. Block-Max WAND reads
+ * these to skip whole blocks without decoding them, and a block can be decoded on its own
+ * since its first gap follows the previous block's last docID.
+ *
+ * Bounds file:     [max count (int), max tf weight (float), first block (int)] for term 0,
+ *                  then term 1, ...
+ * Block max file:  [last docID (int), byte offset in the term's list (int), max count (int),
+ *                   max tf weight (float)] for each block of term 0, then term 1, ...
+ *
+ */
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+public class PostingsWriter {
+
+    // Size in bytes of one record in the term table
+    public static final int TERM_RECORD_SIZE = 16;
+
+    // Size in bytes of one record in the position table
+    public static final int POSITION_RECORD_SIZE = 8;
+
+    // Size in bytes of one record in the bounds file
+    public static final int BOUND_RECORD_SIZE = 12;
+
+    // Size in bytes of one record in the block max file
+    public static final int BLOCK_RECORD_SIZE = 16;
+
+    // Number of postings in a block, the last block of a term may be shorter
+    public static final int BLOCK_SIZE = 128;
+
+    // BM25 parameters that the max tf weight of the bounds file is computed with
+    public static final double BOUND_K1 = 1.2;
+    public static final double BOUND_B = 0.75;
+
+    private final OutputStream postingsOut;
+    private final DataOutputStream termTableOut;
+
+    private long offset = 0;        // byte offset of the current list in the postings file
+    private long termStart = 0;     // byte offset where the current list started
+    private int nextTermID = 0;     // term ID expected by the next call to startTerm
+    private int df = 0;             // postings written for the current term
+    private int lastDocID = -1;     // previous docID written for the current term
+    private boolean inTerm = false;
+
+    private final OutputStream positionsOut;            // null when positions are not stored
+    private final DataOutputStream positionTableOut;
+    private long positionsOffset = 0;   // byte offset of the next position in the positions file
+
+    private DataOutputStream boundsOut;     // null when bounds are not stored
+    private DataOutputStream blocksOut;
+    private double[] boundNorms;            // docID -> K for BOUND_K1 and BOUND_B
+    private int maxCount = 0;               // largest count of the current term
+    private double maxWeight = 0;           // largest tf weight of the current term
+    private int numBlocks = 0;              // blocks written for all terms so far
+    private int termFirstBlock = 0;         // first block of the current term
+    private int blockPostings = 0;          // postings in the current block
+    private long blockStart = 0;            // byte offset where the current block started
+    private int blockMaxCount = 0;
+    private double blockMaxWeight = 0;
+
+    public PostingsWriter(String postingsPath, String termTablePath) throws IOException {
+        this(postingsPath, termTablePath, null, null);
+    }
+
+    // Writes word positions as well when positionsPath and positionTablePath are not null
+    public PostingsWriter(String postingsPath, String termTablePath,
+                          String positionsPath, String positionTablePath) throws IOException {
+        this.postingsOut = new BufferedOutputStream(new FileOutputStream(postingsPath), 1 << 16);
+        this.termTableOut = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(termTablePath), 1 << 16));
+        if (positionsPath != null) {
+            this.positionsOut = new BufferedOutputStream(new FileOutputStream(positionsPath), 1 << 16);
+            this.positionTableOut = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(positionTablePath), 1 << 16));
+        } else {
+            this.positionsOut = null;
+            this.positionTableOut = null;
+        }
+    }
+
+    // Writes the score upper bounds of each term to boundsPath and of each block to blocksPath as
+    // well. docLengths holds the length of every docID of the segment. Must be called before the
+    // first term.
+    public void storeBounds(String boundsPath, String blocksPath, int[] docLengths) throws IOException {
+        if (nextTermID > 0) {
+            throw new IllegalStateException("Bounds must be stored from the first term");
+        }
+        long totalLength = 0;
+        for (int length : docLengths) {
+            totalLength += length;
+        }
+        double avgDocLength = docLengths.length > 0 ? (double) totalLength / docLengths.length : 1.0;
+        boundNorms = new double[docLengths.length];
+        for (int docID = 0; docID < docLengths.length; docID++) {
+            boundNorms[docID] = BOUND_K1 * ((1 - BOUND_B) + BOUND_B * docLengths[docID] / avgDocLength);
+        }
+        boundsOut = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(boundsPath), 1 << 16));
+        blocksOut = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(blocksPath), 1 << 16));
+    }
+
+    // Returns whether word positions are written
+    public boolean hasPositions() {
+        return positionsOut != null;
+    }
+
+    // Starts the postings list of the next term, term IDs must be consecutive from 0
+    public void startTerm(int termID) throws IOException {
+        if (inTerm) {
+            throw new IllegalStateException("endTerm was not called for term " + (nextTermID - 1));
+        }
+        if (termID != nextTermID) {
+            throw new IllegalArgumentException("Expected term ID " + nextTermID + " but got " + termID);
+        }
+        inTerm = true;
+        termStart = offset;
+        df = 0;
+        lastDocID = -1;
+        nextTermID++;
+        if (positionTableOut != null) {
+            positionTableOut.writeLong(positionsOffset);
+        }
+    }
+
+    // Appends one (docID, count) posting, docIDs must be strictly increasing within a term
+    public void addPosting(int docID, int count) throws IOException {
+        if (positionsOut != null) {
+            throw new IllegalStateException("This index stores positions, they must be given with each posting");
+        }
+        writePosting(docID, count);
+    }
+
+    // Appends one (docID, count) posting and its word positions, positions[from, from + count)
+    // in increasing order
+    public void addPosting(int docID, int count, int[] positions, int from) throws IOException {
+        if (positionsOut == null) {
+            throw new IllegalStateException("This index does not store positions");
+        }
+        writePosting(docID, count);
+        int lastPosition = -1;
+        for (int i = from; i < from + count; i++) {
+            if (positions[i] <= lastPosition) {
+                throw new IllegalArgumentException("Positions must be increasing: " + positions[i] + " after " + lastPosition);
+            }
+            positionsOffset += VByte.write(positionsOut, positions[i] - lastPosition - 1);
+            lastPosition = positions[i];
+        }
+    }
+
+    // Writes the docID gap and count of a posting
+    private void writePosting(int docID, int count) throws IOException {
+        if (docID <= lastDocID) {
+            throw new IllegalArgumentException("docIDs must be increasing: " + docID + " after " + lastDocID);
+        }
+        if (blocksOut != null && blockPostings == 0) {
+            blockStart = offset;
+        }
+        offset += VByte.write(postingsOut, docID - lastDocID - 1);
+        offset += VByte.write(postingsOut, count);
+        lastDocID = docID;
+        df++;
+        if (boundsOut != null) {
+            double weight = count / (boundNorms[docID] + count);
+            maxCount = Math.max(maxCount, count);
+            maxWeight = Math.max(maxWeight, weight);
+            blockMaxCount = Math.max(blockMaxCount, count);
+            blockMaxWeight = Math.max(blockMaxWeight, weight);
+            blockPostings++;
+            if (blockPostings == BLOCK_SIZE) {
+                endBlock();
+            }
+        }
+    }
+
+    // Writes the block max record of the current block
+    private void endBlock() throws IOException {
+        blocksOut.writeInt(lastDocID);
+        blocksOut.writeInt((int) (blockStart - termStart));
+        blocksOut.writeInt(blockMaxCount);
+        blocksOut.writeFloat(Math.nextUp((float) blockMaxWeight));
+        numBlocks++;
+        blockPostings = 0;
+        blockMaxCount = 0;
+        blockMaxWeight = 0;
+    }
+
+    // Finishes the current term and writes its term table record
+    public void endTerm() throws IOException {
+        termTableOut.writeLong(termStart);
+        termTableOut.writeInt((int) (offset - termStart));
+        termTableOut.writeInt(df);
+        inTerm = false;
+        if (boundsOut != null) {
+            if (blockPostings > 0) {
+                endBlock();
+            }
+            boundsOut.writeInt(maxCount);
+            boundsOut.writeFloat(Math.nextUp((float) maxWeight));
+            boundsOut.writeInt(termFirstBlock);
+            termFirstBlock = numBlocks;
+            maxCount = 0;
+            maxWeight = 0;
+        }
+    }
+
+    // Flushes and closes the files
+    public void close() throws IOException {
+        postingsOut.close();
+        termTableOut.close();
+        if (positionsOut != null) {
+            positionsOut.close();
+            positionTableOut.close();
+        }
+        if (boundsOut != null) {
+            boundsOut.close();
+            blocksOut.close();
+        }
+    }
+}
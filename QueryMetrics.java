@@ -0,0 +1,147 @@
+/*
+ * Date: October 16, 2026
+ * Name: Matthew Chan
+ *
+ * Program Description:
+ * The QueryMetrics Java class records where the time of each query goes. Every stage of query
+ * processing has a LatencyHistogram of its time per query: tokenizing (and parsing) the query,
+ * looking its terms up in the lexicon, fetching and decoding postings, scoring, selecting the
+ * top k, and the whole query. Reading a document from the docstore and building its snippet
+ * are timed per document shown. Document-at-a-time, score-at-a-time and Boolean searches
+ * decode postings as they score, so their decoding is part of the scoring stage. Counters add
+ * up the postings scored and the documents touched (given a score). One QueryMetrics can be
+ * shared by every thread.
+ *
+ * summary() gives a table of the count, mean and 50th, 90th, 99th and 99.9th percentile and
+ * largest latency of each stage in milliseconds, and write() dumps the same numbers as JSON, so
+ * runs can be compared for p50 and p99 regressions.
+ *
+ */
+
+import java.io.BufferedWriter;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class QueryMetrics {
+
+    // A stage of query processing, named as in the summary and the JSON dump
+    public enum Stage {
+        TOKENIZE("tokenize"),
+        LEXICON("lexicon"),
+        POSTINGS("postings"),
+        SCORING("scoring"),
+        TOP_K("top-k"),
+        DOCSTORE("docstore"),
+        SNIPPET("snippet"),
+        QUERY("query");
+
+        private final String label;
+
+        Stage(String label) {
+            this.label = label;
+        }
+
+        public String label() {
+            return label;
+        }
+    }
+
+    private static final double[] PERCENTILES = {50, 90, 99, 99.9};
+
+    private final LatencyHistogram[] histograms = new LatencyHistogram[Stage.values().length];
+    private final AtomicLong postingsScored = new AtomicLong();
+    private final AtomicLong docsTouched = new AtomicLong();
+
+    public QueryMetrics() {
+        for (int i = 0; i < histograms.length; i++) {
+            histograms[i] = new LatencyHistogram();
+        }
+    }
+
+    // Records a stage that took nanos nanoseconds
+    public void record(Stage stage, long nanos) {
+        histograms[stage.ordinal()].record(nanos);
+    }
+
+    // Records a stage that started at start, from System.nanoTime(), and returns the time it
+    // ended, which the next stage starts at
+    public long lap(Stage stage, long start) {
+        long now = System.nanoTime();
+        histograms[stage.ordinal()].record(now - start);
+        return now;
+    }
+
+    // Adds to the number of postings scored
+    public void addPostingsScored(long n) {
+        postingsScored.addAndGet(n);
+    }
+
+    // Adds to the number of documents touched
+    public void addDocsTouched(long n) {
+        docsTouched.addAndGet(n);
+    }
+
+    // Returns the histogram of a stage
+    public LatencyHistogram histogram(Stage stage) {
+        return histograms[stage.ordinal()];
+    }
+
+    // Returns a table of the latencies of every stage that was recorded, and the counters
+    public String summary() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format(Locale.ROOT, "%-10s %8s %10s %10s %10s %10s %10s %10s%n",
+                "stage", "count", "mean ms", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms"));
+        for (Stage stage : Stage.values()) {
+            LatencyHistogram histogram = histogram(stage);
+            if (histogram.count() == 0) {
+                continue;
+            }
+            sb.append(String.format(Locale.ROOT, "%-10s %8d %10.3f", stage.label(), histogram.count(), histogram.mean() / 1e6));
+            for (double p : PERCENTILES) {
+                sb.append(String.format(Locale.ROOT, " %10.3f", histogram.percentile(p) / 1e6));
+            }
+            sb.append(String.format(Locale.ROOT, " %10.3f%n", histogram.max() / 1e6));
+        }
+        long queries = histogram(Stage.QUERY).count();
+        sb.append(String.format(Locale.ROOT, "%d postings scored and %d documents touched over %d queries",
+                postingsScored.get(), docsTouched.get(), queries));
+        return sb.toString();
+    }
+
+    // Returns the latencies and counters as a JSON object
+    public String toJson() {
+        StringBuilder sb = new StringBuilder("{\"stages\": {");
+        boolean first = true;
+        for (Stage stage : Stage.values()) {
+            LatencyHistogram histogram = histogram(stage);
+            if (histogram.count() == 0) {
+                continue;
+            }
+            sb.append(first ? "\n" : ",\n");
+            first = false;
+            sb.append(String.format(Locale.ROOT, "  \"%s\": {\"count\": %d, \"mean_ms\": %.4f",
+                    stage.label(), histogram.count(), histogram.mean() / 1e6));
+            for (double p : PERCENTILES) {
+                String name = p == Math.rint(p) ? String.valueOf((int) p) : String.valueOf(p).replace(".", "");
+                sb.append(String.format(Locale.ROOT, ", \"p%s_ms\": %.4f", name, histogram.percentile(p) / 1e6));
+            }
+            sb.append(String.format(Locale.ROOT, ", \"max_ms\": %.4f}", histogram.max() / 1e6));
+        }
+        sb.append("},\n\"counters\": {\"queries\": ").append(histogram(Stage.QUERY).count())
+          .append(", \"postings_scored\": ").append(postingsScored.get())
+          .append(", \"documents_touched\": ").append(docsTouched.get()).append("}}\n");
+        return sb.toString();
+    }
+
+    // Writes the JSON of toJson() to a file, replacing it if it exists
+    public void write(String path) throws IOException {
+        BufferedWriter writer = new BufferedWriter(new FileWriter(path));
+        try {
+            writer.write(toJson());
+        } finally {
+            writer.close();
+        }
+    }
+}
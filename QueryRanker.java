@@ -0,0 +1,161 @@
+/*
+ * Date: October 16, 2026
+ * Name: Matthew Chan
+ *
+ * Program Description:
+ * The QueryRanker Java class ranks a ParsedQuery with BM25 into a TopDocs heap, for the
+ * programs that search one query at a time. A phrase is scored like one more query term: its
+ * document frequency is the number of documents that contain it and its term frequency is the
+ * number of times it occurs. By default every posting is scored term-at-a-time into a dense
+ * ScoreAccumulator; with a DaatSearcher algorithm the query is ranked document-at-a-time and
+ * documents that cannot reach the top k are skipped. A ranker keeps its accumulator between
+ * queries and is not thread safe, so each thread uses a ranker of its own. With setMetrics, the
+ * time of each stage of ranking and the postings and documents scored are recorded.
+ *
+ * A wildcard pattern is expanded to at most setMaxExpansions terms of the lexicon, the ones the
+ * most documents contain, and is scored like a phrase: the postings of its terms are merged
+ * into one list, whose document frequency is the number of documents that contain any of the
+ * terms and whose term frequency is the sum of their counts. A rare match, such as a misspelling,
+ * then does not outweigh the rest of the query with its high idf.
+ *
+ */
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class QueryRanker {
+
+    // Terms a wildcard pattern is expanded to unless setMaxExpansions says otherwise
+    public static final int DEFAULT_MAX_EXPANSIONS = 64;
+
+    private final SegmentedIndex index;
+    private final double N;
+    private final double[] lengthNorms;         // docID -> K
+    private final DaatSearcher.Algorithm algorithm;     // null for exhaustive term-at-a-time
+    private final DaatSearcher searcher;
+    private final ScoreAccumulator accumulator;
+    private QueryMetrics metrics;               // null when nothing is recorded
+    private int maxExpansions = DEFAULT_MAX_EXPANSIONS;
+
+    public QueryRanker(SegmentedIndex index, double k1, double b, double[] lengthNorms, DaatSearcher.Algorithm algorithm) {
+        this.index = index;
+        this.N = index.numDocs();
+        this.lengthNorms = lengthNorms;
+        this.algorithm = algorithm;
+        this.searcher = new DaatSearcher(index, k1, b, lengthNorms);
+        this.accumulator = algorithm == null ? new ScoreAccumulator(index.numDocs()) : null;
+    }
+
+    // Records the time of each stage of ranking, and the work done, in metrics from now on
+    public void setMetrics(QueryMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    // Expands each wildcard pattern to at most maxExpansions terms from now on
+    public void setMaxExpansions(int maxExpansions) {
+        if (maxExpansions < 1) {
+            throw new IllegalArgumentException("A wildcard must be expanded to at least 1 term, not " + maxExpansions);
+        }
+        this.maxExpansions = maxExpansions;
+    }
+
+    // Returns the terms a wildcard pattern is expanded to
+    public List<String> expand(String wildcard) {
+        return index.expand(wildcard, maxExpansions);
+    }
+
+    // Ranks a query into top, which is cleared first and sorted at the end
+    public void rank(ParsedQuery query, TopDocs top) {
+        long start = metrics != null ? System.nanoTime() : 0;
+        if (algorithm != null) {
+            // Phrases get a cursor of their own
+            long scoredBefore = searcher.postingsScored();
+            long docsBefore = searcher.docsScored();
+            List<PostingsCursor> cursors = searcher.cursors(query.tokens());
+            List<List<String>> expansions = expandAll(query);
+            start = lap(QueryMetrics.Stage.LEXICON, start);
+            for (int i = 0; i < query.numPhrases(); i++) {
+                int[] postings = index.getPhrasePostings(query.phrase(i), query.slop(i));
+                if (postings != null) {
+                    cursors.add(searcher.cursor(postings));
+                }
+            }
+            for (List<String> terms : expansions) {
+                int[] postings = index.getUnionPostings(terms);
+                if (postings != null) {
+                    cursors.add(searcher.cursor(postings));
+                }
+            }
+            start = lap(QueryMetrics.Stage.POSTINGS, start);
+            searcher.search(cursors, top, algorithm);
+            lap(QueryMetrics.Stage.SCORING, start);
+            if (metrics != null) {
+                metrics.addPostingsScored(searcher.postingsScored() - scoredBefore);
+                metrics.addDocsTouched(searcher.docsScored() - docsBefore);
+            }
+            return;
+        }
+
+        // Look every term up, then fetch the postings of each, then score them, so that each
+        // stage is timed once per query
+        List<String> tokens = query.tokens();
+        int[][] termIDs = new int[tokens.size()][];
+        for (int i = 0; i < tokens.size(); i++) {
+            termIDs[i] = index.termIDs(tokens.get(i));
+        }
+        List<List<String>> expansions = expandAll(query);
+        start = lap(QueryMetrics.Stage.LEXICON, start);
+
+        // [doc id, count of term, doc id, count of term, ...] of each term, then of each phrase,
+        // which is scored like a term with the documents and counts of its occurrences, then of
+        // each wildcard, scored like a term with the merged postings of its expansions
+        int[][] postings = new int[tokens.size() + query.numPhrases() + expansions.size()][];
+        for (int i = 0; i < tokens.size(); i++) {
+            postings[i] = index.getPostings(termIDs[i]);
+        }
+        for (int i = 0; i < query.numPhrases(); i++) {
+            postings[tokens.size() + i] = index.getPhrasePostings(query.phrase(i), query.slop(i));
+        }
+        for (int i = 0; i < expansions.size(); i++) {
+            postings[tokens.size() + query.numPhrases() + i] = index.getUnionPostings(expansions.get(i));
+        }
+        start = lap(QueryMetrics.Stage.POSTINGS, start);
+
+        long postingsScored = 0;
+        for (int[] list : postings) {
+            if (list != null) {
+                accumulate(list);
+                postingsScored += list.length / 2;
+            }
+        }
+        int docsTouched = accumulator.size();
+        start = lap(QueryMetrics.Stage.SCORING, start);
+        accumulator.collect(top);
+        lap(QueryMetrics.Stage.TOP_K, start);
+        if (metrics != null) {
+            metrics.addPostingsScored(postingsScored);
+            metrics.addDocsTouched(docsTouched);
+        }
+    }
+
+    // Returns the terms each wildcard pattern of a query is expanded to
+    private List<List<String>> expandAll(ParsedQuery query) {
+        List<List<String>> expansions = new ArrayList<List<String>>();
+        for (String wildcard : query.wildcards()) {
+            expansions.add(expand(wildcard));
+        }
+        return expansions;
+    }
+
+    // Records a stage that started at start when there are metrics, and returns when it ended
+    private long lap(QueryMetrics.Stage stage, long start) {
+        return metrics != null ? metrics.lap(stage, start) : start;
+    }
+
+    // Adds the BM25 weight of a term (or phrase) to the score of every document in its postings
+    private void accumulate(int[] postings) {
+        double n = postings.length / 2;
+        double idf = Math.log((N - n + 0.5) / (n + 0.5));
+        accumulator.add(postings, idf, lengthNorms);
+    }
+}
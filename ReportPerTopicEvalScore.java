@@ -28,11 +28,11 @@ import java.util.ArrayList;
 
 public class ReportPerTopicEvalScore {
 
-    // Calculates Average Precision for a given query ID
-    private static float calculateAveragePrecision(String queryID, 
-                                                   Results results, 
-                                                   RelevanceJudgements relevanceJudgments) 
-                                                   throws Exception {
+    // Calculates Average Precision for a given query ID, also used by BM25Sweep
+    static float calculateAveragePrecision(String queryID, 
+                                           Results results, 
+                                           RelevanceJudgements relevanceJudgments) 
+                                           throws Exception {
         float rel = relevanceJudgments.NumRelevant(queryID);
         ArrayList<Results.Result> resultsList = results.QueryResults(queryID);
         if (resultsList == null) { return 0; }
@@ -61,11 +61,11 @@ public class ReportPerTopicEvalScore {
         return averagePrecision;
     }
 
-    // Calculates Precision at rank 10 for a given query ID
-    private static float calculatePrecision(String queryID, 
-                                            Results results, 
-                                            RelevanceJudgements relevanceJudgments) 
-                                            throws Exception {
+    // Calculates Precision at rank 10 for a given query ID, also used by BM25Sweep
+    static float calculatePrecision(String queryID, 
+                                    Results results, 
+                                    RelevanceJudgements relevanceJudgments) 
+                                    throws Exception {
         ArrayList<Results.Result> resultsList = results.QueryResults(queryID);
         if (resultsList == null) { return 0; }
         float n = 0;
@@ -84,12 +84,12 @@ public class ReportPerTopicEvalScore {
         return precision;
     }
 
-    // Calculates Normalized Discounted Cumulative Gain (NDCG) for a given query ID
-    private static float calculateNDCG(String queryID, 
-                                       Results results, 
-                                       RelevanceJudgements relevanceJudgments, 
-                                       int maxRank) 
-                                       throws Exception {
+    // Calculates Normalized Discounted Cumulative Gain (NDCG) for a given query ID, also used by BM25Sweep
+    static float calculateNDCG(String queryID, 
+                               Results results, 
+                               RelevanceJudgements relevanceJudgments, 
+                               int maxRank) 
+                               throws Exception {
         float dcg = 0;
         float i = 1;
         ArrayList<Results.Result> resultsList = results.QueryResults(queryID);
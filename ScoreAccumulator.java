@@ -0,0 +1,61 @@
+/*
+ * Date: October 16, 2026
+ * Name: Matthew Chan
+ *
+ * Program Description:
+ * The ScoreAccumulator Java class adds up BM25 scores term-at-a-time in a dense array of
+ * primitive doubles indexed by docID, so adding a posting's score is one array update with
+ * no boxing or hashing. The docIDs that received a score are kept in a touched list, which
+ * is all that has to be visited to pick the top k and to reset the array for the next query,
+ * so the accumulator is allocated once and reused. Scores are added in the order the terms
+ * are given, so they are the same doubles the boxed accumulators produced.
+ *
+ */
+
+public class ScoreAccumulator {
+
+    private final double[] scores;      // docID -> score of the current query
+    private final boolean[] touched;    // docID -> whether it has a score
+    private final int[] touchedDocs;    // docIDs with a score, in the order they were first scored
+    private int numTouched = 0;
+
+    public ScoreAccumulator(int numDocs) {
+        this.scores = new double[numDocs];
+        this.touched = new boolean[numDocs];
+        this.touchedDocs = new int[numDocs];
+    }
+
+    // Adds the BM25 score of every posting in [docID, count, docID, count, ...] to its document,
+    // lengthNorms holds the length normalization K of each docID
+    public void add(int[] postings, double idf, double[] lengthNorms) {
+        for (int j = 0; j < postings.length; j = j + 2) {
+            int docID = postings[j];
+            double termFreq = postings[j + 1];
+            double tf = termFreq / (lengthNorms[docID] + termFreq);
+            if (!touched[docID]) {
+                touched[docID] = true;
+                touchedDocs[numTouched++] = docID;
+            }
+            scores[docID] += tf * idf;
+        }
+    }
+
+    // Returns the number of documents with a score
+    public int size() {
+        return numTouched;
+    }
+
+    // Offers every scored document to top, which is cleared first and sorted at the end, then
+    // empties the accumulator for the next query
+    public void collect(TopDocs top) {
+        top.clear();
+        for (int i = 0; i < numTouched; i++) {
+            int docID = touchedDocs[i];
+            top.add(docID, scores[docID]);
+            scores[docID] = 0.0;
+            touched[docID] = false;
+        }
+        numTouched = 0;
+        top.sort();
+    }
+}
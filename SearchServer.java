@@ -0,0 +1,274 @@
+/*
+ * Date: October 16, 2026
+ * Name: Matthew Chan
+ *
+ * Program Description:
+ * The SearchServer Java program opens an index once and answers BM25 queries over HTTP on
+ * localhost until it is stopped, so the index is not loaded again for every search and many
+ * users can search at the same time. It uses the JDK's built-in HttpServer with a fixed pool
+ * of handler threads; each thread ranks with a QueryRanker of its own over the shared,
+ * read-only SegmentedIndex. Queries are parsed the same way as in InteractiveBM25, so they
+ * can hold phrases and wildcards, and are stemmed when the index was built with stemming. The decoded
+ * postings of hot terms are kept in a PostingsCache shared by the handler threads.
+ *
+ * GET /search?q=<query>&k=<number of results> returns the ranked documents as JSON:
+ *
+ *   {"query": "...", "took_ms": 1.234, "results": [
+ *     {"rank": 1, "docno": "LA010189-0001", "score": 12.3, "headline": "...",
+ *      "date": "...", "snippet": "..."}, ...]}
+ *
+ * k is 10 unless given and at most 1000. A request without q, or with a bad k, gets a 400
+ * response with {"error": "..."}.
+ *
+ * GET /metrics returns the latency histograms of every stage of the queries answered so far
+ * as JSON (see QueryMetrics). The summary is printed when the server stops, and with
+ * --metrics-out it is also written to a JSON file then.
+ *
+ * Command Line Argument Inputs:
+ * javac SearchServer.java
+ * java SearchServer.java latimes_index
+ * java SearchServer.java latimes_index --port 8080 --threads 16 --algorithm wand
+ * java SearchServer.java latimes_index --postings-cache-mb 256
+ * java SearchServer.java latimes_index --max-expansions 128
+ * java SearchServer.java latimes_index --k1 0.9 --b 0.4
+ * java SearchServer.java latimes_index --metrics-out metrics.json
+ *
+ */
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+public class SearchServer {
+
+    // Largest number of results a request can ask for
+    private static final int MAX_RESULTS = 1000;
+
+    private final SegmentedIndex index;
+    private final ThreadLocal<QueryRanker> rankers;
+    private final QueryMetrics metrics = new QueryMetrics();     // shared by the handler threads
+
+    private SearchServer(SegmentedIndex index, double k1, double b, DaatSearcher.Algorithm algorithm, int maxExpansions) {
+        this.index = index;
+        double[] lengthNorms = index.lengthNorms(k1, b);
+        this.rankers = ThreadLocal.withInitial(() -> {
+            QueryRanker ranker = new QueryRanker(index, k1, b, lengthNorms, algorithm);
+            ranker.setMetrics(metrics);
+            ranker.setMaxExpansions(maxExpansions);
+            return ranker;
+        });
+    }
+
+    // Returns a string as a JSON string literal
+    static String quote(String text) {
+        StringBuilder sb = new StringBuilder(text.length() + 2);
+        sb.append('"');
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            switch (c) {
+                case '"':
+                    sb.append("\\\"");
+                    break;
+                case '\\':
+                    sb.append("\\\\");
+                    break;
+                case '\n':
+                    sb.append("\\n");
+                    break;
+                case '\r':
+                    sb.append("\\r");
+                    break;
+                case '\t':
+                    sb.append("\\t");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        sb.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        sb.append(c);
+                    }
+            }
+        }
+        sb.append('"');
+        return sb.toString();
+    }
+
+    // Parses the parameters of a raw URL query string
+    private static Map<String, String> parseParameters(String rawQuery) {
+        Map<String, String> parameters = new HashMap<String, String>();
+        if (rawQuery == null) {
+            return parameters;
+        }
+        for (String pair : rawQuery.split("&")) {
+            int equals = pair.indexOf('=');
+            String name = equals >= 0 ? pair.substring(0, equals) : pair;
+            String value = equals >= 0 ? pair.substring(equals + 1) : "";
+            parameters.put(URLDecoder.decode(name, StandardCharsets.UTF_8), URLDecoder.decode(value, StandardCharsets.UTF_8));
+        }
+        return parameters;
+    }
+
+    // Sends a JSON response and closes the exchange
+    private static void send(HttpExchange exchange, int status, String json) throws IOException {
+        byte[] body = json.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, body.length);
+        OutputStream out = exchange.getResponseBody();
+        out.write(body);
+        out.close();
+    }
+
+    // Answers GET /search
+    private void handleSearch(HttpExchange exchange) throws IOException {
+        try {
+            if (!exchange.getRequestMethod().equals("GET")) {
+                send(exchange, 405, "{\"error\": \"Only GET is supported\"}");
+                return;
+            }
+            Map<String, String> parameters = parseParameters(exchange.getRequestURI().getRawQuery());
+            String query = parameters.get("q");
+            if (query == null || query.isBlank()) {
+                send(exchange, 400, "{\"error\": \"Please include a query in the q parameter\"}");
+                return;
+            }
+            int k;
+            try {
+                k = Integer.parseInt(parameters.getOrDefault("k", "10"));
+            } catch (NumberFormatException e) {
+                k = -1;
+            }
+            if (k < 1 || k > MAX_RESULTS) {
+                send(exchange, 400, "{\"error\": \"k must be a number from 1 to " + MAX_RESULTS + "\"}");
+                return;
+            }
+
+            long startTime = System.nanoTime();
+            ParsedQuery parsedQuery = ParsedQuery.parse(query, index.stem(), index.hasPositions());
+            metrics.lap(QueryMetrics.Stage.TOKENIZE, startTime);
+            TopDocs top = new TopDocs(k, index);
+            if (!parsedQuery.isEmpty()) {
+                rankers.get().rank(parsedQuery, top);
+            }
+
+            StringBuilder json = new StringBuilder();
+            json.append("{\"query\": ").append(quote(query)).append(", \"results\": [");
+            for (int i = 0; i < top.size(); i++) {
+                long summaryStart = System.nanoTime();
+                String document = index.getDocument(top.docID(i));
+                summaryStart = metrics.lap(QueryMetrics.Stage.DOCSTORE, summaryStart);
+                DocumentSummary summary = DocumentSummary.of(document, parsedQuery.snippetTokens());
+                metrics.lap(QueryMetrics.Stage.SNIPPET, summaryStart);
+                json.append(i == 0 ? "\n" : ",\n");
+                json.append("  {\"rank\": ").append(i + 1)
+                    .append(", \"docno\": ").append(quote(index.docno(top.docID(i))))
+                    .append(", \"score\": ").append(top.score(i))
+                    .append(", \"headline\": ").append(quote(summary.headline()))
+                    .append(", \"date\": ").append(quote(summary.date()))
+                    .append(", \"snippet\": ").append(quote(summary.snippet()))
+                    .append("}");
+            }
+            float tookMillis = (metrics.lap(QueryMetrics.Stage.QUERY, startTime) - startTime) / 1e6f;
+            json.append("], \"took_ms\": ").append(String.format(Locale.ROOT, "%.3f", tookMillis)).append("}\n");
+            send(exchange, 200, json.toString());
+        } catch (RuntimeException | IOException e) {
+            send(exchange, 500, "{\"error\": " + quote(String.valueOf(e)) + "}");
+        } finally {
+            exchange.close();
+        }
+    }
+
+    // Answers GET /metrics
+    private void handleMetrics(HttpExchange exchange) throws IOException {
+        try {
+            if (!exchange.getRequestMethod().equals("GET")) {
+                send(exchange, 405, "{\"error\": \"Only GET is supported\"}");
+                return;
+            }
+            send(exchange, 200, metrics.toJson());
+        } finally {
+            exchange.close();
+        }
+    }
+
+    public static void main(String[] args) throws FileNotFoundException, IOException {
+        // Throw an error if 1 argument is not given and give a help message
+        Options options = new Options(args);
+        if (options.numPositional() != 1) {
+            throw new IllegalArgumentException("Please include a valid path to an index. For example, 'java SearchServer.java latimes_index'");
+        }
+
+        // Throw an error if the index path does not exist
+        String dataPath = options.positional(0);
+        if (!new File(dataPath).exists()) {
+            throw new FileNotFoundException(dataPath + " path does not exist");
+        }
+
+        int port = options.getInt("port", 8080);
+        int numThreads = options.getInt("threads", Runtime.getRuntime().availableProcessors());
+        if (numThreads < 1) {
+            throw new IllegalArgumentException("--threads must be at least 1");
+        }
+        String algorithmName = options.get("algorithm", "exhaustive");
+        DaatSearcher.Algorithm algorithm = algorithmName.equals("exhaustive") ? null : DaatSearcher.Algorithm.parse(algorithmName);
+        int maxExpansions = options.getInt("max-expansions", QueryRanker.DEFAULT_MAX_EXPANSIONS);
+        if (maxExpansions < 1) {
+            throw new IllegalArgumentException("--max-expansions must be at least 1");
+        }
+
+        // Open every segment of the index once, it is shared by every request
+        long startTime = System.nanoTime();
+        SegmentedIndex index = SegmentedIndex.open(dataPath);
+        index.warmUp(options.getInt("warmup", 0));
+        index.setPostingsCache(options.getInt("postings-cache-mb", 64) * 1048576L);
+        SearchServer searchServer = new SearchServer(index, options.getDouble("k1", 1.2), options.getDouble("b", 0.75), algorithm, maxExpansions);
+
+        // Send small responses right away instead of waiting on delayed acknowledgements, then
+        // only accept connections from this machine
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+        HttpServer server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        ExecutorService handlers = Executors.newFixedThreadPool(numThreads);
+        server.setExecutor(handlers);
+        server.createContext("/search", searchServer::handleSearch);
+        server.createContext("/metrics", searchServer::handleMetrics);
+        String metricsPath = options.has("metrics-out") ? options.get("metrics-out", "metrics.json") : null;
+
+        // Stop accepting requests and close the index when the program is stopped
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            server.stop(1);
+            handlers.shutdown();
+            if (index.postingsCache() != null) {
+                System.out.println("Postings cache: " + index.postingsCache().stats());
+            }
+            System.out.println(searchServer.metrics.summary());
+            if (metricsPath != null) {
+                try {
+                    searchServer.metrics.write(metricsPath);
+                } catch (IOException e) {
+                    System.err.println("Could not write the metrics: " + e.getMessage());
+                }
+            }
+            try {
+                index.close();
+            } catch (IOException e) {
+                System.err.println("Could not close the index: " + e.getMessage());
+            }
+        }));
+
+        server.start();
+        System.out.printf("Opened %d documents in %.2f seconds, serving http://localhost:%d/search?q=... with %d threads and %s%n",
+                index.numDocs(), (System.nanoTime() - startTime) / 1e9, server.getAddress().getPort(), numThreads, algorithmName);
+    }
+}
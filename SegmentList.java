@@ -0,0 +1,179 @@
+/*
+ * Date: October 16, 2026
+ * Name: Matthew Chan
+ *
+ * Program Description:
+ * The SegmentList Java class reads and writes segments.txt, the list of live segments of
+ * an index directory. An index is made of one or more immutable segments, each with its
+ * own lexicon, postings, doc lengths, docno map, docstore and optionally word positions,
+ * stored as files named "<segment>-<file>" in the index directory. The first line of
+ * segments.txt records whether the index is stemmed, and every following line names a
+ * segment and its number of documents, in docID order. The global docID of a document is
+ * the number of documents in the segments before it plus its docID inside its segment.
+ * segments.txt is replaced with an atomic rename, so readers always see either the old or
+ * the new list of segments.
+ *
+ * segments.txt:
+ * stem 1
+ * seg0 131896
+ * seg1 2012
+ *
+ */
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+
+public class SegmentList {
+
+    // Files that make up one segment
+    public static final String[] SEGMENT_FILES = {
+            "lexicon.bin", "postings.bin", "termTable.bin",
+            "indexMap.txt", "doc-lengths.txt", "docstore.bin", "docstore-index.bin",
+            "positions.bin", "positionTable.bin", "manifest.bin", "doc-lengths.bin",
+            "termBounds.bin", "blockMax.bin"
+    };
+
+    private final String indexRoot;
+    private final String stem;
+    private final List<String> names = new ArrayList<String>();
+    private final List<Integer> numDocs = new ArrayList<Integer>();
+
+    public SegmentList(String indexRoot, String stem) {
+        this.indexRoot = indexRoot;
+        this.stem = stem;
+    }
+
+    // Returns the path of segments.txt in an index directory
+    public static String listPath(String indexRoot) {
+        return indexRoot + "\\segments.txt";
+    }
+
+    // Returns the path of one of a segment's files
+    public static String path(String indexRoot, String segmentName, String fileName) {
+        return indexRoot + "\\" + segmentName + "-" + fileName;
+    }
+
+    // Deletes the files of a segment that is no longer listed, returns false if any file could not
+    // be deleted (for example while another process still has it mapped on Windows)
+    public static boolean deleteFiles(String indexRoot, String segmentName) {
+        boolean deleted = true;
+        for (String fileName : SEGMENT_FILES) {
+            File file = new File(path(indexRoot, segmentName, fileName));
+            if (file.exists() && !file.delete()) {
+                deleted = false;
+            }
+        }
+        return deleted;
+    }
+
+    // Reads segments.txt from an index directory
+    public static SegmentList read(String indexRoot) throws IOException {
+        File listFile = new File(listPath(indexRoot));
+        if (!listFile.exists()) {
+            throw new FileNotFoundException("segments.txt path does not exist");
+        }
+
+        BufferedReader reader = new BufferedReader(new FileReader(listFile));
+        String header = reader.readLine();
+        if (header == null || !header.startsWith("stem ")) {
+            reader.close();
+            throw new IOException("segments.txt is missing its stem line");
+        }
+        SegmentList segments = new SegmentList(indexRoot, header.substring(5).trim());
+
+        String line;
+        while ((line = reader.readLine()) != null) {
+            if (line.isEmpty()) {
+                continue;
+            }
+            String[] fields = line.split(" ");
+            if (fields.length != 2) {
+                reader.close();
+                throw new IOException("Bad line in segments.txt: " + line);
+            }
+            segments.add(fields[0], Integer.parseInt(fields[1]));
+        }
+        reader.close();
+        return segments;
+    }
+
+    // Writes segments.txt to a temporary file and renames it over the old list
+    public void write() throws IOException {
+        File tmpFile = new File(listPath(indexRoot) + ".tmp");
+        FileWriter writer = new FileWriter(tmpFile);
+        writer.write("stem " + stem + "\n");
+        for (int i = 0; i < names.size(); i++) {
+            writer.write(names.get(i) + " " + numDocs.get(i) + "\n");
+        }
+        writer.close();
+        Files.move(tmpFile.toPath(), new File(listPath(indexRoot)).toPath(),
+                   StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    // Appends a segment after the existing ones
+    public void add(String name, int docs) {
+        names.add(name);
+        numDocs.add(docs);
+    }
+
+    // Replaces the segments from first to last (inclusive) with a single merged segment
+    public void replace(int first, int last, String name, int docs) {
+        for (int i = last; i >= first; i--) {
+            names.remove(i);
+            numDocs.remove(i);
+        }
+        names.add(first, name);
+        numDocs.add(first, docs);
+    }
+
+    // Returns a segment name that is not used by any listed segment
+    public String nextName() {
+        int max = -1;
+        for (String name : names) {
+            max = Math.max(max, Integer.parseInt(name.substring(3)));
+        }
+        return "seg" + (max + 1);
+    }
+
+    public String indexRoot() {
+        return indexRoot;
+    }
+
+    public String stem() {
+        return stem;
+    }
+
+    public int size() {
+        return names.size();
+    }
+
+    public String name(int i) {
+        return names.get(i);
+    }
+
+    public int numDocs(int i) {
+        return numDocs.get(i);
+    }
+
+    // Returns whether a segment stores word positions
+    public boolean hasPositions(int i) {
+        return new File(path(indexRoot, names.get(i), "positions.bin")).exists();
+    }
+
+    // Returns the number of documents in all segments
+    public int totalDocs() {
+        int total = 0;
+        for (int docs : numDocs) {
+            total += docs;
+        }
+        return total;
+    }
+}
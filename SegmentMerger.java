@@ -0,0 +1,328 @@
+/*
+ * Date: October 16, 2026
+ * Name: Matthew Chan
+ *
+ * Program Description:
+ * The SegmentMerger Java program compacts the segments of an index directory. Every append
+ * adds a small segment, and each segment costs a lexicon lookup and a postings read per query
+ * term, so small segments are merged into larger ones with a log-structured merge policy: a
+ * segment's level is the number of times its document count can be divided by the merge
+ * factor, and whenever merge factor adjacent segments have the same level they are merged
+ * into one segment of the next level. Only adjacent segments are merged, so every document
+ * keeps its global docID. The merged segment is written under a new name and then swapped
+ * into segments.txt with an atomic rename, so queries that opened the old segments keep
+ * working, and the old segment files are deleted afterwards. IndexEngine runs the merge
+ * policy after each append, and this program can also be run on its own, optionally
+ * merging every segment into one with --all.
+ *
+ * Only one process may change an index directory at a time.
+ *
+ * Command Line Argument Inputs:
+ * javac SegmentMerger.java
+ * java SegmentMerger.java latimes_index
+ * java SegmentMerger.java latimes_index --merge-factor 10
+ * java SegmentMerger.java latimes_index --all
+ *
+ */
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.util.PriorityQueue;
+
+public class SegmentMerger {
+
+    // Number of same-level segments that are merged together by default
+    public static final int DEFAULT_MERGE_FACTOR = 4;
+
+    // Returns the level of a segment: how many times its size can be divided by the merge factor
+    private static int level(int numDocs, int mergeFactor) {
+        int level = 0;
+        while (numDocs >= mergeFactor) {
+            numDocs = numDocs / mergeFactor;
+            level++;
+        }
+        return level;
+    }
+
+    // Returns the first and last index of mergeFactor adjacent segments with the same level,
+    // or null if there are none
+    public static int[] findMerge(SegmentList segments, int mergeFactor) {
+        for (int first = 0; first + mergeFactor <= segments.size(); first++) {
+            int level = level(segments.numDocs(first), mergeFactor);
+            int last = first + 1;
+            while (last < first + mergeFactor && level(segments.numDocs(last), mergeFactor) == level) {
+                last++;
+            }
+            if (last == first + mergeFactor) {
+                return new int[] {first, last - 1};
+            }
+        }
+        return null;
+    }
+
+    // Applies the merge policy until no more segments need merging, returns the number of merges
+    public static int maybeMerge(String indexRoot, int mergeFactor) throws IOException {
+        if (mergeFactor < 2) {
+            throw new IllegalArgumentException("The merge factor must be at least 2");
+        }
+        int numMerges = 0;
+        SegmentList segments = SegmentList.read(indexRoot);
+        int[] range;
+        while ((range = findMerge(segments, mergeFactor)) != null) {
+            merge(segments, range[0], range[1]);
+            numMerges++;
+        }
+        return numMerges;
+    }
+
+    // Merges the segments from first to last (inclusive) into a new segment, commits the new
+    // segment list and deletes the old segments' files. Returns the new segment's name.
+    public static String merge(SegmentList segments, int first, int last) throws IOException {
+        String indexRoot = segments.indexRoot();
+        String name = segments.nextName();
+
+        int numDocs = 0;
+        try {
+            mergePostings(segments, first, last, name);
+            numDocs = concatDocs(segments, first, last, name);
+            writeStats(segments, first, last, name, numDocs);
+        } catch (IOException | RuntimeException e) {
+            SegmentList.deleteFiles(indexRoot, name);
+            throw e;
+        }
+
+        // Swap the merged segment in for the old ones, then remove the old files
+        String[] oldNames = new String[last - first + 1];
+        for (int i = first; i <= last; i++) {
+            oldNames[i - first] = segments.name(i);
+        }
+        segments.replace(first, last, name, numDocs);
+        segments.write();
+        for (String oldName : oldNames) {
+            if (!SegmentList.deleteFiles(indexRoot, oldName)) {
+                System.err.println("Could not delete every file of merged segment " + oldName);
+            }
+        }
+        return name;
+    }
+
+    // A sorted walk over one segment's terms, term IDs are in sorted term order
+    private static class TermCursor {
+        final int segmentIndex;
+        final int docBase;          // docID of the segment's first document in the merged segment
+        final String[] terms;       // term ID -> term
+        final PostingsReader postings;
+        int termID = 0;
+
+        TermCursor(int segmentIndex, int docBase, String[] terms, PostingsReader postings) {
+            this.segmentIndex = segmentIndex;
+            this.docBase = docBase;
+            this.terms = terms;
+            this.postings = postings;
+        }
+
+        String term() {
+            return terms[termID];
+        }
+    }
+
+    // Merges the lexicons and postings of the segments, renumbering docIDs from the first segment
+    private static void mergePostings(SegmentList segments, int first, int last, String name) throws IOException {
+        String indexRoot = segments.indexRoot();
+
+        // Positions are merged too if the segments store them, and all of them must agree
+        boolean storePositions = segments.hasPositions(first);
+        for (int i = first; i <= last; i++) {
+            if (segments.hasPositions(i) != storePositions) {
+                throw new IOException("Segments " + segments.name(first) + " and " + segments.name(i) +
+                                      " cannot be merged, only one of them stores positions");
+            }
+        }
+
+        // Terms are ordered by term, and by segment for the same term so docIDs stay increasing
+        PriorityQueue<TermCursor> queue = new PriorityQueue<TermCursor>((a, b) -> {
+            int termCompare = a.term().compareTo(b.term());
+            return termCompare != 0 ? termCompare : Integer.compare(a.segmentIndex, b.segmentIndex);
+        });
+        int docBase = 0;
+        for (int i = first; i <= last; i++) {
+            String segmentName = segments.name(i);
+            String[] terms = Lexicon.open(SegmentList.path(indexRoot, segmentName, "lexicon.bin")).terms();
+            PostingsReader postings = new PostingsReader(SegmentList.path(indexRoot, segmentName, "postings.bin"),
+                                                         SegmentList.path(indexRoot, segmentName, "termTable.bin"),
+                                                         storePositions ? SegmentList.path(indexRoot, segmentName, "positions.bin") : null,
+                                                         storePositions ? SegmentList.path(indexRoot, segmentName, "positionTable.bin") : null);
+            if (terms.length > 0) {
+                queue.add(new TermCursor(i, docBase, terms, postings));
+            }
+            docBase += segments.numDocs(i);
+        }
+
+        Lexicon.Writer lexicon = new Lexicon.Writer(SegmentList.path(indexRoot, name, "lexicon.bin"));
+        PostingsWriter writer = new PostingsWriter(SegmentList.path(indexRoot, name, "postings.bin"),
+                                                   SegmentList.path(indexRoot, name, "termTable.bin"),
+                                                   storePositions ? SegmentList.path(indexRoot, name, "positions.bin") : null,
+                                                   storePositions ? SegmentList.path(indexRoot, name, "positionTable.bin") : null);
+        writer.storeBounds(SegmentList.path(indexRoot, name, "termBounds.bin"), SegmentList.path(indexRoot, name, "blockMax.bin"),
+                           mergedDocLengths(segments, first, last));
+        int[] positions = new int[64];
+        int termID = 0;
+        while (!queue.isEmpty()) {
+            String term = queue.peek().term();
+            lexicon.add(term);
+
+            writer.startTerm(termID);
+            while (!queue.isEmpty() && queue.peek().term().equals(term)) {
+                TermCursor cursor = queue.poll();
+                int[] postings = cursor.postings.getPostings(cursor.termID);
+                PostingsReader.PositionReader positionReader = storePositions ? cursor.postings.positions(cursor.termID) : null;
+                for (int j = 0; j < postings.length; j = j + 2) {
+                    int count = postings[j + 1];
+                    if (positionReader == null) {
+                        writer.addPosting(postings[j] + cursor.docBase, count);
+                        continue;
+                    }
+                    if (positions.length < count) {
+                        positions = new int[Math.max(count, positions.length * 2)];
+                    }
+                    positionReader.read(count, positions);
+                    writer.addPosting(postings[j] + cursor.docBase, count, positions, 0);
+                }
+                cursor.termID++;
+                if (cursor.termID < cursor.terms.length) {
+                    queue.add(cursor);
+                }
+            }
+            writer.endTerm();
+            termID++;
+        }
+        writer.close();
+        lexicon.close();
+    }
+
+    // Returns the doc lengths of the segments from first to last, in merged docID order
+    private static int[] mergedDocLengths(SegmentList segments, int first, int last) throws IOException {
+        IntArrayList docLengths = new IntArrayList(1 << 16);
+        for (int i = first; i <= last; i++) {
+            CollectionStats stats = CollectionStats.read(segments.indexRoot(), segments.name(i));
+            for (int docID = 0; docID < stats.numDocs(); docID++) {
+                docLengths.add(stats.docLength(docID));
+            }
+        }
+        return docLengths.toArray();
+    }
+
+    // Concatenates the docno maps, doc lengths and docstores of the segments, returns the number of documents
+    private static int concatDocs(SegmentList segments, int first, int last, String name) throws IOException {
+        String indexRoot = segments.indexRoot();
+
+        // Text files are one line per document, in docID order
+        for (String fileName : new String[] {"indexMap.txt", "doc-lengths.txt"}) {
+            OutputStream out = new FileOutputStream(SegmentList.path(indexRoot, name, fileName));
+            for (int i = first; i <= last; i++) {
+                Files.copy(new File(SegmentList.path(indexRoot, segments.name(i), fileName)).toPath(), out);
+            }
+            out.close();
+        }
+
+        // Compressed blocks are copied as they are, only the block offsets in the docstore index move
+        int numDocs = 0;
+        long storeShift = 0;
+        FileChannel storeOut = new FileOutputStream(SegmentList.path(indexRoot, name, "docstore.bin")).getChannel();
+        DataOutputStream indexOut = new DataOutputStream(new BufferedOutputStream(
+                new FileOutputStream(SegmentList.path(indexRoot, name, "docstore-index.bin")), 1 << 16));
+        try {
+            for (int i = first; i <= last; i++) {
+                String segmentName = segments.name(i);
+                FileChannel storeIn = new FileInputStream(SegmentList.path(indexRoot, segmentName, "docstore.bin")).getChannel();
+                long storeLength = storeIn.size();
+                long copied = 0;
+                while (copied < storeLength) {
+                    copied += storeIn.transferTo(copied, storeLength - copied, storeOut);
+                }
+                storeIn.close();
+
+                File indexFile = new File(SegmentList.path(indexRoot, segmentName, "docstore-index.bin"));
+                if (!indexFile.exists()) {
+                    throw new FileNotFoundException(indexFile + " path does not exist");
+                }
+                int segmentDocs = (int) (indexFile.length() / DocStoreWriter.DOC_RECORD_SIZE);
+                DataInputStream indexIn = new DataInputStream(new BufferedInputStream(new FileInputStream(indexFile), 1 << 16));
+                for (int docID = 0; docID < segmentDocs; docID++) {
+                    indexOut.writeLong(indexIn.readLong() + storeShift);
+                    indexOut.writeInt(indexIn.readInt());
+                    indexOut.writeInt(indexIn.readInt());
+                    indexOut.writeInt(indexIn.readInt());
+                }
+                indexIn.close();
+
+                if (segmentDocs != segments.numDocs(i)) {
+                    throw new IOException("Segment " + segmentName + " has " + segmentDocs +
+                                          " stored documents but segments.txt lists " + segments.numDocs(i));
+                }
+                numDocs += segmentDocs;
+                storeShift += storeLength;
+            }
+        } finally {
+            storeOut.close();
+            indexOut.close();
+        }
+        return numDocs;
+    }
+
+    // Concatenates the binary doc lengths of the segments and writes the merged segment's manifest
+    private static void writeStats(SegmentList segments, int first, int last, String name, int numDocs) throws IOException {
+        String indexRoot = segments.indexRoot();
+        long totalTokens = 0;
+        OutputStream out = new FileOutputStream(SegmentList.path(indexRoot, name, "doc-lengths.bin"));
+        try {
+            for (int i = first; i <= last; i++) {
+                CollectionStats stats = CollectionStats.read(indexRoot, segments.name(i));
+                totalTokens += stats.totalTokens();
+                Files.copy(new File(SegmentList.path(indexRoot, segments.name(i), "doc-lengths.bin")).toPath(), out);
+            }
+        } finally {
+            out.close();
+        }
+        CollectionStats.writeManifest(indexRoot, name, numDocs, totalTokens, segments.stem());
+    }
+
+    public static void main(String[] args) throws IOException {
+        Options options = new Options(args);
+        if (options.numPositional() != 1) {
+            throw new IllegalArgumentException(
+                    "Please include a valid path to an index directory. For example: " +
+                    "'java SegmentMerger.java latimes_index'");
+        }
+        String indexRoot = options.positional(0);
+        if (!new File(indexRoot).exists()) {
+            throw new FileNotFoundException(indexRoot + " path does not exist");
+        }
+
+        long startTime = System.currentTimeMillis();
+        int numMerges;
+        if (options.has("all")) {
+            // Merge every segment into one
+            SegmentList segments = SegmentList.read(indexRoot);
+            numMerges = segments.size() > 1 ? 1 : 0;
+            if (numMerges > 0) {
+                merge(segments, 0, segments.size() - 1);
+            }
+        } else {
+            numMerges = maybeMerge(indexRoot, options.getInt("merge-factor", DEFAULT_MERGE_FACTOR));
+        }
+        float totalTime = (System.currentTimeMillis() - startTime) / 1000f;
+        System.out.printf("Ran %d segment merges in %.2f seconds, %d segments remain%n",
+                numMerges, totalTime, SegmentList.read(indexRoot).size());
+    }
+}
@@ -0,0 +1,627 @@
+/*
+ * Date: October 16, 2026
+ * Name: Matthew Chan
+ *
+ * Program Description:
+ * The SegmentedIndex Java class opens every segment listed in an index directory's
+ * segments.txt and searches them as one index. Each segment keeps its own front-coded
+ * Lexicon, postings, doc lengths, docno map and docstore, and numbers its documents from 0.
+ * Global docIDs are the segment's docID plus the number of documents in the segments before
+ * it, so the postings returned for a term are in increasing global docID order. Collection
+ * statistics (number of documents, average document length and document frequencies) are
+ * summed over all segments, so BM25 scores are the same as for a single index built from
+ * all of the documents at once. N and the total length come from each segment's binary
+ * manifest and the doc lengths are memory mapped, see CollectionStats.
+ *
+ * With a PostingsCache, the decoded lists of the terms that are asked for most often are kept
+ * in memory under a budget of bytes and shared by every query, instead of being decoded from
+ * the postings file each time. The returned postings must then not be modified.
+ *
+ * For document-at-a-time evaluation a term's postings can also be walked with a
+ * BlockPostingsCursor, which decodes each segment's list one block at a time and skips the
+ * blocks it does not need using the block max file.
+ *
+ * A wildcard pattern such as polit* is expanded to the terms that match it in every segment's
+ * lexicon, keeping the most frequent ones when there are too many, and their postings can be
+ * merged into one list that is scored like a single term.
+ *
+ * If every segment stores word positions, the index can also find the documents that contain
+ * a phrase. Each segment intersects the postings of the phrase's terms, starting from the
+ * shortest list, and decodes the positions of the documents that contain every term only,
+ * skipping the rest, before PhraseMatcher counts the phrase's occurrences.
+ *
+ */
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.TreeSet;
+
+public class SegmentedIndex {
+
+    // One open segment of the index
+    private static class Segment {
+        final int number;                   // position in segments.txt
+        final int docBase;
+        final Lexicon lexicon;
+        final PostingsReader postings;
+        final MappedByteBuffer termBounds;  // term ID -> [max count (int), max tf weight (float), first block (int)]
+        final MappedByteBuffer blockMax;    // block -> [last docID, offset in list, max count (int), max tf weight (float)]
+        final CollectionStats stats;
+        final List<String> docnos;
+        final DocStoreReader docStore;
+
+        Segment(String indexRoot, String name, int number, int docBase) throws IOException {
+            this.number = number;
+            this.docBase = docBase;
+
+            lexicon = Lexicon.open(SegmentList.path(indexRoot, name, "lexicon.bin"));
+
+            String positionsPath = SegmentList.path(indexRoot, name, "positions.bin");
+            boolean storesPositions = new File(positionsPath).exists();
+            postings = new PostingsReader(SegmentList.path(indexRoot, name, "postings.bin"),
+                                          SegmentList.path(indexRoot, name, "termTable.bin"),
+                                          storesPositions ? positionsPath : null,
+                                          storesPositions ? SegmentList.path(indexRoot, name, "positionTable.bin") : null);
+
+            termBounds = PostingsReader.map(SegmentList.path(indexRoot, name, "termBounds.bin"));
+            blockMax = PostingsReader.map(SegmentList.path(indexRoot, name, "blockMax.bin"));
+            stats = CollectionStats.read(indexRoot, name);
+            docnos = readLines(SegmentList.path(indexRoot, name, "indexMap.txt"));
+            if (docnos.size() != stats.numDocs()) {
+                throw new IOException("Segment " + name + " has " + docnos.size() +
+                                      " docnos but its manifest lists " + stats.numDocs() + " documents");
+            }
+
+            docStore = new DocStoreReader(SegmentList.path(indexRoot, name, "docstore.bin"),
+                                          SegmentList.path(indexRoot, name, "docstore-index.bin"));
+        }
+
+        int numDocs() {
+            return stats.numDocs();
+        }
+
+        // Returns an upper bound of the tf weight over postings whose stored max count and max tf
+        // weight are given, see weightUpperBound
+        double weightBound(int maxCount, double maxWeight, double k1, double b, double avgDocLength) {
+            if (k1 == PostingsWriter.BOUND_K1 && b == PostingsWriter.BOUND_B) {
+                double segmentAvg = (double) stats.totalTokens() / numDocs();
+                double ratio = Math.min(1.0, segmentAvg / avgDocLength);
+                return maxWeight >= 1.0 ? 1.0 : 1.0 / (1.0 + ratio * (1.0 / maxWeight - 1.0));
+            }
+            return maxCount / (k1 * (1 - b) + maxCount);
+        }
+    }
+
+    private final SegmentList segmentList;
+    private final Segment[] segments;
+    private final int numDocs;
+    private final long totalTokens;
+    private final double avgDocLength;
+    private PostingsCache postingsCache;    // null when lists are always decoded
+
+    private SegmentedIndex(SegmentList segmentList, Segment[] segments) {
+        this.segmentList = segmentList;
+        this.segments = segments;
+
+        int docs = 0;
+        long totalLength = 0;
+        for (Segment segment : segments) {
+            docs += segment.numDocs();
+            totalLength += segment.stats.totalTokens();
+        }
+        this.numDocs = docs;
+        this.totalTokens = totalLength;
+        this.avgDocLength = docs > 0 ? (double) totalLength / docs : -1.0;
+    }
+
+    // Opens every segment listed in the index directory's segments.txt
+    public static SegmentedIndex open(String indexRoot) throws IOException {
+        SegmentList segmentList = SegmentList.read(indexRoot);
+        Segment[] segments = new Segment[segmentList.size()];
+        int docBase = 0;
+        for (int i = 0; i < segments.length; i++) {
+            segments[i] = new Segment(indexRoot, segmentList.name(i), i, docBase);
+            if (!segments[i].stats.stem().equals(segmentList.stem())) {
+                throw new IOException("Segment " + segmentList.name(i) + " was built with stem " + segments[i].stats.stem() +
+                                      " but segments.txt lists stem " + segmentList.stem());
+            }
+            if (segments[i].numDocs() != segmentList.numDocs(i)) {
+                throw new IOException("Segment " + segmentList.name(i) + " has " + segments[i].numDocs() +
+                                      " documents but segments.txt lists " + segmentList.numDocs(i));
+            }
+            docBase += segments[i].numDocs();
+        }
+        return new SegmentedIndex(segmentList, segments);
+    }
+
+    // Reads the lines of a text file
+    private static List<String> readLines(String path) throws IOException {
+        File file = new File(path);
+        if (!file.exists()) {
+            throw new FileNotFoundException(path + " path does not exist");
+        }
+        return new ArrayList<String>(Files.readAllLines(file.toPath()));
+    }
+
+    // Returns the segment that holds a global docID
+    private Segment segmentOf(int docID) {
+        if (docID < 0 || docID >= numDocs) {
+            throw new IllegalArgumentException("docID " + docID + " is not in the index");
+        }
+        int low = 0;
+        int high = segments.length - 1;
+        while (low < high) {
+            int mid = (low + high + 1) >>> 1;
+            if (segments[mid].docBase <= docID) {
+                low = mid;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return segments[low];
+    }
+
+    // Returns whether the index was built with stemming ("0" or "1")
+    public String stem() {
+        return segmentList.stem();
+    }
+
+    // Returns the number of segments
+    public int numSegments() {
+        return segments.length;
+    }
+
+    // Returns the number of documents in all segments
+    public int numDocs() {
+        return numDocs;
+    }
+
+    // Returns the number of tokens in all segments
+    public long totalTokens() {
+        return totalTokens;
+    }
+
+    // Returns the average document length over all segments
+    public double avgDocLength() {
+        return avgDocLength;
+    }
+
+    // Returns the length in tokens of a document
+    public int docLength(int docID) {
+        Segment segment = segmentOf(docID);
+        return segment.stats.docLength(docID - segment.docBase);
+    }
+
+    // Returns the BM25 length normalization k1 * ((1 - b) + b * docLength / avgDocLength) of
+    // every document, indexed by global docID, so scoring a posting needs one array read
+    public double[] lengthNorms(double k1, double b) {
+        double[] norms = new double[numDocs];
+        for (Segment segment : segments) {
+            for (int i = 0; i < segment.numDocs(); i++) {
+                double docLength = segment.stats.docLength(i);
+                norms[segment.docBase + i] = k1 * ((1 - b) + b * docLength / avgDocLength);
+            }
+        }
+        return norms;
+    }
+
+    // Returns the docno of a document
+    public String docno(int docID) {
+        Segment segment = segmentOf(docID);
+        return segment.docnos.get(docID - segment.docBase);
+    }
+
+    // Returns the stored text of a document: its metadata followed by the raw document
+    public String getDocument(int docID) throws IOException {
+        Segment segment = segmentOf(docID);
+        return segment.docStore.getDocument(docID - segment.docBase);
+    }
+
+    // Returns every term of every segment, in sorted order
+    public List<String> terms() {
+        TreeSet<String> terms = new TreeSet<String>();
+        for (Segment segment : segments) {
+            terms.addAll(Arrays.asList(segment.lexicon.terms()));
+        }
+        return new ArrayList<String>(terms);
+    }
+
+    // Returns the number of documents in all segments that contain the term
+    public int documentFrequency(String term) {
+        int df = 0;
+        for (Segment segment : segments) {
+            int termID = segment.lexicon.termID(term);
+            if (termID >= 0) {
+                df += segment.postings.documentFrequency(termID);
+            }
+        }
+        return df;
+    }
+
+    // Keeps the decoded postings of hot terms in a cache of maxBytes shared by every thread, or
+    // decodes every list again when maxBytes is 0. Must be called before the index is searched.
+    public void setPostingsCache(long maxBytes) {
+        postingsCache = maxBytes > 0 ? new PostingsCache(maxBytes) : null;
+    }
+
+    // Returns the postings cache, or null if there is none
+    public PostingsCache postingsCache() {
+        return postingsCache;
+    }
+
+    // Returns the postings of a term in one segment with the segment's docIDs, from the cache
+    // when it holds them
+    private int[] segmentPostings(Segment segment, int termID) {
+        if (postingsCache == null) {
+            return segment.postings.getPostings(termID);
+        }
+        long key = ((long) segment.number << 32) | termID;
+        int[] postings = postingsCache.get(key);
+        if (postings == null) {
+            postings = segment.postings.getPostings(termID);
+            postingsCache.offer(key, postings);
+        }
+        return postings;
+    }
+
+    // Returns the term's ID in each segment, -1 in the segments that do not contain it
+    public int[] termIDs(String term) {
+        int[] termIDs = new int[segments.length];
+        for (int i = 0; i < segments.length; i++) {
+            termIDs[i] = segments[i].lexicon.termID(term);
+        }
+        return termIDs;
+    }
+
+    // Returns the postings of a term in all segments as [docID, count, docID, count, ...] with
+    // global docIDs, or null if no segment contains the term. The list may be shared through the
+    // postings cache and must not be modified.
+    public int[] getPostings(String term) {
+        return getPostings(termIDs(term));
+    }
+
+    // Returns the postings of a term given its ID in each segment from termIDs(), as above
+    public int[] getPostings(int[] termIDs) {
+        int df = 0;
+        for (int i = 0; i < segments.length; i++) {
+            if (termIDs[i] >= 0) {
+                df += segments[i].postings.documentFrequency(termIDs[i]);
+            }
+        }
+        if (df == 0) {
+            return null;
+        }
+
+        // The first segment's docIDs are already global, so its list can be returned as it is
+        if (termIDs[0] >= 0 && segments[0].postings.documentFrequency(termIDs[0]) == df) {
+            return segmentPostings(segments[0], termIDs[0]);
+        }
+
+        int[] output = new int[df * 2];
+        int pos = 0;
+        for (int i = 0; i < segments.length; i++) {
+            if (termIDs[i] < 0) {
+                continue;
+            }
+            Segment segment = segments[i];
+            int[] postings = segmentPostings(segment, termIDs[i]);
+            for (int j = 0; j < postings.length; j = j + 2) {
+                output[pos++] = postings[j] + segment.docBase;
+                output[pos++] = postings[j + 1];
+            }
+        }
+        return output;
+    }
+
+    // Returns the terms of any segment that match a wildcard pattern, where * matches any run of
+    // characters and ? matches one character, in sorted order. When more than maxTerms terms
+    // match, the maxTerms that the most documents contain are kept.
+    public List<String> expand(String pattern, int maxTerms) {
+        TreeSet<String> matches = new TreeSet<String>();
+        List<String> segmentMatches = new ArrayList<String>();
+        for (Segment segment : segments) {
+            segmentMatches.clear();
+            segment.lexicon.match(pattern, segmentMatches);
+            matches.addAll(segmentMatches);
+        }
+        List<String> terms = new ArrayList<String>(matches);
+        if (terms.size() <= maxTerms) {
+            return terms;
+        }
+
+        // Keep the most frequent terms, ties in term order
+        int[] df = new int[terms.size()];
+        Integer[] order = new Integer[terms.size()];
+        for (int i = 0; i < df.length; i++) {
+            df[i] = documentFrequency(terms.get(i));
+            order[i] = i;
+        }
+        Arrays.sort(order, (x, y) -> df[x] != df[y] ? Integer.compare(df[y], df[x]) : Integer.compare(x, y));
+        Arrays.sort(order, 0, maxTerms);
+        List<String> kept = new ArrayList<String>(maxTerms);
+        for (int i = 0; i < maxTerms; i++) {
+            kept.add(terms.get(order[i]));
+        }
+        return kept;
+    }
+
+    // Returns the documents that contain any of several terms as [docID, count, ...] with global
+    // docIDs, where a document's count is the sum of its counts of the terms, or null if no
+    // document contains one. The lists are merged in pairs, so each posting is copied once for
+    // every doubling of the number of lists. A single list may be shared through the postings
+    // cache and must not be modified.
+    public int[] getUnionPostings(List<String> terms) {
+        List<int[]> lists = new ArrayList<int[]>();
+        for (String term : terms) {
+            int[] postings = getPostings(term);
+            if (postings != null) {
+                lists.add(postings);
+            }
+        }
+        if (lists.isEmpty()) {
+            return null;
+        }
+        while (lists.size() > 1) {
+            List<int[]> merged = new ArrayList<int[]>((lists.size() + 1) / 2);
+            for (int i = 0; i + 1 < lists.size(); i += 2) {
+                merged.add(mergePostings(lists.get(i), lists.get(i + 1)));
+            }
+            if (lists.size() % 2 == 1) {
+                merged.add(lists.get(lists.size() - 1));
+            }
+            lists = merged;
+        }
+        return lists.get(0);
+    }
+
+    // Merges two postings lists in docID order, adding the counts of a document in both
+    private static int[] mergePostings(int[] a, int[] b) {
+        int[] output = new int[a.length + b.length];
+        int i = 0, j = 0, pos = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] < b[j]) {
+                output[pos++] = a[i++];
+                output[pos++] = a[i++];
+            } else if (b[j] < a[i]) {
+                output[pos++] = b[j++];
+                output[pos++] = b[j++];
+            } else {
+                output[pos++] = a[i];
+                output[pos++] = a[i + 1] + b[j + 1];
+                i += 2;
+                j += 2;
+            }
+        }
+        while (i < a.length) {
+            output[pos++] = a[i++];
+        }
+        while (j < b.length) {
+            output[pos++] = b[j++];
+        }
+        return pos == output.length ? output : Arrays.copyOf(output, pos);
+    }
+
+    // Returns an upper bound of the tf weight tf / (K + tf) of a term over all of its postings, for
+    // the given k1 and b and the collection's average doc length. With the parameters the bounds
+    // were stored for, a segment's max weight s was computed with the segment's own average doc
+    // length; K changes by at most the ratio r of the two averages, so the weight is at most
+    // 1 / (1 + min(1, r) * (1 / s - 1)). With any other parameters, K is at least k1 * (1 - b).
+    public double weightUpperBound(String term, double k1, double b) {
+        double bound = 0;
+        for (Segment segment : segments) {
+            int termID = segment.lexicon.termID(term);
+            if (termID < 0) {
+                continue;
+            }
+            int record = termID * PostingsWriter.BOUND_RECORD_SIZE;
+            bound = Math.max(bound, segment.weightBound(segment.termBounds.getInt(record),
+                                                        segment.termBounds.getFloat(record + 4), k1, b, avgDocLength));
+        }
+        return bound;
+    }
+
+    // Returns a cursor that decodes the postings of a term in all segments one block at a time,
+    // or null if no segment contains the term. The score bounds of the term and of each block
+    // are the tf weight bounds for k1 and b times idf, or 0 when idf is negative.
+    public BlockPostingsCursor blockCursor(String term, double idf, double k1, double b) {
+        int df = documentFrequency(term);
+        if (df == 0) {
+            return null;
+        }
+        int numBlocks = 0;
+        for (Segment segment : segments) {
+            int termID = segment.lexicon.termID(term);
+            if (termID >= 0) {
+                numBlocks += (segment.postings.documentFrequency(termID) + PostingsWriter.BLOCK_SIZE - 1) / PostingsWriter.BLOCK_SIZE;
+            }
+        }
+
+        List<ByteBuffer> buffers = new ArrayList<ByteBuffer>();
+        int[] blockBuffer = new int[numBlocks];
+        int[] blockStart = new int[numBlocks];
+        int[] blockBase = new int[numBlocks];
+        int[] blockLast = new int[numBlocks];
+        int[] blockSize = new int[numBlocks];
+        double[] blockBound = new double[numBlocks];
+        double termBound = 0;
+        int block = 0;
+        for (Segment segment : segments) {
+            int termID = segment.lexicon.termID(term);
+            if (termID < 0) {
+                continue;
+            }
+            int segmentDF = segment.postings.documentFrequency(termID);
+            int listOffset = segment.postings.listOffset(termID);
+            int firstBlock = segment.termBounds.getInt(termID * PostingsWriter.BOUND_RECORD_SIZE + 8);
+            int segmentBlocks = (segmentDF + PostingsWriter.BLOCK_SIZE - 1) / PostingsWriter.BLOCK_SIZE;
+            for (int j = 0; j < segmentBlocks; j++) {
+                int record = (firstBlock + j) * PostingsWriter.BLOCK_RECORD_SIZE;
+                double weightBound = segment.weightBound(segment.blockMax.getInt(record + 8),
+                                                         segment.blockMax.getFloat(record + 12), k1, b, avgDocLength);
+                blockBuffer[block] = buffers.size();
+                blockStart[block] = listOffset + segment.blockMax.getInt(record + 4);
+                blockBase[block] = j == 0 ? segment.docBase - 1 : blockLast[block - 1];
+                blockLast[block] = segment.docBase + segment.blockMax.getInt(record);
+                blockSize[block] = Math.min(PostingsWriter.BLOCK_SIZE, segmentDF - j * PostingsWriter.BLOCK_SIZE);
+                blockBound[block] = idf > 0 ? idf * weightBound : 0;
+                termBound = Math.max(termBound, blockBound[block]);
+                block++;
+            }
+            buffers.add(segment.postings.postingsBuffer());
+        }
+        return new BlockPostingsCursor(buffers.toArray(new ByteBuffer[0]), df, blockBuffer, blockStart, blockBase,
+                                       blockLast, blockSize, blockBound, idf, termBound);
+    }
+
+    // Returns whether every segment stores word positions, which phrase queries need
+    public boolean hasPositions() {
+        for (Segment segment : segments) {
+            if (!segment.postings.hasPositions()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Returns the documents that contain a phrase as [docID, occurrences, ...] with global docIDs,
+    // or null if no document does. With slop 0 the terms must be next to each other in order,
+    // otherwise they may be in any order within slop positions more than the phrase's length.
+    public int[] getPhrasePostings(String[] terms, int slop) {
+        if (!hasPositions()) {
+            throw new IllegalStateException("The index does not store positions, rebuild it with --positions");
+        }
+        if (terms.length == 0 || slop < 0) {
+            throw new IllegalArgumentException("A phrase needs at least one term and a slop of 0 or more");
+        }
+
+        // Number the distinct terms, and remember which one is at each place in the phrase
+        List<String> distinct = new ArrayList<String>();
+        int[] termAt = new int[terms.length];
+        for (int i = 0; i < terms.length; i++) {
+            int t = distinct.indexOf(terms[i]);
+            if (t < 0) {
+                t = distinct.size();
+                distinct.add(terms[i]);
+            }
+            termAt[i] = t;
+        }
+        int[] required = new int[distinct.size()];
+        for (int t : termAt) {
+            required[t]++;
+        }
+
+        IntArrayList output = new IntArrayList();
+        for (Segment segment : segments) {
+            matchPhrase(segment, distinct, termAt, required, slop, output);
+        }
+        return output.size() > 0 ? output.toArray() : null;
+    }
+
+    // Adds the documents of one segment that contain the phrase to output
+    private void matchPhrase(Segment segment, List<String> distinct, int[] termAt, int[] required,
+                                    int slop, IntArrayList output) {
+        int numTerms = distinct.size();
+        int[] termIDs = new int[numTerms];
+        int[][] postings = new int[numTerms][];
+        int shortest = 0;
+        for (int t = 0; t < numTerms; t++) {
+            termIDs[t] = segment.lexicon.termID(distinct.get(t));
+            if (termIDs[t] < 0) {
+                return;
+            }
+            postings[t] = segmentPostings(segment, termIDs[t]);
+            if (postings[t].length < postings[shortest].length) {
+                shortest = t;
+            }
+        }
+
+        // Readers over each term's positions, and the index of the posting each one is at
+        PostingsReader.PositionReader[] readers = new PostingsReader.PositionReader[numTerms];
+        int[] readerAt = new int[numTerms];
+        int[][] positions = new int[numTerms][];
+        int[] counts = new int[numTerms];
+        for (int t = 0; t < numTerms; t++) {
+            readers[t] = segment.postings.positions(termIDs[t]);
+            positions[t] = new int[16];
+        }
+        int[] cursors = new int[numTerms];
+        int[][] phrasePositions = new int[termAt.length][];
+        int[] phraseCounts = new int[termAt.length];
+        int maxSpan = termAt.length - 1 + slop;
+
+        // Each docID of the shortest list is looked for in the other lists, which only move forward
+        for (int j = 0; j < postings[shortest].length; j = j + 2) {
+            int docID = postings[shortest][j];
+            boolean inAll = true;
+            for (int t = 0; t < numTerms && inAll; t++) {
+                int[] list = postings[t];
+                int cursor = cursors[t];
+                while (cursor < list.length && list[cursor] < docID) {
+                    cursor = cursor + 2;
+                }
+                cursors[t] = cursor;
+                if (cursor == list.length) {
+                    return;
+                }
+                inAll = list[cursor] == docID;
+            }
+            if (!inAll) {
+                continue;
+            }
+
+            // Skip the positions of the postings before this document and read this document's
+            for (int t = 0; t < numTerms; t++) {
+                int[] list = postings[t];
+                int posting = cursors[t] / 2;
+                while (readerAt[t] < posting) {
+                    readers[t].skip(list[readerAt[t] * 2 + 1]);
+                    readerAt[t]++;
+                }
+                counts[t] = list[cursors[t] + 1];
+                if (positions[t].length < counts[t]) {
+                    positions[t] = new int[Math.max(counts[t], positions[t].length * 2)];
+                }
+                readers[t].read(counts[t], positions[t]);
+                readerAt[t]++;
+            }
+
+            int occurrences;
+            if (slop == 0) {
+                for (int i = 0; i < termAt.length; i++) {
+                    phrasePositions[i] = positions[termAt[i]];
+                    phraseCounts[i] = counts[termAt[i]];
+                }
+                occurrences = PhraseMatcher.countExact(phrasePositions, phraseCounts);
+            } else {
+                occurrences = PhraseMatcher.countWithin(positions, counts, required, maxSpan);
+            }
+            if (occurrences > 0) {
+                output.add(docID + segment.docBase);
+                output.add(occurrences);
+            }
+        }
+    }
+
+    // Touches the pages of each segment's numHotTerms longest postings lists
+    public long warmUp(int numHotTerms) {
+        long bytesTouched = 0;
+        for (Segment segment : segments) {
+            bytesTouched += segment.postings.warmUp(numHotTerms);
+        }
+        return bytesTouched;
+    }
+
+    // Closes the docstore of every segment
+    public void close() throws IOException {
+        for (Segment segment : segments) {
+            segment.docStore.close();
+        }
+    }
+}
@@ -0,0 +1,248 @@
+/*
+ * Date: October 16, 2026
+ * Name: Matthew Chan
+ *
+ * Program Description:
+ * The SpimiIndexer Java class builds the inverted index with single-pass in-memory indexing
+ * (SPIMI) under a fixed memory budget. Documents are added in docID order to an in-memory
+ * dictionary of term -> postings. When the estimated size of that dictionary reaches the
+ * budget, its terms are sorted and written to a temporary run file and the dictionary is
+ * cleared. At the end all runs are merged with a k-way merge into the final postings file.
+ * Term IDs are assigned in sorted term order during the merge, so the heap needed for the
+ * postings depends on the budget and not on the size of the collection.
+ *
+ * Run file: [number of terms (int)], then for each term in sorted order
+ *           [term (UTF), df (int), gap, count, gap, count, ...]
+ *
+ * When word positions are stored, each (gap, count) in a run is followed by the count
+ * position gaps of that posting, and they are passed on to the PostingsWriter at the merge.
+ *
+ */
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.PriorityQueue;
+
+public class SpimiIndexer {
+
+    // Rough heap cost of one posting (docID and count ints, with room for array growth)
+    private static final long BYTES_PER_POSTING = 12;
+
+    // Rough heap cost of a dictionary entry and its postings array, not counting the term's characters
+    private static final long BYTES_PER_TERM = 100;
+
+    // Rough heap cost of one word position, with room for array growth
+    private static final long BYTES_PER_POSITION = 6;
+
+    private final String runPathPrefix;
+    private final long memoryBudget;
+
+    // Run-local term IDs and the [docID, count, ...] postings of each run-local term ID
+    private final StringIntMap dictionary = new StringIntMap(1 << 16);
+    private IntArrayList[] postingsByID = new IntArrayList[1 << 16];
+    private IntArrayList[] positionsByID;   // positions of each run-local term ID, null without positions
+    private long estimatedBytes = 0;
+    private final List<File> runFiles = new ArrayList<File>();
+
+    public SpimiIndexer(String runPathPrefix, long memoryBudget, boolean storePositions) {
+        this.runPathPrefix = runPathPrefix;
+        this.memoryBudget = memoryBudget;
+        this.positionsByID = storePositions ? new IntArrayList[postingsByID.length] : null;
+    }
+
+    // Adds the distinct terms of a document and their counts, docIDs must be added in increasing order.
+    // When positions are stored, positions holds the positions of terms[0], then of terms[1], ...
+    public void addDocument(int docID, String[] terms, int[] counts, int[] positions) throws IOException {
+        if ((positions != null) != (positionsByID != null)) {
+            throw new IllegalArgumentException(positionsByID != null ? "Positions are required" : "Positions are not stored");
+        }
+        int from = 0;
+        for (int i = 0; i < terms.length; i++) {
+            int termID = dictionary.getOrAdd(terms[i]);
+            if (termID == postingsByID.length) {
+                postingsByID = Arrays.copyOf(postingsByID, termID * 2);
+                if (positionsByID != null) {
+                    positionsByID = Arrays.copyOf(positionsByID, termID * 2);
+                }
+            }
+            IntArrayList postings = postingsByID[termID];
+            if (postings == null) {
+                postings = new IntArrayList(2);
+                postingsByID[termID] = postings;
+                estimatedBytes += BYTES_PER_TERM + 2L * terms[i].length();
+            }
+            postings.add(docID);
+            postings.add(counts[i]);
+            estimatedBytes += BYTES_PER_POSTING;
+
+            if (positionsByID != null) {
+                if (positionsByID[termID] == null) {
+                    positionsByID[termID] = new IntArrayList(counts[i]);
+                }
+                for (int j = from; j < from + counts[i]; j++) {
+                    positionsByID[termID].add(positions[j]);
+                }
+                from += counts[i];
+                estimatedBytes += BYTES_PER_POSITION * counts[i];
+            }
+        }
+
+        if (estimatedBytes >= memoryBudget) {
+            flushRun();
+        }
+    }
+
+    // Writes the in-memory dictionary to a new run file in sorted term order and clears it
+    private void flushRun() throws IOException {
+        if (dictionary.size() == 0) {
+            return;
+        }
+
+        File runFile = new File(runPathPrefix + runFiles.size() + ".tmp");
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(runFile), 1 << 16));
+
+        // Sort the run-local term IDs by their terms
+        Integer[] sortedIDs = new Integer[dictionary.size()];
+        for (int i = 0; i < sortedIDs.length; i++) {
+            sortedIDs[i] = i;
+        }
+        Arrays.sort(sortedIDs, (a, b) -> dictionary.key(a).compareTo(dictionary.key(b)));
+
+        out.writeInt(sortedIDs.length);
+        for (int termID : sortedIDs) {
+            IntArrayList postings = postingsByID[termID];
+            out.writeUTF(dictionary.key(termID));
+            out.writeInt(postings.size() / 2);
+            int lastDocID = -1;
+            int from = 0;
+            for (int i = 0; i < postings.size(); i = i + 2) {
+                int docID = postings.get(i);
+                int count = postings.get(i + 1);
+                VByte.write(out, docID - lastDocID - 1);
+                VByte.write(out, count);
+                lastDocID = docID;
+
+                if (positionsByID != null) {
+                    IntArrayList positions = positionsByID[termID];
+                    int lastPosition = -1;
+                    for (int j = from; j < from + count; j++) {
+                        VByte.write(out, positions.get(j) - lastPosition - 1);
+                        lastPosition = positions.get(j);
+                    }
+                    from += count;
+                }
+            }
+        }
+        out.close();
+
+        runFiles.add(runFile);
+        Arrays.fill(postingsByID, 0, dictionary.size(), null);
+        if (positionsByID != null) {
+            Arrays.fill(positionsByID, 0, dictionary.size(), null);
+        }
+        dictionary.clear();
+        estimatedBytes = 0;
+    }
+
+    // Sequential reader over one run file, positioned on its current term
+    private static class RunReader {
+        final int runIndex;
+        final DataInputStream in;
+        int remainingTerms;
+        String term;
+        int df;
+        int[] positions = new int[64];  // positions of the posting being copied
+
+        RunReader(int runIndex, File runFile) throws IOException {
+            this.runIndex = runIndex;
+            this.in = new DataInputStream(new BufferedInputStream(new FileInputStream(runFile), 1 << 16));
+            this.remainingTerms = in.readInt();
+        }
+
+        // Moves to the next term, returns false at the end of the run
+        boolean nextTerm() throws IOException {
+            if (remainingTerms == 0) {
+                in.close();
+                return false;
+            }
+            remainingTerms--;
+            term = in.readUTF();
+            df = in.readInt();
+            return true;
+        }
+
+        // Copies the postings of the current term, and their positions if the writer stores them
+        void copyPostings(PostingsWriter writer) throws IOException {
+            int docID = -1;
+            for (int i = 0; i < df; i++) {
+                docID = docID + VByte.read(in) + 1;
+                int count = VByte.read(in);
+                if (!writer.hasPositions()) {
+                    writer.addPosting(docID, count);
+                    continue;
+                }
+                if (positions.length < count) {
+                    positions = new int[Math.max(count, positions.length * 2)];
+                }
+                int position = -1;
+                for (int j = 0; j < count; j++) {
+                    position = position + VByte.read(in) + 1;
+                    positions[j] = position;
+                }
+                writer.addPosting(docID, count, positions, 0);
+            }
+        }
+    }
+
+    // Flushes the last run and merges all runs into the postings writer, adding each term to the
+    // lexicon in term ID order. Returns the number of runs that were merged.
+    public int merge(PostingsWriter writer, Lexicon.Writer lexicon) throws IOException {
+        flushRun();
+        int numRuns = runFiles.size();
+
+        // Runs are ordered by term, and by run index for the same term so docIDs stay increasing
+        PriorityQueue<RunReader> queue = new PriorityQueue<RunReader>((a, b) -> {
+            int termCompare = a.term.compareTo(b.term);
+            return termCompare != 0 ? termCompare : Integer.compare(a.runIndex, b.runIndex);
+        });
+        for (int i = 0; i < runFiles.size(); i++) {
+            RunReader reader = new RunReader(i, runFiles.get(i));
+            if (reader.nextTerm()) {
+                queue.add(reader);
+            }
+        }
+
+        int termID = 0;
+        while (!queue.isEmpty()) {
+            String term = queue.peek().term;
+            lexicon.add(term);
+
+            writer.startTerm(termID);
+            while (!queue.isEmpty() && queue.peek().term.equals(term)) {
+                RunReader reader = queue.poll();
+                reader.copyPostings(writer);
+                if (reader.nextTerm()) {
+                    queue.add(reader);
+                }
+            }
+            writer.endTerm();
+            termID++;
+        }
+
+        // Remove the temporary run files
+        for (File runFile : runFiles) {
+            runFile.delete();
+        }
+        runFiles.clear();
+        return numRuns;
+    }
+}
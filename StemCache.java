@@ -0,0 +1,99 @@
+/*
+ * Date: October 16, 2026
+ * Name: Matthew Chan
+ *
+ * Program Description:
+ * The StemCache Java class remembers the stems of the words it has seen, keyed by the word as
+ * it appeared in the text, so a word that repeats costs one hash lookup instead of a run of
+ * the stemmer. The cache is a ConcurrentHashMap and can be shared by all threads; on a miss
+ * the word is stemmed in place in a per-thread buffer by that thread's Stemmer. The cache is
+ * bounded by starting over once it holds its capacity of words, the same way the indexer's
+ * worker vocabularies are bounded, which keeps lookups free of any eviction bookkeeping. A
+ * word that the stemmer leaves unchanged maps to itself, so no String is created for it.
+ *
+ */
+
+import java.util.concurrent.ConcurrentHashMap;
+
+public class StemCache {
+
+    // Default number of words kept before the cache starts over
+    public static final int DEFAULT_CAPACITY = 1 << 18;
+
+    // Longest word stemmed in the per-thread buffer, longer words get a buffer of their own
+    private static final int SCRATCH_SIZE = 64;
+
+    private static final StemCache shared = new StemCache(DEFAULT_CAPACITY);
+
+    // Per-thread stemmer and scratch buffer for the words that miss the cache
+    private static class ThreadState {
+        final Stemmer stemmer = new Stemmer();
+        final char[] scratch = new char[SCRATCH_SIZE];
+    }
+
+    private static final ThreadLocal<ThreadState> threadStates = ThreadLocal.withInitial(ThreadState::new);
+
+    private final ConcurrentHashMap<String, String> stems;
+    private final int capacity;
+
+    public StemCache(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Stem cache capacity must be positive");
+        }
+        this.capacity = capacity;
+        this.stems = new ConcurrentHashMap<String, String>(Math.min(capacity, 1 << 16));
+    }
+
+    // Returns the cache shared by the indexer and the query programs
+    public static StemCache shared() {
+        return shared;
+    }
+
+    // Returns the stem of a word, the same as PorterStemmer.stem
+    public String stem(String word) {
+        String stem = stems.get(word);
+        if (stem != null) {
+            return stem;
+        }
+
+        stem = stemUncached(word);
+        if (stems.size() >= capacity) {
+            stems.clear();
+        }
+        stems.put(word, stem);
+        return stem;
+    }
+
+    // Stems a word with the calling thread's stemmer without looking at the cache
+    public static String stemUncached(String word) {
+        int length = word.length();
+        if (length == 0) {
+            return "No term entered"; // what PorterStemmer.stem returns for an empty word
+        }
+        ThreadState state = threadStates.get();
+        char[] buf = length <= SCRATCH_SIZE ? state.scratch : new char[length];
+        word.getChars(0, length, buf, 0);
+        int stemLength = state.stemmer.stem(buf, length);
+
+        // Words the stemmer leaves unchanged, such as numbers, are returned as they are
+        if (stemLength == length && sameChars(word, buf, length)) {
+            return word;
+        }
+        return new String(buf, 0, stemLength);
+    }
+
+    // Does word equal the first length chars of buf?
+    private static boolean sameChars(String word, char[] buf, int length) {
+        for (int i = 0; i < length; i++) {
+            if (word.charAt(i) != buf[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Returns the number of words in the cache
+    public int size() {
+        return stems.size();
+    }
+}
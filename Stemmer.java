@@ -0,0 +1,246 @@
+/*
+ * Date: October 16, 2026
+ * Name: Matthew Chan
+ *
+ * Program Description:
+ * The Stemmer Java class applies the same rules as PorterStemmer, step for step, to a word
+ * held in a char[] buffer. Suffixes are compared and replaced in place by moving the end of
+ * the word, so stemming a word does not create any Strings or arrays. PorterStemmer's
+ * behaviour is kept exactly, including where it differs from the published algorithm (the
+ * order of the step 2 suffixes, 'y' counting as a vowel when looking for one but not when
+ * measuring, and words with a non-letter being left unchanged), so both give the same stems.
+ * StemmerCheck compares the two. A Stemmer keeps the word being stemmed in fields, so each
+ * thread needs its own instance.
+ *
+ */
+
+public class Stemmer {
+
+    private char[] b;   // word being stemmed
+    private int k;      // length of the word
+
+    // Stems the first length chars of buf in place and returns the length of the stem
+    public int stem(char[] buf, int length) {
+        if (length == 0) {
+            throw new IllegalArgumentException("Cannot stem an empty word");
+        }
+        // All characters must be letters, otherwise the word is left as it is
+        for (int i = 0; i < length; i++) {
+            if (!Character.isLetter(buf[i])) {
+                return length;
+            }
+        }
+
+        b = buf;
+        k = length;
+        step1a();
+        step1b();
+        step1c();
+        step2();
+        step3();
+        step4();
+        step5a();
+        step5b();
+        b = null;
+        return k;
+    }
+
+    // Does the word end with suffix?
+    private boolean ends(String suffix) {
+        int start = k - suffix.length();
+        if (start < 0) {
+            return false;
+        }
+        for (int i = 0; i < suffix.length(); i++) {
+            if (b[start + i] != suffix.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Ends the word at length and appends suffix
+    private void setTo(int length, String suffix) {
+        for (int i = 0; i < suffix.length(); i++) {
+            b[length + i] = suffix.charAt(i);
+        }
+        k = length + suffix.length();
+    }
+
+    // Is c one of a, e, i, o, u?
+    private static boolean isVowel(char c) {
+        return c == 'a' || c == 'e' || c == 'i' || c == 'o' || c == 'u';
+    }
+
+    // Does the first length chars contain a vowel or a 'y'?
+    private boolean containsVowel(int length) {
+        for (int i = 0; i < length; i++) {
+            if (isVowel(b[i]) || b[i] == 'y') {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Do the first length chars end with a double consonant (where 'y' is not a consonant)?
+    private boolean endsWithDoubleConsonant(int length) {
+        if (length < 2) {
+            return false;
+        }
+        char c = b[length - 1];
+        return c == b[length - 2] && !isVowel(c) && c != 'y';
+    }
+
+    // Returns the number of vowel-consonant sequences in the first length chars
+    private int measure(int length) {
+        int count = 0;
+        boolean vowelSeen = false;
+        for (int i = 0; i < length; i++) {
+            if (isVowel(b[i])) {
+                vowelSeen = true;
+            } else if (vowelSeen) {
+                count++;
+                vowelSeen = false;
+            }
+        }
+        return count;
+    }
+
+    // Do the first length chars end with consonant-vowel-consonant, the last not w, x or y?
+    private boolean endsWithCVC(int length) {
+        if (length < 3) {
+            return false;
+        }
+        char c = b[length - 1];
+        char v = b[length - 2];
+        char c2 = b[length - 3];
+        return c != 'w' && c != 'x' && c != 'y' && !isVowel(c) && isVowel(v) && !isVowel(c2);
+    }
+
+    // If the word ends with suffix and the measure of the word without its last cut chars is
+    // above minMeasure, removes the last cut chars and appends append
+    private boolean replace(String suffix, int cut, String append, int minMeasure) {
+        if (ends(suffix) && measure(k - cut) > minMeasure) {
+            setTo(k - cut, append);
+            return true;
+        }
+        return false;
+    }
+
+    private void step1a() {
+        if (ends("sses") || ends("ies")) {
+            k = k - 2;
+        } else if (ends("ss")) {
+            return;
+        } else if (ends("s")) {
+            k = k - 1;
+        }
+    }
+
+    private void step1b() {
+        if (ends("eed")) {
+            if (measure(k - 3) > 0) {
+                k = k - 1;
+            }
+        } else if (ends("ed") && containsVowel(k - 2)) {
+            k = k - 2;
+            step1b2();
+        } else if (ends("ing") && containsVowel(k - 3)) {
+            k = k - 3;
+            step1b2();
+        }
+    }
+
+    private void step1b2() {
+        if (ends("at") || ends("bl") || ends("iz")) {
+            setTo(k, "e");
+        } else if (endsWithDoubleConsonant(k) && !(ends("l") || ends("s") || ends("z"))) {
+            k = k - 1;
+        } else if (measure(k) == 1 && endsWithCVC(k)) {
+            setTo(k, "e");
+        }
+    }
+
+    private void step1c() {
+        if (ends("y") && containsVowel(k - 1)) {
+            b[k - 1] = 'i';
+        }
+    }
+
+    // The suffixes, cuts and replacements are PorterStemmer's, in its order, and a suffix that
+    // matches with too small a measure falls through to the next one
+    private void step2() {
+        if (replace("ational", 5, "e", 0)) return;
+        if (replace("tional", 2, "", 0)) return;
+        if (replace("enci", 2, "", 0)) return;
+        if (replace("anci", 1, "e", 0)) return;
+        if (replace("izer", 1, "", 0)) return;
+        if (replace("abli", 1, "e", 0)) return;
+        if (replace("alli", 2, "", 0)) return;
+        if (replace("entli", 2, "", 0)) return;
+        if (replace("eli", 2, "", 0)) return;
+        if (replace("ousli", 2, "", 0)) return;
+        if (replace("ization", 5, "e", 0)) return;
+        if (replace("ation", 3, "e", 0)) return;
+        if (replace("ator", 2, "e", 0)) return;
+        if (replace("alism", 3, "", 0)) return;
+        if (replace("iveness", 4, "", 0)) return;
+        if (replace("fulness", 4, "", 0)) return;
+        if (replace("ousness", 4, "", 0)) return;
+        if (replace("aliti", 3, "", 0)) return;
+        if (replace("iviti", 3, "e", 0)) return;
+        replace("biliti", 5, "le", 0);
+    }
+
+    private void step3() {
+        if (replace("icate", 3, "", 0)) return;
+        if (replace("ative", 5, "", 0)) return;
+        if (replace("alize", 3, "", 0)) return;
+        if (replace("iciti", 3, "", 0)) return;
+        if (replace("ical", 2, "", 0)) return;
+        if (replace("ful", 3, "", 0)) return;
+        replace("ness", 4, "", 0);
+    }
+
+    private void step4() {
+        if (replace("al", 2, "", 1)) return;
+        if (replace("ance", 4, "", 1)) return;
+        if (replace("ence", 4, "", 1)) return;
+        if (replace("er", 2, "", 1)) return;
+        if (replace("ic", 2, "", 1)) return;
+        if (replace("able", 4, "", 1)) return;
+        if (replace("ible", 4, "", 1)) return;
+        if (replace("ant", 3, "", 1)) return;
+        if (replace("ement", 5, "", 1)) return;
+        if (replace("ment", 4, "", 1)) return;
+        if (replace("ent", 3, "", 1)) return;
+        if (replace("sion", 3, "", 1)) return;
+        if (replace("tion", 3, "", 1)) return;
+        if (replace("ou", 2, "", 1)) return;
+        if (replace("ism", 3, "", 1)) return;
+        if (replace("ate", 3, "", 1)) return;
+        if (replace("iti", 3, "", 1)) return;
+        if (replace("ous", 3, "", 1)) return;
+        if (replace("ive", 3, "", 1)) return;
+        replace("ize", 3, "", 1);
+    }
+
+    private void step5a() {
+        if (k == 0 || !ends("e")) {
+            return;
+        }
+        int m = measure(k - 1);
+        if (m > 1 || (m == 1 && !endsWithCVC(k - 1))) {
+            k = k - 1;
+        }
+    }
+
+    private void step5b() {
+        if (k == 0) {
+            return;
+        }
+        if (ends("l") && endsWithDoubleConsonant(k) && measure(k - 1) > 1) {
+            k = k - 1;
+        }
+    }
+}
@@ -0,0 +1,147 @@
+/*
+ * Date: October 16, 2026
+ * Name: Matthew Chan
+ *
+ * Program Description:
+ * The StemmerCheck Java program checks that the in-place Stemmer, with and without the
+ * StemCache in front of it, gives exactly the same stems as PorterStemmer. It stems every
+ * term in the lexicon of an index (built without stemming, so the lexicon holds the words
+ * as they appear in the text) and every lowercase word up to --max-length letters, prints
+ * any word where the stems differ and exits with status 1 if there were any. It then times
+ * the three ways of stemming over the lexicon.
+ *
+ * Command Line Argument Inputs:
+ * javac StemmerCheck.java
+ * java StemmerCheck.java latimes_index
+ * java StemmerCheck.java latimes_index --max-length 5 --rounds 10
+ *
+ */
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class StemmerCheck {
+
+    // Number of mismatches printed before the rest are only counted
+    private static final int MAX_PRINTED = 20;
+
+    // Receives a value from every round so the JIT cannot remove the work
+    private static volatile long sink;
+
+    // Reads the terms of every segment's lexicon
+    private static List<String> readLexicon(String indexRoot) throws IOException {
+        List<String> terms = new ArrayList<String>();
+        SegmentList segments = SegmentList.read(indexRoot);
+        for (int i = 0; i < segments.size(); i++) {
+            Lexicon lexicon = Lexicon.open(SegmentList.path(indexRoot, segments.name(i), "lexicon.bin"));
+            terms.addAll(Arrays.asList(lexicon.terms()));
+        }
+        return terms;
+    }
+
+    // Adds every word of length 1 to maxLength over a-z
+    private static void addAllWords(List<String> words, int maxLength) {
+        char[] word = new char[maxLength];
+        for (int length = 1; length <= maxLength; length++) {
+            addAllWords(words, word, 0, length);
+        }
+    }
+
+    private static void addAllWords(List<String> words, char[] word, int pos, int length) {
+        if (pos == length) {
+            words.add(new String(word, 0, length));
+            return;
+        }
+        for (char c = 'a'; c <= 'z'; c++) {
+            word[pos] = c;
+            addAllWords(words, word, pos + 1, length);
+        }
+    }
+
+    // Compares the stems of every word and returns the number of mismatches
+    private static int check(List<String> words, StemCache cache) {
+        int mismatches = 0;
+        for (String word : words) {
+            String expected = PorterStemmer.stem(word);
+            String uncached = StemCache.stemUncached(word);
+            String cached = cache.stem(word);
+            String cachedAgain = cache.stem(word);
+            if (!expected.equals(uncached) || !expected.equals(cached) || !expected.equals(cachedAgain)) {
+                if (mismatches < MAX_PRINTED) {
+                    System.out.printf("%s: PorterStemmer %s, Stemmer %s, StemCache %s / %s%n",
+                            word, expected, uncached, cached, cachedAgain);
+                }
+                mismatches++;
+            }
+        }
+        return mismatches;
+    }
+
+    public static void main(String[] args) throws IOException {
+        Options options = new Options(args);
+        if (options.numPositional() != 1) {
+            throw new IllegalArgumentException(
+                    "Please include a valid path to an index directory. For example: " +
+                    "'java StemmerCheck.java latimes_index'");
+        }
+        String indexRoot = options.positional(0);
+        if (!new File(indexRoot).exists()) {
+            throw new FileNotFoundException(indexRoot + " path does not exist");
+        }
+        int maxLength = options.getInt("max-length", 4);
+        int rounds = options.getInt("rounds", 100);
+
+        List<String> lexicon = readLexicon(indexRoot);
+        List<String> words = new ArrayList<String>(lexicon);
+        addAllWords(words, maxLength);
+        words.add("");
+
+        // A small cache also checks that starting over keeps the stems right
+        int mismatches = check(words, new StemCache(1 << 10));
+        System.out.printf("Checked %d words (%d lexicon terms and every word up to %d letters): %d mismatches%n",
+                words.size(), lexicon.size(), maxLength, mismatches);
+
+        // Time the three ways of stemming over the lexicon
+        StemCache cache = new StemCache(StemCache.DEFAULT_CAPACITY);
+        long porterNanos = 0, stemmerNanos = 0, cachedNanos = 0;
+        for (int r = 0; r <= rounds; r++) {
+            long start = System.nanoTime();
+            for (String word : lexicon) {
+                sink += PorterStemmer.stem(word).length();
+            }
+            long porter = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            for (String word : lexicon) {
+                sink += StemCache.stemUncached(word).length();
+            }
+            long stemmer = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            for (String word : lexicon) {
+                sink += cache.stem(word).length();
+            }
+            long cached = System.nanoTime() - start;
+
+            // The first round warms up the JIT and fills the cache
+            if (r > 0) {
+                porterNanos += porter;
+                stemmerNanos += stemmer;
+                cachedNanos += cached;
+            }
+        }
+        if (rounds > 0 && !lexicon.isEmpty()) {
+            System.out.printf("PorterStemmer: %8.1f ns/word%n", porterNanos / (double) rounds / lexicon.size());
+            System.out.printf("Stemmer:       %8.1f ns/word%n", stemmerNanos / (double) rounds / lexicon.size());
+            System.out.printf("StemCache:     %8.1f ns/word%n", cachedNanos / (double) rounds / lexicon.size());
+        }
+
+        if (mismatches > 0) {
+            System.exit(1);
+        }
+    }
+}
@@ -0,0 +1,185 @@
+/*
+ * Date: October 16, 2026
+ * Name: Matthew Chan
+ *
+ * Program Description:
+ * The StringIntMap Java class maps Strings to dense int IDs (0, 1, 2, ... in insertion
+ * order) with an open-addressing hash table and linear probing. getOrAdd looks a term up
+ * and adds it if missing in a single probe sequence, replacing the containsKey / get / put
+ * pattern on HashMap<String, Integer>, and no Integer objects are allocated. The ID -> String
+ * direction is a plain array. Keys can also be looked up by a slice of a char[], such as a
+ * Tokenizer's buffer, which only creates a String when a new key is added.
+ *
+ */
+
+import java.util.Arrays;
+
+public class StringIntMap {
+
+    private static final int EMPTY = -1;
+
+    private int[] table;       // slot -> ID, or EMPTY
+    private int mask;
+    private String[] keys;     // ID -> key
+    private int[] hashes;      // ID -> hash of key
+    private int size = 0;
+
+    public StringIntMap() {
+        this(1024);
+    }
+
+    public StringIntMap(int expectedKeys) {
+        int capacity = Integer.highestOneBit(Math.max(4, expectedKeys * 2) - 1) << 1;
+        table = new int[capacity];
+        Arrays.fill(table, EMPTY);
+        mask = capacity - 1;
+        keys = new String[Math.max(4, expectedKeys)];
+        hashes = new int[keys.length];
+    }
+
+    // Spreads the bits of String.hashCode over the table
+    private static int mix(int h) {
+        h *= 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    // Returns the ID of key, adding it with the next free ID if it is not in the map
+    public int getOrAdd(String key) {
+        int h = key.hashCode();
+        int slot = mix(h) & mask;
+        while (true) {
+            int id = table[slot];
+            if (id == EMPTY) {
+                break;
+            }
+            if (hashes[id] == h && keys[id].equals(key)) {
+                return id;
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        // Not found: the probe stopped at the empty slot where the key belongs
+        return add(key, h, slot);
+    }
+
+    // Adds a key that is not in the map at the empty slot its probe stopped at
+    private int add(String key, int h, int slot) {
+        if (size == keys.length) {
+            keys = Arrays.copyOf(keys, size * 2);
+            hashes = Arrays.copyOf(hashes, size * 2);
+        }
+        int id = size++;
+        keys[id] = key;
+        hashes[id] = h;
+        table[slot] = id;
+        if (size * 2 > table.length) {
+            rehash();
+        }
+        return id;
+    }
+
+    // Returns the ID of key, or -1 if it is not in the map
+    public int get(String key) {
+        int h = key.hashCode();
+        int slot = mix(h) & mask;
+        while (true) {
+            int id = table[slot];
+            if (id == EMPTY) {
+                return -1;
+            }
+            if (hashes[id] == h && keys[id].equals(key)) {
+                return id;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    // Returns the hash of a slice of chars, the same as String.hashCode of the slice
+    private static int hash(char[] chars, int offset, int length) {
+        int h = 0;
+        for (int i = offset; i < offset + length; i++) {
+            h = 31 * h + chars[i];
+        }
+        return h;
+    }
+
+    // Does key hold the same chars as the slice?
+    private static boolean equals(String key, char[] chars, int offset, int length) {
+        if (key.length() != length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (key.charAt(i) != chars[offset + i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Returns the ID of the key held in chars[offset, offset + length), adding it if it is not in the map
+    public int getOrAdd(char[] chars, int offset, int length) {
+        int h = hash(chars, offset, length);
+        int slot = mix(h) & mask;
+        while (true) {
+            int id = table[slot];
+            if (id == EMPTY) {
+                break;
+            }
+            if (hashes[id] == h && equals(keys[id], chars, offset, length)) {
+                return id;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return add(new String(chars, offset, length), h, slot);
+    }
+
+    // Returns the ID of the key held in chars[offset, offset + length), or -1 if it is not in the map
+    public int get(char[] chars, int offset, int length) {
+        int h = hash(chars, offset, length);
+        int slot = mix(h) & mask;
+        while (true) {
+            int id = table[slot];
+            if (id == EMPTY) {
+                return -1;
+            }
+            if (hashes[id] == h && equals(keys[id], chars, offset, length)) {
+                return id;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    // Returns the key with the given ID
+    public String key(int id) {
+        if (id >= size) {
+            throw new IndexOutOfBoundsException("ID " + id + " out of bounds for size " + size);
+        }
+        return keys[id];
+    }
+
+    // Returns the number of keys
+    public int size() {
+        return size;
+    }
+
+    // Removes all keys, keeping the arrays for reuse
+    public void clear() {
+        Arrays.fill(table, EMPTY);
+        Arrays.fill(keys, 0, size, null);
+        size = 0;
+    }
+
+    // Doubles the table and re-inserts every ID
+    private void rehash() {
+        table = new int[table.length * 2];
+        Arrays.fill(table, EMPTY);
+        mask = table.length - 1;
+        for (int id = 0; id < size; id++) {
+            int slot = mix(hashes[id]) & mask;
+            while (table[slot] != EMPTY) {
+                slot = (slot + 1) & mask;
+            }
+            table[slot] = id;
+        }
+    }
+}
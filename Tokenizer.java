@@ -0,0 +1,138 @@
+/*
+ * Date: October 16, 2026
+ * Name: Matthew Chan
+ *
+ * Program Description:
+ * The Tokenizer Java class splits text into tokens the way IndexEngine, BM25 and
+ * InteractiveBM25 always have (Strohman's tokenizer): the text is lowercased and every run
+ * of [a-z0-9] characters is a token. Instead of lowercasing the whole text into a new String
+ * and creating a substring per token, next() lowercases one token at a time into a reusable
+ * buffer, and the token is the view buffer()[0, length()). Callers can look the token up
+ * (StringIntMap.get(char[], int, int)), stem it in place (Stemmer.stem(char[], int)) or
+ * create a String with term() only when they need one. A Tokenizer is reused for every text
+ * but is not thread-safe, so each thread needs its own; forThread() returns one per thread, and
+ * tokens() tokenizes (and stems) a whole query with it.
+ *
+ * Characters are lowercased one at a time, which gives the same tokens as String.toLowerCase
+ * except for capital I with dot (U+0130). String.toLowerCase turns it into i followed by a
+ * combining dot, so it ends the token after the i here as well.
+ *
+ */
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class Tokenizer {
+
+    // Reusable tokenizer for each thread, see forThread
+    private static final ThreadLocal<Tokenizer> tokenizers = ThreadLocal.withInitial(Tokenizer::new);
+
+    private CharSequence text;
+    private int textLength;
+    private int pos;            // where the next token search starts in the text
+    private char[] buffer = new char[64];
+    private int length;         // length of the current token
+    private int offset;         // offset of the current token in the text
+    private int position;       // number of tokens before the current one
+
+    // Starts tokenizing a new text
+    public void reset(CharSequence text) {
+        this.text = text;
+        this.textLength = text.length();
+        this.pos = 0;
+        this.length = 0;
+        this.offset = 0;
+        this.position = -1;
+    }
+
+    // Checks if a character is alphanumeric
+    private static boolean isAlphanumeric(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= '0' && c <= '9');
+    }
+
+    // Advances to the next token, returns false at the end of the text
+    public boolean next() {
+        // Skip the characters between tokens
+        while (pos < textLength && !isAlphanumeric(Character.toLowerCase(text.charAt(pos)))) {
+            pos++;
+        }
+        if (pos >= textLength) {
+            length = 0;
+            return false;
+        }
+
+        offset = pos;
+        length = 0;
+        while (pos < textLength) {
+            char original = text.charAt(pos);
+            char c = Character.toLowerCase(original);
+            if (!isAlphanumeric(c)) {
+                break;
+            }
+            if (length == buffer.length) {
+                buffer = Arrays.copyOf(buffer, buffer.length * 2);
+            }
+            buffer[length++] = c;
+            pos++;
+            // Capital I with dot lowercases to i and a combining dot, which ends the token
+            if (original == '\u0130') {
+                break;
+            }
+        }
+        position++;
+        return true;
+    }
+
+    // Returns the buffer holding the current token in [0, length())
+    public char[] buffer() {
+        return buffer;
+    }
+
+    // Returns the length of the current token
+    public int length() {
+        return length;
+    }
+
+    // Sets the length of the current token, after stemming it in place
+    public void setLength(int length) {
+        if (length < 0 || length > this.length) {
+            throw new IllegalArgumentException("Token length " + length + " is not within the current token");
+        }
+        this.length = length;
+    }
+
+    // Returns the offset of the current token in the text
+    public int offset() {
+        return offset;
+    }
+
+    // Returns the position of the current token: 0 for the first token of the text, 1 for the next, ...
+    public int position() {
+        return position;
+    }
+
+    // Returns the current token as a String
+    public String term() {
+        return new String(buffer, 0, length);
+    }
+
+    // Returns the calling thread's reusable tokenizer. It is shared by every caller on the thread,
+    // including tokens(), so a caller must finish with one text before tokenizing another.
+    public static Tokenizer forThread() {
+        return tokenizers.get();
+    }
+
+    // Returns the tokens of a text, each stemmed through the shared StemCache when stem is true,
+    // the way the query programs tokenize queries
+    public static List<String> tokens(String text, boolean stem) {
+        List<String> tokens = new ArrayList<String>();
+        Tokenizer tokenizer = forThread();
+        tokenizer.reset(text);
+        while (tokenizer.next()) {
+            String token = tokenizer.term();
+            tokens.add(stem ? StemCache.shared().stem(token) : token);
+        }
+        return tokens;
+    }
+}
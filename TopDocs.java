@@ -0,0 +1,146 @@
+/*
+ * Date: October 16, 2026
+ * Name: Matthew Chan
+ *
+ * Program Description:
+ * The TopDocs Java class keeps the k best scored documents of a query in a fixed-size
+ * binary min-heap, so ranking costs O(log k) per candidate instead of sorting every scored
+ * document. Documents are ordered the way Results.CustomComparator orders a run: by score
+ * from high to low, and by docno from high to low when scores are equal, so the top k do
+ * not depend on the order in which documents are scored. The smallest score in a full heap
+ * is the threshold a document has to reach, which dynamic pruning uses to skip documents.
+ *
+ */
+
+public class TopDocs {
+
+    private final SegmentedIndex index;     // docnos break ties between equal scores
+    private final int k;
+    private final int[] docIDs;
+    private final double[] scores;
+    private int size = 0;
+    private boolean sorted = false;
+
+    public TopDocs(int k, SegmentedIndex index) {
+        if (k <= 0) {
+            throw new IllegalArgumentException("k must be positive");
+        }
+        this.index = index;
+        this.k = k;
+        this.docIDs = new int[k];
+        this.scores = new double[k];
+    }
+
+    // Empties the heap so it can be reused for the next query
+    public void clear() {
+        size = 0;
+        sorted = false;
+    }
+
+    // Returns the number of documents kept when the heap is full
+    public int capacity() {
+        return k;
+    }
+
+    public boolean isFull() {
+        return size == k;
+    }
+
+    // Returns the smallest score a document needs to enter the top k, or negative infinity while
+    // fewer than k documents have been added. A document with exactly this score enters only if
+    // its docno is higher than that of the document it replaces.
+    public double threshold() {
+        return size == k ? scores[0] : Double.NEGATIVE_INFINITY;
+    }
+
+    // Returns whether the document at heap slot i ranks below the given document
+    private boolean ranksBelow(int i, int docID, double score) {
+        if (scores[i] != score) {
+            return scores[i] < score;
+        }
+        return index.docno(docIDs[i]).compareTo(index.docno(docID)) < 0;
+    }
+
+    // Adds a scored document, returns whether it is in the top k
+    public boolean add(int docID, double score) {
+        if (sorted) {
+            throw new IllegalStateException("The top documents were already sorted, call clear() first");
+        }
+        if (size < k) {
+            // Sift the new document up from the last slot
+            int i = size++;
+            while (i > 0) {
+                int parent = (i - 1) / 2;
+                if (ranksBelow(parent, docID, score)) {
+                    break;
+                }
+                docIDs[i] = docIDs[parent];
+                scores[i] = scores[parent];
+                i = parent;
+            }
+            docIDs[i] = docID;
+            scores[i] = score;
+            return true;
+        }
+        if (!ranksBelow(0, docID, score)) {
+            return false;
+        }
+        siftDown(docID, score, size);
+        return true;
+    }
+
+    // Places a document at the root and moves it down to its slot in heap[0, heapSize)
+    private void siftDown(int docID, double score, int heapSize) {
+        int i = 0;
+        while (true) {
+            int child = 2 * i + 1;
+            if (child >= heapSize) {
+                break;
+            }
+            // Pick the lower ranked child
+            int right = child + 1;
+            if (right < heapSize && ranksBelow(right, docIDs[child], scores[child])) {
+                child = right;
+            }
+            if (!ranksBelow(child, docID, score)) {
+                break;
+            }
+            docIDs[i] = docIDs[child];
+            scores[i] = scores[child];
+            i = child;
+        }
+        docIDs[i] = docID;
+        scores[i] = score;
+    }
+
+    // Sorts the documents into rank order, after which no more documents can be added
+    public void sort() {
+        if (sorted) {
+            return;
+        }
+        // Repeatedly move the lowest ranked document to the end of the shrinking heap
+        for (int heapSize = size - 1; heapSize > 0; heapSize--) {
+            int lowestID = docIDs[0];
+            double lowestScore = scores[0];
+            siftDown(docIDs[heapSize], scores[heapSize], heapSize);
+            docIDs[heapSize] = lowestID;
+            scores[heapSize] = lowestScore;
+        }
+        sorted = true;
+    }
+
+    // Returns the number of documents kept
+    public int size() {
+        return size;
+    }
+
+    // Returns the docID at a rank from 0, after sort()
+    public int docID(int rank) {
+        return docIDs[rank];
+    }
+
+    // Returns the score at a rank from 0, after sort()
+    public double score(int rank) {
+        return scores[rank];
+    }
+}
@@ -0,0 +1,85 @@
+/*
+ * Date: October 16, 2026
+ * Name: Matthew Chan
+ *
+ * Program Description:
+ * The VByte Java class implements variable-byte integer compression as used by the
+ * on-disk postings format. Each non-negative integer is split into 7-bit groups that
+ * are written lowest group first, and the high bit of a byte is set when more bytes
+ * of the same integer follow. Small values such as docID gaps and term frequencies
+ * therefore take a single byte in the common case.
+ *
+ */
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+
+public class VByte {
+
+    // Writes a non-negative integer to the output stream and returns the number of bytes written
+    public static int write(OutputStream out, int value) throws IOException {
+        int bytes = 1;
+        while ((value & ~0x7F) != 0) {
+            out.write((value & 0x7F) | 0x80);
+            value >>>= 7;
+            bytes++;
+        }
+        out.write(value);
+        return bytes;
+    }
+
+    // Writes a non-negative integer into the byte array at pos and returns the next free position
+    public static int write(byte[] buf, int pos, int value) {
+        while ((value & ~0x7F) != 0) {
+            buf[pos++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        buf[pos++] = (byte) value;
+        return pos;
+    }
+
+    // Reads one integer from the current position of the buffer
+    public static int read(ByteBuffer buf) {
+        int b = buf.get();
+        int value = b & 0x7F;
+        int shift = 7;
+        while ((b & 0x80) != 0) {
+            b = buf.get();
+            value |= (b & 0x7F) << shift;
+            shift += 7;
+        }
+        return value;
+    }
+
+    // Reads one integer from the input stream
+    public static int read(InputStream in) throws IOException {
+        int b = in.read();
+        if (b < 0) {
+            throw new EOFException("Unexpected end of variable-byte stream");
+        }
+        int value = b & 0x7F;
+        int shift = 7;
+        while ((b & 0x80) != 0) {
+            b = in.read();
+            if (b < 0) {
+                throw new EOFException("Unexpected end of variable-byte stream");
+            }
+            value |= (b & 0x7F) << shift;
+            shift += 7;
+        }
+        return value;
+    }
+
+    // Returns the number of bytes needed to encode a non-negative integer
+    public static int size(int value) {
+        int bytes = 1;
+        while ((value & ~0x7F) != 0) {
+            value >>>= 7;
+            bytes++;
+        }
+        return bytes;
+    }
+}